@@ -13,6 +13,7 @@ import org.gwtproject.place.shared.PlaceHistoryMapper;
 import org.gwtproject.timer.client.Timer;
 
 import com.google.gwt.core.client.EntryPoint;
+import com.google.gwt.user.client.History;
 import com.google.gwt.user.client.ui.RootPanel;
 import com.google.gwt.user.client.ui.SimplePanel;
 
@@ -29,15 +30,18 @@ public class SimpleEntry implements EntryPoint {
     
     //temporary workaround
     activityManager.setDisplay((iw) -> display.setWidget(iw == null ? null : iw::asWidget));
+    RootPanel.get().add(display);
 
-    PlaceController placeController = new PlaceController(eventBus);
+    // Show the first activity before wiring up places and history
     PlaceHistoryMapper placeHistoryMapper = new SimplePlaceHistoryMapperImpl();
-    PlaceHistoryHandler historyHandler = new PlaceHistoryHandler(placeHistoryMapper);
     Place defaultPlace = new HomePlace();
+    Place initialPlace = placeHistoryMapper.getPlace(History.getToken());
+    activityManager.bootstrap(initialPlace == null ? defaultPlace : initialPlace);
 
-    historyHandler.register(placeController, eventBus, defaultPlace);
+    PlaceController placeController = new PlaceController(eventBus);
+    PlaceHistoryHandler historyHandler = new PlaceHistoryHandler(placeHistoryMapper);
 
-    RootPanel.get().add(display);
+    historyHandler.register(placeController, eventBus, defaultPlace);
     historyHandler.handleCurrentHistory();
 
     new Timer() {
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.Event;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.HandlerRegistration;
+
+import java.util.Map;
+
+/**
+ * Sits between an {@link ActivityManager}'s per-activity event bus and its
+ * real one, and keeps {@link ActivityEventStats} for the activity currently
+ * running, if any.
+ */
+class AccountingEventBus extends EventBus {
+
+  private final EventBus wrapped;
+  private final DispatchCountingEventBus root;
+
+  private ActivityEventStats stats;
+
+  AccountingEventBus(EventBus wrapped) {
+    this.wrapped = wrapped;
+    EventBus bus = wrapped;
+    while (bus instanceof PlaceEventFilter) {
+      bus = ((PlaceEventFilter) bus).getWrapped();
+    }
+    this.root = bus instanceof DispatchCountingEventBus ? (DispatchCountingEventBus) bus : null;
+  }
+
+  @Override
+  public <H> HandlerRegistration addHandler(Event.Type<H> type, H handler) {
+    return count(type, wrapped.addHandler(type, handler), true);
+  }
+
+  @Override
+  public <H> HandlerRegistration addHandlerToSource(Event.Type<H> type, Object source,
+      H handler) {
+    return count(type, wrapped.addHandlerToSource(type, source, handler), false);
+  }
+
+  @Override
+  public void fireEvent(Event<?> event) {
+    if (stats != null) {
+      counters(event.getAssociatedType()).eventsFired++;
+    }
+    wrapped.fireEvent(event);
+  }
+
+  @Override
+  public void fireEventFromSource(Event<?> event, Object source) {
+    if (stats != null) {
+      counters(event.getAssociatedType()).eventsFired++;
+    }
+    wrapped.fireEventFromSource(event, source);
+  }
+
+  /**
+   * Starts keeping stats for a new activity.
+   */
+  void begin() {
+    stats = new ActivityEventStats();
+  }
+
+  /**
+   * Stops keeping stats, and returns them, or null if {@link #begin} was not
+   * called.
+   */
+  ActivityEventStats end() {
+    ActivityEventStats ended = stats;
+    stats = null;
+    if (ended != null) {
+      for (Map.Entry<Event.Type<?>, ActivityEventStats.Counters> entry : ended.all().entrySet()) {
+        settle(entry.getKey(), entry.getValue());
+      }
+    }
+    return ended;
+  }
+
+  private HandlerRegistration count(final Event.Type<?> type,
+      final HandlerRegistration registration, final boolean receives) {
+    if (stats == null) {
+      return registration;
+    }
+    final ActivityEventStats.Counters counters = counters(type);
+    counters.handlersAdded++;
+    if (!receives) {
+      return registration;
+    }
+    settle(type, counters);
+    counters.liveHandlers++;
+    return new HandlerRegistration() {
+      private boolean removed;
+
+      public void removeHandler() {
+        if (!removed) {
+          removed = true;
+          settle(type, counters);
+          counters.liveHandlers--;
+        }
+        registration.removeHandler();
+      }
+    };
+  }
+
+  private ActivityEventStats.Counters counters(Event.Type<?> type) {
+    return stats.counters(type, root == null ? 0 : root.getFireCount(type));
+  }
+
+  /*
+   * Credits the live handlers with the events fired since the last time.
+   */
+  private void settle(Event.Type<?> type, ActivityEventStats.Counters counters) {
+    if (root != null) {
+      int fires = root.getFireCount(type);
+      counters.eventsReceived += counters.liveHandlers * (fires - counters.seenFires);
+      counters.seenFires = fires;
+    }
+  }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares the data activities load between them and across restarts, so that
+ * e.g. a list, a detail and a sidebar activity for the same place fetch each
+ * entity once.
+ * <p>
+ * Entries are keyed by an application defined key, and tagged with the place
+ * they were loaded for so that they can be invalidated together. Identical
+ * loads that overlap are coalesced into one. Entries are evicted least
+ * recently used first once the cache is over its maximum weight, and expire
+ * after a time to live.
+ * <p>
+ * Register the cache with each {@link ActivityManager} using
+ * {@link ActivityManager#addLifecycleListener}: an entry is then pinned,
+ * i.e. never evicted for space, while any running activity that asked for it
+ * is running.
+ */
+public class ActivityDataCache implements ActivityLifecycleListener, Shrinkable {
+
+  /**
+   * Receives the result of a load.
+   *
+   * @param <T> the type of the loaded value
+   */
+  public interface Callback<T> {
+    /**
+     * Called if the load failed.
+     *
+     * @param caught the failure
+     */
+    void onFailure(Throwable caught);
+
+    /**
+     * Called with the loaded value.
+     *
+     * @param value the value
+     */
+    void onSuccess(T value);
+  }
+
+  /**
+   * Loads a value on a cache miss, typically with an RPC.
+   *
+   * @param <T> the type of the loaded value
+   */
+  @FunctionalInterface
+  public interface Loader<T> {
+    /**
+     * Starts loading, and eventually calls back exactly once.
+     *
+     * @param callback receives the result
+     */
+    void load(Callback<T> callback);
+  }
+
+  /**
+   * Measures the cost of keeping a cached value.
+   */
+  @FunctionalInterface
+  public interface Weigher {
+    /**
+     * Returns the weight of a value, e.g. an estimate of its size in bytes.
+     * Must not be negative.
+     *
+     * @param key the value's key
+     * @param value the value
+     */
+    int weigh(Object key, Object value);
+  }
+
+  private static final Weigher ONE = new Weigher() {
+    public int weigh(Object key, Object value) {
+      return 1;
+    }
+  };
+
+  /**
+   * A cached value.
+   */
+  private static class Entry {
+    final Object value;
+    final Place place;
+    final int weight;
+    final double expires;
+    final List<Activity> owners = new ArrayList<Activity>(2);
+
+    Entry(Object value, Place place, int weight, double expires) {
+      this.value = value;
+      this.place = place;
+      this.weight = weight;
+      this.expires = expires;
+    }
+  }
+
+  /**
+   * A load in flight, and the callbacks waiting for it.
+   */
+  private class Load implements Callback<Object> {
+    final Object key;
+    final Place place;
+    final List<Activity> owners = new ArrayList<Activity>(2);
+    final List<Callback<Object>> callbacks = new ArrayList<Callback<Object>>(2);
+    boolean invalidated;
+
+    Load(Object key, Place place) {
+      this.key = key;
+      this.place = place;
+    }
+
+    public void onFailure(Throwable caught) {
+      if (loads.get(key) == this) {
+        loads.remove(key);
+      }
+      for (Callback<Object> callback : callbacks) {
+        callback.onFailure(caught);
+      }
+    }
+
+    public void onSuccess(Object value) {
+      if (loads.get(key) == this) {
+        loads.remove(key);
+      }
+      if (!invalidated) {
+        store(this, value);
+      }
+      for (Callback<Object> callback : callbacks) {
+        callback.onSuccess(value);
+      }
+    }
+  }
+
+  private final Map<Object, Entry> entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+  private final Map<Object, Load> loads = new HashMap<Object, Load>();
+  private final List<Activity> running = new ArrayList<Activity>();
+  private final int maxWeight;
+  private final Weigher weigher;
+  private final double timeToLive;
+  private final Clock clock;
+
+  private int weight;
+  private int hits;
+  private int misses;
+  private int coalesced;
+  private int evictions;
+
+  /**
+   * Creates a cache of at most the given number of entries, whose entries
+   * never expire.
+   *
+   * @param maxEntries the maximum number of unpinned entries
+   */
+  public ActivityDataCache(int maxEntries) {
+    this(maxEntries, ONE, Double.POSITIVE_INFINITY, Clock.SYSTEM);
+  }
+
+  /**
+   * Creates a cache.
+   *
+   * @param maxWeight the maximum total weight of the entries
+   * @param weigher measures each value
+   * @param timeToLive how long a value stays fresh, in milliseconds
+   * @param clock used for expiry
+   */
+  public ActivityDataCache(int maxWeight, Weigher weigher, double timeToLive, Clock clock) {
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+  }
+
+  /**
+   * Discards all entries. Loads in flight still call back, but their values
+   * are not cached.
+   */
+  public void clear() {
+    entries.clear();
+    weight = 0;
+    for (Load load : loads.values()) {
+      load.invalidated = true;
+    }
+    loads.clear();
+  }
+
+  /**
+   * Returns a value, from the cache if it is there and fresh, or by joining a
+   * load already in flight for the same key, or else by loading it.
+   * <p>
+   * Cache hits call back synchronously.
+   *
+   * @param key identifies the value
+   * @param place the place the value is loaded for, used by
+   *          {@link #invalidate(Place)}
+   * @param owner the activity asking, whose running pins the entry, or null
+   * @param loader loads the value on a miss
+   * @param callback receives the value
+   * @param <T> the type of the value
+   */
+  @SuppressWarnings("unchecked")
+  public <T> void get(Object key, Place place, Activity owner, Loader<T> loader,
+      Callback<T> callback) {
+    Entry entry = entries.get(key);
+    if (entry != null && entry.expires <= clock.now()) {
+      discard(key);
+      entry = null;
+    }
+    if (entry != null) {
+      hits++;
+      addOwner(entry.owners, owner);
+      callback.onSuccess((T) entry.value);
+      return;
+    }
+
+    Load load = loads.get(key);
+    if (load != null) {
+      coalesced++;
+    } else {
+      misses++;
+      load = new Load(key, place);
+      loads.put(key, load);
+    }
+    addOwner(load.owners, owner);
+    load.callbacks.add((Callback<Object>) callback);
+    if (load.callbacks.size() == 1) {
+      try {
+        loader.load((Callback<T>) (Callback<?>) load);
+      } catch (RuntimeException e) {
+        // Fail the load, unless it called back before throwing
+        if (loads.get(key) == load) {
+          load.onFailure(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns how many requests joined a load already in flight.
+   */
+  public int getCoalescedCount() {
+    return coalesced;
+  }
+
+  /**
+   * Returns how many entries were evicted to stay within the maximum weight.
+   */
+  public int getEvictionCount() {
+    return evictions;
+  }
+
+  /**
+   * Returns how many requests were answered from the cache.
+   */
+  public int getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Returns how many requests started a load.
+   */
+  public int getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Returns the total weight of the cached entries.
+   */
+  public int getWeight() {
+    return weight;
+  }
+
+  /**
+   * Discards the entry for a key. A load in flight for it still calls back,
+   * but its value is not cached.
+   *
+   * @param key the key to invalidate
+   */
+  public void invalidate(Object key) {
+    discard(key);
+    Load load = loads.remove(key);
+    if (load != null) {
+      load.invalidated = true;
+    }
+  }
+
+  /**
+   * Discards every entry loaded for a place, including loads in flight.
+   *
+   * @param place the place to invalidate
+   */
+  public void invalidate(Place place) {
+    Iterator<Entry> it = entries.values().iterator();
+    while (it.hasNext()) {
+      Entry entry = it.next();
+      if (place.equals(entry.place)) {
+        weight -= entry.weight;
+        it.remove();
+      }
+    }
+    Iterator<Load> loadIt = loads.values().iterator();
+    while (loadIt.hasNext()) {
+      Load load = loadIt.next();
+      if (place.equals(load.place)) {
+        load.invalidated = true;
+        loadIt.remove();
+      }
+    }
+  }
+
+  /**
+   * Returns whether the value for a key is cached and pinned by a running
+   * activity.
+   *
+   * @param key the key to check
+   */
+  public boolean isPinned(Object key) {
+    Entry entry = entries.get(key);
+    return entry != null && !entry.owners.isEmpty();
+  }
+
+  /**
+   * Returns the number of cached entries.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Evicts unpinned entries, least recently used first, until the total
+   * weight is at most the given one or only pinned entries are left.
+   *
+   * @param targetWeight the weight to shrink to
+   * @return the number of entries evicted
+   */
+  public int trim(int targetWeight) {
+    int evicted = 0;
+    Iterator<Entry> it = entries.values().iterator();
+    while (weight > targetWeight && it.hasNext()) {
+      Entry entry = it.next();
+      if (entry.owners.isEmpty()) {
+        weight -= entry.weight;
+        it.remove();
+        evicted++;
+      }
+    }
+    evictions += evicted;
+    return evicted;
+  }
+
+  @Override
+  public void onActivityStart(Activity activity) {
+    running.add(activity);
+  }
+
+  @Override
+  public void onActivityStop(Activity activity) {
+    release(activity);
+  }
+
+  @Override
+  public void onActivityCancel(Activity activity) {
+    release(activity);
+  }
+
+  private void addOwner(List<Activity> owners, Activity owner) {
+    if (owner != null && running.contains(owner) && !owners.contains(owner)) {
+      owners.add(owner);
+    }
+  }
+
+  private void discard(Object key) {
+    Entry entry = entries.remove(key);
+    if (entry != null) {
+      weight -= entry.weight;
+    }
+  }
+
+  private void release(Activity activity) {
+    if (!running.remove(activity)) {
+      return;
+    }
+    for (Entry entry : entries.values()) {
+      entry.owners.remove(activity);
+    }
+    for (Load load : loads.values()) {
+      load.owners.remove(activity);
+    }
+    trim(maxWeight);
+  }
+
+  private void store(Load load, Object value) {
+    discard(load.key);
+    Entry entry = new Entry(value, load.place, weigher.weigh(load.key, value),
+        clock.now() + timeToLive);
+    for (Activity owner : load.owners) {
+      addOwner(entry.owners, owner);
+    }
+    entries.put(load.key, entry);
+    weight += entry.weight;
+    trim(maxWeight);
+  }
+
+  /**
+   * Evicts unpinned entries down to half the weight, or all of them under
+   * critical pressure.
+   */
+  public int shrink(MemoryPressure.Level level) {
+    return trim(level == MemoryPressure.Level.CRITICAL ? 0 : weight / 2);
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.Event;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What an activity did with the event bus an {@link ActivityManager} handed
+ * it, by event type, over one run from {@link Activity#start} to
+ * {@link Activity#onStop} or {@link Activity#onCancel}. Passed to
+ * {@link ActivityLifecycleListener#onActivityEventStats}.
+ * <p>
+ * Events received are only counted when the manager's event bus is a
+ * {@link DispatchCountingEventBus}, and only for handlers not bound to a
+ * source.
+ */
+public final class ActivityEventStats {
+
+  /**
+   * The counters for one event type.
+   */
+  static final class Counters {
+    int handlersAdded;
+    int eventsFired;
+    int eventsReceived;
+
+    /*
+     * The activity's current handlers for this type, and the type's fire
+     * count on the root bus when eventsReceived was last brought up to date.
+     */
+    int liveHandlers;
+    int seenFires;
+  }
+
+  private static final Counters NONE = new Counters();
+
+  private final Map<Event.Type<?>, Counters> counters =
+      new LinkedHashMap<Event.Type<?>, Counters>();
+
+  ActivityEventStats() {
+  }
+
+  /**
+   * Returns the event types the activity added handlers for or fired, in the
+   * order it first did so.
+   */
+  public Set<Event.Type<?>> getEventTypes() {
+    return Collections.unmodifiableSet(counters.keySet());
+  }
+
+  /**
+   * Returns the number of handlers added for the given type.
+   */
+  public int getHandlersAdded(Event.Type<?> type) {
+    return get(type).handlersAdded;
+  }
+
+  /**
+   * Returns the number of events of the given type fired by the activity.
+   */
+  public int getEventsFired(Event.Type<?> type) {
+    return get(type).eventsFired;
+  }
+
+  /**
+   * Returns the number of times one of the activity's handlers was called for
+   * an event of the given type.
+   */
+  public int getEventsReceived(Event.Type<?> type) {
+    return get(type).eventsReceived;
+  }
+
+  /**
+   * Returns the total number of handlers added.
+   */
+  public int getTotalHandlersAdded() {
+    int total = 0;
+    for (Counters c : counters.values()) {
+      total += c.handlersAdded;
+    }
+    return total;
+  }
+
+  /**
+   * Returns the total number of events fired.
+   */
+  public int getTotalEventsFired() {
+    int total = 0;
+    for (Counters c : counters.values()) {
+      total += c.eventsFired;
+    }
+    return total;
+  }
+
+  /**
+   * Returns the total number of events received.
+   */
+  public int getTotalEventsReceived() {
+    int total = 0;
+    for (Counters c : counters.values()) {
+      total += c.eventsReceived;
+    }
+    return total;
+  }
+
+  Counters counters(Event.Type<?> type, int fires) {
+    Counters c = counters.get(type);
+    if (c == null) {
+      c = new Counters();
+      c.seenFires = fires;
+      counters.put(type, c);
+    }
+    return c;
+  }
+
+  Map<Event.Type<?>, Counters> all() {
+    return counters;
+  }
+
+  private Counters get(Event.Type<?> type) {
+    Counters c = counters.get(type);
+    return c == null ? NONE : c;
+  }
+}
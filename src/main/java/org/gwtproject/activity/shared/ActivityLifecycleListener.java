@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+/**
+ * Told about the steps an {@link ActivityManager} takes as it responds to
+ * {@link org.gwtproject.place.shared.PlaceChangeEvent} events. Register one
+ * with {@link ActivityManager#addLifecycleListener}.
+ * <p>
+ * Listeners are called synchronously, in the middle of the manager's own
+ * bookkeeping, so they should be quick and must not throw. Every method does
+ * nothing by default.
+ */
+public interface ActivityLifecycleListener {
+
+  /**
+   * Called when the manager receives a place change, before it consults its
+   * {@link ActivityMapper}.
+   *
+   * @param place the new place
+   */
+  default void onPlaceChange(Place place) {
+  }
+
+  /**
+   * Called with the result of the manager's {@link ActivityMapper}.
+   *
+   * @param place the new place
+   * @param activity the activity found for it, or null
+   */
+  default void onActivityResolved(Place place, Activity activity) {
+  }
+
+  /**
+   * Called just before {@link Activity#start} is invoked.
+   *
+   * @param activity the activity being started
+   */
+  default void onActivityStart(Activity activity) {
+  }
+
+  /**
+   * Called once {@link Activity#start} has returned, or thrown.
+   *
+   * @param activity the activity that was started
+   */
+  default void onActivityStarted(Activity activity) {
+  }
+
+  /**
+   * Called when a starting activity shows an interim widget through
+   * {@link ProgressiveDisplay#setInterimWidget}, i.e. at first paint. It is
+   * still starting, and {@link #onActivityPresented} follows once it shows its
+   * real widget, unless it is canceled first.
+   *
+   * @param activity the activity showing an interim widget
+   */
+  default void onActivityInterimPresented(Activity activity) {
+  }
+
+  /**
+   * Called when a starting activity first shows its widget. This may happen
+   * before or after {@link #onActivityStarted}.
+   *
+   * @param activity the activity that is now presented
+   */
+  default void onActivityPresented(Activity activity) {
+  }
+
+  /**
+   * Called just before {@link Activity#onStop} is invoked.
+   *
+   * @param activity the activity being stopped
+   */
+  default void onActivityStop(Activity activity) {
+  }
+
+  /**
+   * Called just before {@link Activity#onCancel} is invoked.
+   *
+   * @param activity the activity being canceled
+   */
+  default void onActivityCancel(Activity activity) {
+  }
+
+  /**
+   * Called once {@link Activity#onStop} has returned, or thrown.
+   *
+   * @param activity the activity that was stopped
+   */
+  default void onActivityStopped(Activity activity) {
+  }
+
+  /**
+   * Called once {@link Activity#onCancel} has returned, or thrown.
+   *
+   * @param activity the activity that was canceled
+   */
+  default void onActivityCanceled(Activity activity) {
+  }
+
+  /**
+   * Called just before {@link Activity#mayStop} is invoked.
+   *
+   * @param activity the activity being asked
+   */
+  default void onActivityMayStop(Activity activity) {
+  }
+
+  /**
+   * Called once {@link Activity#mayStop} has returned, or thrown.
+   *
+   * @param activity the activity that was asked
+   * @param warning its answer, null if it was willing to stop or threw
+   */
+  default void onActivityMayStopAnswered(Activity activity, String warning) {
+  }
+
+  /**
+   * Called once an activity has been stopped or canceled and its handlers
+   * removed, with what it did on its event bus. Only called when a listener
+   * was registered before the activity started.
+   *
+   * @param activity the activity that was stopped or canceled
+   * @param stats its event bus use over the run that ended
+   */
+  default void onActivityEventStats(Activity activity, ActivityEventStats stats) {
+  }
+
+  /**
+   * Called when a cache was asked to shrink by a {@link MemoryPressure} the
+   * listener was added to.
+   *
+   * @param cache the cache
+   * @param level how short memory is
+   * @param dropped the number of entries it dropped
+   */
+  default void onCacheShrunk(Shrinkable cache, MemoryPressure.Level level, int dropped) {
+  }
+}
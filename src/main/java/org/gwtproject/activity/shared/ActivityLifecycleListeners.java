@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.place.shared.Place;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fans {@link ActivityLifecycleListener} calls out to any number of
+ * registered listeners, which see the delegate of a
+ * {@link DelegatingActivity}.
+ */
+class ActivityLifecycleListeners implements ActivityLifecycleListener {
+
+  private final List<ActivityLifecycleListener> listeners =
+      new ArrayList<ActivityLifecycleListener>();
+
+  HandlerRegistration add(final ActivityLifecycleListener listener) {
+    listeners.add(listener);
+    return new HandlerRegistration() {
+      public void removeHandler() {
+        listeners.remove(listener);
+      }
+    };
+  }
+
+  public void onPlaceChange(Place place) {
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onPlaceChange(place);
+    }
+  }
+
+  public void onActivityResolved(Place place, Activity activity) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityResolved(place, activity);
+    }
+  }
+
+  public void onActivityStart(Activity activity) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityStart(activity);
+    }
+  }
+
+  public void onActivityStarted(Activity activity) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityStarted(activity);
+    }
+  }
+
+  public void onActivityInterimPresented(Activity activity) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityInterimPresented(activity);
+    }
+  }
+
+  public void onActivityPresented(Activity activity) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityPresented(activity);
+    }
+  }
+
+  public void onActivityStop(Activity activity) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityStop(activity);
+    }
+  }
+
+  public void onActivityCancel(Activity activity) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityCancel(activity);
+    }
+  }
+
+  public void onActivityStopped(Activity activity) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityStopped(activity);
+    }
+  }
+
+  public void onActivityCanceled(Activity activity) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityCanceled(activity);
+    }
+  }
+
+  public void onActivityMayStop(Activity activity) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityMayStop(activity);
+    }
+  }
+
+  public void onActivityMayStopAnswered(Activity activity, String warning) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityMayStopAnswered(activity, warning);
+    }
+  }
+
+  public void onActivityEventStats(Activity activity, ActivityEventStats stats) {
+    activity = DelegatingActivity.unwrap(activity);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onActivityEventStats(activity, stats);
+    }
+  }
+
+  public void onCacheShrunk(Shrinkable cache, MemoryPressure.Level level, int dropped) {
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onCacheShrunk(cache, level, dropped);
+    }
+  }
+
+  /**
+   * Asks the given activity whether it may stop, telling the listeners.
+   */
+  String mayStop(Activity activity) {
+    onActivityMayStop(activity);
+    String warning = null;
+    try {
+      warning = activity.mayStop();
+    } finally {
+      onActivityMayStopAnswered(activity, warning);
+    }
+    return warning;
+  }
+
+  boolean isEmpty() {
+    return listeners.isEmpty();
+  }
+}
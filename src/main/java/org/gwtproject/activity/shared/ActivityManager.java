@@ -19,13 +19,18 @@ import org.gwtproject.event.shared.EventBus;
 import org.gwtproject.event.shared.HandlerRegistration;
 import org.gwtproject.event.shared.ResettableEventBus;
 import org.gwtproject.event.shared.UmbrellaException;
+import org.gwtproject.place.shared.Place;
 import org.gwtproject.place.shared.PlaceChangeEvent;
 import org.gwtproject.place.shared.PlaceChangeRequestEvent;
 import org.gwtproject.user.client.ui.AcceptsOneWidget;
 import org.gwtproject.user.client.ui.IsWidget;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Manages {@link Activity} objects that should be kicked off in response to
@@ -36,20 +41,50 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
 
   /**
    * Wraps our real display to prevent an Activity from taking it over if it is
-   * not the currentActivity.
+   * not the currentActivity. A new instance is used for each start, so that an
+   * activity that is started again cannot be upstaged by a late reply from an
+   * earlier, canceled start.
    */
-  private class ProtectedDisplay implements AcceptsOneWidget {
+  private class ProtectedDisplay implements ProgressiveDisplay {
     private final Activity activity;
 
+    // Views shown, to be released to the view pool when the activity ends
+    private List<IsWidget> views;
+
     ProtectedDisplay(Activity activity) {
       this.activity = activity;
     }
 
+    public void setInterimWidget(IsWidget interim) {
+      if (this == ActivityManager.this.currentDisplay) {
+        show(interim);
+        if (startingNext) {
+          showingInterim = true;
+          listeners.onActivityInterimPresented(activity);
+        }
+      }
+    }
+
     public void setWidget(IsWidget view) {
-      if (this.activity == ActivityManager.this.currentActivity) {
+      if (this == ActivityManager.this.currentDisplay) {
+        boolean presenting = startingNext;
         startingNext = false;
-        showWidget(view);
+        showingInterim = false;
+        show(view);
+        if (presenting) {
+          listeners.onActivityPresented(activity);
+        }
+      }
+    }
+
+    private void show(IsWidget view) {
+      if (viewPool != null && view != null) {
+        if (views == null) {
+          views = new ArrayList<IsWidget>();
+        }
+        views.add(view);
       }
+      showWidget(view);
     }
   }
 
@@ -68,14 +103,40 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
    */
   private final ResettableEventBus stopperedEventBus;
 
+  private final AccountingEventBus accountingEventBus;
+
   private Activity currentActivity = NULL_ACTIVITY;
 
+  private Place currentPlace;
+
+  private Place bootstrapPlace;
+
+  private ActivityStateStore stateStore;
+
+  private ViewPool viewPool;
+
+  private NavigationInterceptorChain interceptorChain;
+
+  private DataPrefetcher dataPrefetcher;
+
+  private PrefetchedData currentData;
+
+  private RequestBatcher requestBatcher;
+
+  private RequestBatcher.Requests currentRequests;
+
+  private ProtectedDisplay currentDisplay;
+
   private AcceptsOneWidget display;
 
   private boolean startingNext = false;
 
+  private boolean showingInterim = false;
+
   private HandlerRegistration handlerRegistration;
 
+  private final ActivityLifecycleListeners listeners = new ActivityLifecycleListeners();
+
   /**
    * Create an ActivityManager. Next call {@link #setDisplay}.
    * 
@@ -87,7 +148,25 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
   public ActivityManager(ActivityMapper mapper, EventBus eventBus) {
     this.mapper = mapper;
     this.eventBus = eventBus;
-    this.stopperedEventBus = new ResettableEventBus(eventBus);
+    this.accountingEventBus = new AccountingEventBus(eventBus);
+    this.stopperedEventBus = new ResettableEventBus(accountingEventBus);
+  }
+
+  /**
+   * Create an ActivityManager whose mapper is only built when it is first
+   * needed, i.e. on the first place change while there is a display. Use this
+   * to keep an expensive mapper graph out of application startup. Next call
+   * {@link #setDisplay}.
+   *
+   * @param mapperSupplier builds the mapper, called at most once
+   * @param eventBus source of {@link PlaceChangeEvent} and
+   *          {@link PlaceChangeRequestEvent} events.
+   * @return the new manager
+   * @see LazyActivityMapper
+   */
+  public static ActivityManager withLazyMapper(Supplier<? extends ActivityMapper> mapperSupplier,
+      EventBus eventBus) {
+    return new ActivityManager(new LazyActivityMapper(mapperSupplier), eventBus);
   }
 
   /**
@@ -101,6 +180,38 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
   public EventBus getActiveEventBus() {
     return stopperedEventBus;
   }
+
+  /**
+   * Starts the activity for the application's initial place right away,
+   * rather than waiting for the first {@link PlaceChangeEvent}. Call this
+   * after {@link #setDisplay} and before wiring up the place controller and
+   * history handling, to get the first widget on screen sooner.
+   * <p>
+   * The next place change for an equal place, typically fired when history
+   * handling catches up with the current token, is then ignored rather than
+   * restarting the activity.
+   *
+   * @param initialPlace the place to start at
+   * @throws IllegalStateException if there is no display
+   */
+  public void bootstrap(Place initialPlace) {
+    if (display == null) {
+      throw new IllegalStateException("Call setDisplay before bootstrap");
+    }
+    onPlaceChange(new PlaceChangeEvent(initialPlace));
+    bootstrapPlace = initialPlace;
+  }
+
+  /**
+   * Adds a listener to be told about each step this manager takes while
+   * responding to place changes, e.g. to record or trace navigation.
+   *
+   * @param listener the listener to add
+   * @return a registration that removes the listener
+   */
+  public HandlerRegistration addLifecycleListener(ActivityLifecycleListener listener) {
+    return listeners.add(listener);
+  }
  
   /**
    * Deactivate the current activity, find the next one from our ActivityMapper,
@@ -110,11 +221,51 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
    * flicker if the next activity provides its widget asynchronously. That can
    * be minimized by decent caching. Perenially slow activities might mitigate
    * this by providing a widget immediately, with some kind of "loading"
-   * treatment.
+   * treatment, ideally through {@link ProgressiveDisplay#setInterimWidget} so
+   * that they can still be canceled.
    */
   public void onPlaceChange(PlaceChangeEvent event) {
-    Activity nextActivity = getNextActivity(event);
+    if (bootstrapPlace != null) {
+      Place bootstrapped = bootstrapPlace;
+      bootstrapPlace = null;
+      if (bootstrapped.equals(event.getNewPlace())) {
+        return;
+      }
+    }
 
+    listeners.onPlaceChange(event.getNewPlace());
+    Place nextPlace = event.getNewPlace();
+    if (interceptorChain != null && display != null) {
+      try {
+        nextPlace = interceptorChain.resolve(nextPlace);
+      } catch (RuntimeException e) {
+        // E.g. a redirect loop; reported like activity failures, and the
+        // current activity carries on
+        throw new UmbrellaException(Collections.<Throwable>singleton(e));
+      }
+      if (nextPlace == null) {
+        // Vetoed, the current activity carries on
+        return;
+      }
+    }
+    PrefetchedData nextData = null;
+    if (dataPrefetcher != null && display != null) {
+      // Fetch in parallel with resolving, and loading, the next activity
+      nextData = dataPrefetcher.prefetch(nextPlace);
+    }
+    Activity nextActivity;
+    boolean resolved = false;
+    try {
+      nextActivity = getNextActivity(nextPlace);
+      resolved = true;
+    } finally {
+      if (!resolved && nextData != null) {
+        nextData.cancel();
+      }
+    }
+    listeners.onActivityResolved(nextPlace, nextActivity);
+
+    Throwable caughtOnSave = null;
     Throwable caughtOnStop = null;
     Throwable caughtOnCancel = null;
     Throwable caughtOnStart = null;
@@ -124,16 +275,27 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
     }
 
     if (currentActivity.equals(nextActivity)) {
+      if (nextData != null) {
+        nextData.cancel();
+      }
+      // The activity carries on, now for the new place
+      currentPlace = nextPlace;
       return;
     }
 
     if (startingNext) {
       // The place changed again before the new current activity showed its
       // widget
+      if (showingInterim) {
+        showWidget(null);
+        showingInterim = false;
+      }
       caughtOnCancel = tryStopOrCancel(false);
       currentActivity = NULL_ACTIVITY;
       startingNext = false;
     } else if (!currentActivity.equals(NULL_ACTIVITY)) {
+      // Save while the view can still be read
+      caughtOnSave = trySaveState();
       showWidget(null);
 
       /*
@@ -145,16 +307,26 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
     }
 
     currentActivity = nextActivity;
+    currentPlace = nextPlace;
+    currentData = nextData;
 
     if (currentActivity.equals(NULL_ACTIVITY)) {
+      if (currentData != null) {
+        currentData.cancel();
+        currentData = null;
+      }
       showWidget(null);
     } else {
       startingNext = true;
       caughtOnStart = tryStart();
     }
 
-    if (caughtOnStart != null || caughtOnCancel != null || caughtOnStop != null) {
+    if (caughtOnStart != null || caughtOnCancel != null || caughtOnSave != null
+        || caughtOnStop != null) {
       Set<Throwable> causes = new LinkedHashSet<Throwable>();
+      if (caughtOnSave != null) {
+        causes.add(caughtOnSave);
+      }
       if (caughtOnStop != null) {
         causes.add(caughtOnStop);
       }
@@ -176,7 +348,76 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
    *      onPlaceChangeRequest(PlaceChangeRequestEvent)
    */
   public void onPlaceChangeRequest(PlaceChangeRequestEvent event) {
-    event.setWarning(currentActivity.mayStop());
+    event.setWarning(
+        currentActivity.equals(NULL_ACTIVITY) ? null : listeners.mayStop(currentActivity));
+  }
+
+  /**
+   * Sets the prefetcher that starts loading the data declared for each new
+   * place before the mapper is asked for its activity. The loads are handed
+   * to the activity if it is a {@link DataRequiringActivity}, or to the
+   * outermost one along a chain of {@link DelegatingActivity} wrappers, e.g.
+   * one that passes them on once the activity's code has loaded. They are
+   * canceled if the mapper throws, if the activity carries on unchanged, if
+   * nothing takes them, and once the activity stops or is canceled. Without a
+   * prefetcher, which is the default, activities load their own data once
+   * started.
+   *
+   * @param dataPrefetcher the prefetcher to use, or null
+   */
+  public void setDataPrefetcher(DataPrefetcher dataPrefetcher) {
+    this.dataPrefetcher = dataPrefetcher;
+  }
+
+  /**
+   * Sets the interceptors that each new place goes through before the mapper
+   * is asked for its activity. A place they redirect is mapped in place of
+   * the original one; a place they veto leaves the current activity running.
+   * Since the place has already changed by then, prefer a redirect if the
+   * current place must match the activity shown. If the chain throws, e.g.
+   * on a redirect loop, the current activity also carries on, and
+   * {@link #onPlaceChange} throws an {@link UmbrellaException}.
+   *
+   * @param interceptorChain the chain to use, or null
+   */
+  public void setInterceptorChain(NavigationInterceptorChain interceptorChain) {
+    this.interceptorChain = interceptorChain;
+  }
+
+  /**
+   * Sets the batcher through which each {@link RequestingActivity} sends its
+   * data requests, together with those of the other activities started by
+   * the same navigation, e.g. by other managers sharing the batcher. An
+   * activity's requests are canceled once it stops or is canceled. Without
+   * a batcher, which is the default, activities send their own requests.
+   *
+   * @param requestBatcher the batcher to use, or null
+   */
+  public void setRequestBatcher(RequestBatcher requestBatcher) {
+    this.requestBatcher = requestBatcher;
+  }
+
+  /**
+   * Sets the store in which {@link StatefulActivity} instances keep their
+   * state between runs. Without a store, which is the default, no state is
+   * saved.
+   *
+   * @param stateStore the store to use, or null
+   */
+  public void setStateStore(ActivityStateStore stateStore) {
+    this.stateStore = stateStore;
+  }
+
+  /**
+   * Sets the pool that the views shown by each activity are released to once
+   * it has stopped or been canceled, and its views have been detached. The
+   * views it took from the pool but never showed are discarded. Without a
+   * pool, which is the default, views are left alone.
+   *
+   * @param viewPool the pool to use, or null
+   */
+  public void setViewPool(ViewPool viewPool) {
+    this.viewPool = viewPool;
   }
 
   /**
@@ -198,7 +439,7 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
     }
   }
 
-  private Activity getNextActivity(PlaceChangeEvent event) {
+  private Activity getNextActivity(Place place) {
     if (display == null) {
       /*
        * Display may have been nulled during PlaceChangeEvent dispatch. Don't
@@ -207,7 +448,26 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
        */
       return null;
     }
-    return mapper.getActivity(event.getNewPlace());
+    return mapper.getActivity(place);
+  }
+
+  /*
+   * Returns the outermost activity of a delegation chain that takes data, so
+   * that a wrapper whose delegate is not loaded yet can pass it on later.
+   */
+  private static DataRequiringActivity dataRecipient(Activity activity) {
+    while (!(activity instanceof DataRequiringActivity)) {
+      if (!(activity instanceof DelegatingActivity)) {
+        return null;
+      }
+      activity = ((DelegatingActivity) activity).getDelegate();
+    }
+    return (DataRequiringActivity) activity;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <S> void restoreState(StatefulActivity<S> activity, Object state) {
+    activity.restoreState((S) state);
   }
 
   private void showWidget(IsWidget view) {
@@ -218,21 +478,79 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
 
   private Throwable tryStart() {
     Throwable caughtOnStart = null;
+    // The activity may navigate elsewhere while starting
+    Activity starting = currentActivity;
+    listeners.onActivityStart(starting);
     try {
       /*
        * Wrap the actual display with a per-call instance that protects the
        * display from canceled or stopped activities, and which maintains our
        * startingNext state.
        */
-      currentActivity.start(new ProtectedDisplay(currentActivity), stopperedEventBus);
+      currentDisplay = new ProtectedDisplay(starting);
+      if (!listeners.isEmpty()) {
+        accountingEventBus.begin();
+      }
+      Activity delegate = DelegatingActivity.unwrap(starting);
+      if (stateStore != null && delegate instanceof StatefulActivity) {
+        Object state = stateStore.take(currentPlace, delegate.getClass());
+        if (state != null) {
+          restoreState((StatefulActivity<?>) delegate, state);
+        }
+      }
+      if (currentData != null) {
+        DataRequiringActivity recipient = dataRecipient(starting);
+        if (recipient != null) {
+          recipient.acceptData(currentData);
+        } else {
+          currentData.cancel();
+          currentData = null;
+        }
+      }
+      if (requestBatcher != null && delegate instanceof RequestingActivity) {
+        currentRequests = requestBatcher.open();
+        ((RequestingActivity) delegate).acceptRequests(currentRequests);
+      }
+      starting.start(currentDisplay, stopperedEventBus);
     } catch (Throwable t) {
       caughtOnStart = t;
     }
+    listeners.onActivityStarted(starting);
     return caughtOnStart;
   }
 
+  private Throwable trySaveState() {
+    Activity delegate = DelegatingActivity.unwrap(currentActivity);
+    if (stateStore == null || !(delegate instanceof StatefulActivity)) {
+      return null;
+    }
+    try {
+      stateStore.put(currentPlace, delegate.getClass(),
+          ((StatefulActivity<?>) delegate).saveState());
+      return null;
+    } catch (Throwable t) {
+      return t;
+    }
+  }
+
   private Throwable tryStopOrCancel(boolean stop) {
+    Throwable caughtOnSave = null;
     Throwable caughtOnStop = null;
+    ProtectedDisplay endingDisplay = currentDisplay;
+    currentDisplay = null;
+    if (currentData != null) {
+      currentData.cancel();
+      currentData = null;
+    }
+    if (currentRequests != null) {
+      currentRequests.cancel();
+      currentRequests = null;
+    }
+    if (stop) {
+      listeners.onActivityStop(currentActivity);
+    } else {
+      listeners.onActivityCancel(currentActivity);
+    }
     try {
       if (stop) {
         currentActivity.onStop();
@@ -248,6 +566,24 @@ public class ActivityManager implements PlaceChangeEvent.Handler, PlaceChangeReq
        */
       stopperedEventBus.removeHandlers();
     }
+    if (stop) {
+      listeners.onActivityStopped(currentActivity);
+    } else {
+      listeners.onActivityCanceled(currentActivity);
+    }
+    if (viewPool != null) {
+      if (endingDisplay != null && endingDisplay.views != null) {
+        for (IsWidget view : endingDisplay.views) {
+          viewPool.release(view);
+        }
+      }
+      // Views taken but never shown may still be attached elsewhere
+      viewPool.discard(DelegatingActivity.unwrap(currentActivity));
+    }
+    ActivityEventStats stats = accountingEventBus.end();
+    if (stats != null) {
+      listeners.onActivityEventStats(currentActivity, stats);
+    }
     return caughtOnStop;
   }
 
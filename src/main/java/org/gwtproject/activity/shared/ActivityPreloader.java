@@ -0,0 +1,375 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the code split fragments that activities need ahead of time, while
+ * the application is idle, so that the first visit to each screen does not
+ * wait for its code to download.
+ * <p>
+ * Fragments are declared per place type, the way the mapper entries for those
+ * places need them. Register the preloader with an {@link ActivityManager}
+ * using {@link ActivityManager#addLifecycleListener}: once an activity has
+ * presented its widget, fragments not yet loaded are fetched during idle
+ * time, at most a fixed number at a time. Higher declared priorities load
+ * first, then fragments of the place types the user has most often gone to
+ * from the current one. The fragments of a place type count as loaded once an
+ * activity for such a place has presented. Any navigation cancels the loads
+ * in flight, which are retried after the next activity has presented, as are
+ * failed loads, up to {@value #MAX_ATTEMPTS} times each.
+ */
+public class ActivityPreloader implements ActivityLifecycleListener {
+
+  /**
+   * How many times a fragment is tried before the preloader gives up on it.
+   */
+  public static final int MAX_ATTEMPTS = 3;
+
+  /**
+   * Receives the outcome of a fragment load.
+   */
+  public interface Callback {
+    /**
+     * Called if the fragment could not be loaded.
+     *
+     * @param caught the failure
+     */
+    void onFailure(Throwable caught);
+
+    /**
+     * Called once the fragment is loaded.
+     */
+    void onSuccess();
+  }
+
+  /**
+   * Loads fragments, typically by calling {@code GWT.runAsync} with the
+   * fragment's split point.
+   */
+  public interface FragmentLoader {
+    /**
+     * Starts loading a fragment.
+     *
+     * @param fragment the fragment name
+     * @param callback told when the load is complete
+     * @return a handle to cancel the load
+     */
+    Load load(String fragment, Callback callback);
+  }
+
+  /**
+   * A fragment load in flight.
+   */
+  public interface Load {
+    /**
+     * Stops the load if possible. Its callback is ignored either way.
+     */
+    void cancel();
+  }
+
+  /**
+   * A fragment and what is known about how soon it is needed.
+   */
+  private static class Fragment {
+    final String name;
+    final List<Class<?>> placeTypes = new ArrayList<Class<?>>(2);
+    int priority = Integer.MIN_VALUE;
+    boolean loaded;
+    int failures;
+    // The idle period of the last failure, not to be retried during it
+    int failedPeriod = -1;
+    double loadTime = Double.NaN;
+
+    Fragment(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * The callback for one load, ignored once canceled.
+   */
+  private class LoadCallback implements Callback {
+    final Fragment fragment;
+    final double started = clock.now();
+    Load load;
+    boolean canceled;
+
+    LoadCallback(Fragment fragment) {
+      this.fragment = fragment;
+    }
+
+    public void onFailure(Throwable caught) {
+      if (finish()) {
+        fragment.failures++;
+        fragment.failedPeriod = period;
+      }
+    }
+
+    public void onSuccess() {
+      if (finish()) {
+        fragment.loaded = true;
+        fragment.loadTime = clock.now() - started;
+      }
+    }
+
+    private boolean finish() {
+      if (canceled || !inFlight.remove(this)) {
+        return false;
+      }
+      scheduleIfIdle();
+      return true;
+    }
+  }
+
+  private final FragmentLoader loader;
+  private final TaskScheduler scheduler;
+  private final Clock clock;
+  private final int maxConcurrent;
+
+  private final Map<String, Fragment> fragments = new LinkedHashMap<String, Fragment>();
+  // Place type navigated from, to place type navigated to, to count
+  private final Map<Class<?>, Map<Class<?>, Integer>> transitions =
+      new HashMap<Class<?>, Map<Class<?>, Integer>>();
+  private final List<LoadCallback> inFlight = new ArrayList<LoadCallback>();
+  private TaskScheduler.Task scheduled;
+  private Class<?> currentType;
+  private boolean idle;
+  private int period;
+
+  /**
+   * Creates a preloader.
+   *
+   * @param loader loads fragments
+   * @param scheduler runs loads when the application is idle
+   * @param clock times the loads
+   * @param maxConcurrent the maximum number of loads in flight
+   */
+  public ActivityPreloader(FragmentLoader loader, TaskScheduler scheduler, Clock clock,
+      int maxConcurrent) {
+    this.loader = loader;
+    this.scheduler = scheduler;
+    this.clock = clock;
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  /**
+   * Declares the fragments the activity for a type of place needs.
+   *
+   * @param placeType the type of place
+   * @param priority higher priorities load first; use {@code 0} to rely on
+   *          learned navigation frequencies only
+   * @param fragmentNames the fragments to load
+   */
+  public void declare(Class<? extends Place> placeType, int priority, String... fragmentNames) {
+    for (String name : fragmentNames) {
+      Fragment fragment = fragments.get(name);
+      if (fragment == null) {
+        fragment = new Fragment(name);
+        fragments.put(name, fragment);
+      }
+      fragment.placeTypes.add(placeType);
+      fragment.priority = Math.max(fragment.priority, priority);
+    }
+  }
+
+  /**
+   * Returns how long a fragment took to preload in milliseconds, or
+   * {@link Double#NaN} if it has not been preloaded.
+   *
+   * @param fragment the fragment name
+   */
+  public double getLoadTime(String fragment) {
+    Fragment f = fragments.get(fragment);
+    return f == null ? Double.NaN : f.loadTime;
+  }
+
+  /**
+   * Returns how often the user went from one place type to another, as
+   * learned so far or restored with {@link #addTransitions}, e.g. to save it
+   * for the next session.
+   *
+   * @param from the type of the place navigated from
+   * @param to the type of the place navigated to
+   */
+  public int getTransitionCount(Class<? extends Place> from, Class<? extends Place> to) {
+    Map<Class<?>, Integer> counts = transitions.get(from);
+    Integer count = counts == null ? null : counts.get(to);
+    return count == null ? 0 : count;
+  }
+
+  /**
+   * Adds to how often the user went from one place type to another, e.g. to
+   * restore what was learned in an earlier session.
+   *
+   * @param from the type of the place navigated from
+   * @param to the type of the place navigated to
+   * @param count the number of navigations to add
+   */
+  public void addTransitions(Class<? extends Place> from, Class<? extends Place> to, int count) {
+    Map<Class<?>, Integer> counts = transitions.get(from);
+    if (counts == null) {
+      counts = new HashMap<Class<?>, Integer>();
+      transitions.put(from, counts);
+    }
+    Integer old = counts.get(to);
+    counts.put(to, old == null ? count : old + count);
+  }
+
+  /**
+   * Returns the number of loads in flight.
+   */
+  public int getLoadingCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * Returns whether a fragment has been loaded.
+   *
+   * @param fragment the fragment name
+   */
+  public boolean isLoaded(String fragment) {
+    Fragment f = fragments.get(fragment);
+    return f != null && f.loaded;
+  }
+
+  /**
+   * Records that a fragment has been loaded by other means, e.g. because the
+   * user navigated to its activity, so that it is not preloaded.
+   *
+   * @param fragment the fragment name
+   */
+  public void markLoaded(String fragment) {
+    Fragment f = fragments.get(fragment);
+    if (f != null) {
+      f.loaded = true;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void onPlaceChange(Place place) {
+    Class<? extends Place> type = place.getClass();
+    if (currentType != null) {
+      addTransitions((Class<? extends Place>) currentType, type, 1);
+    }
+    currentType = type;
+
+    idle = false;
+    if (scheduled != null) {
+      scheduled.cancel();
+      scheduled = null;
+    }
+    for (LoadCallback callback : inFlight) {
+      callback.canceled = true;
+      if (callback.load != null) {
+        callback.load.cancel();
+      }
+    }
+    inFlight.clear();
+  }
+
+  @Override
+  public void onActivityPresented(Activity activity) {
+    // The current place's activity could not present without its code
+    for (Fragment fragment : fragments.values()) {
+      if (fragment.placeTypes.contains(currentType)) {
+        fragment.loaded = true;
+      }
+    }
+    idle = true;
+    period++;
+    scheduleIfIdle();
+  }
+
+  private Fragment next() {
+    Map<Class<?>, Integer> likely = currentType == null ? null : transitions.get(currentType);
+    Fragment best = null;
+    int bestLikelihood = 0;
+    for (Fragment fragment : fragments.values()) {
+      if (fragment.loaded || fragment.failures >= MAX_ATTEMPTS
+          || fragment.failedPeriod == period || isInFlight(fragment)) {
+        continue;
+      }
+      int likelihood = likelihoodOf(fragment, likely);
+      if (best == null || fragment.priority > best.priority
+          || (fragment.priority == best.priority && likelihood > bestLikelihood)) {
+        best = fragment;
+        bestLikelihood = likelihood;
+      }
+    }
+    return best;
+  }
+
+  private boolean isInFlight(Fragment fragment) {
+    for (LoadCallback callback : inFlight) {
+      if (callback.fragment == fragment) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void run() {
+    scheduled = null;
+    Fragment fragment;
+    while (idle && inFlight.size() < maxConcurrent && (fragment = next()) != null) {
+      LoadCallback callback = new LoadCallback(fragment);
+      inFlight.add(callback);
+      Load load;
+      try {
+        load = loader.load(fragment.name, callback);
+      } catch (RuntimeException e) {
+        callback.onFailure(e);
+        continue;
+      }
+      if (inFlight.contains(callback)) {
+        callback.load = load;
+      }
+    }
+  }
+
+  private void scheduleIfIdle() {
+    if (idle && scheduled == null && inFlight.size() < maxConcurrent && next() != null) {
+      scheduled = scheduler.scheduleIdle(new Runnable() {
+        public void run() {
+          ActivityPreloader.this.run();
+        }
+      });
+    }
+  }
+
+  private static int likelihoodOf(Fragment fragment, Map<Class<?>, Integer> likely) {
+    if (likely == null) {
+      return 0;
+    }
+    int total = 0;
+    for (Class<?> type : fragment.placeTypes) {
+      Integer count = likely.get(type);
+      if (count != null) {
+        total += count;
+      }
+    }
+    return total;
+  }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size bounded store of the state saved by {@link StatefulActivity}
+ * instances, keyed by {@link Place} and the class of the activity that saved
+ * it, so that several managers, e.g. one per region, can share a store
+ * without handing one activity another's state. When full, the least
+ * recently used entries are evicted first.
+ * <p>
+ * The bound is either a number of entries, or a total weight as measured by a
+ * {@link Weigher}.
+ */
+public class ActivityStateStore implements Shrinkable {
+
+  /**
+   * Measures the cost of keeping a saved state.
+   */
+  @FunctionalInterface
+  public interface Weigher {
+    /**
+     * Returns the weight of the given state, e.g. an estimate of its size in
+     * bytes. Must not be negative.
+     *
+     * @param place the place the state was saved for
+     * @param state the saved state
+     */
+    int weigh(Place place, Object state);
+  }
+
+  private static final Weigher ONE = new Weigher() {
+    public int weigh(Place place, Object state) {
+      return 1;
+    }
+  };
+
+  /**
+   * A place, and the class of the activity whose state is kept for it.
+   */
+  private static class Key {
+    final Place place;
+    final Class<?> activityType;
+
+    Key(Place place, Class<?> activityType) {
+      this.place = place;
+      this.activityType = activityType;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return place.equals(other.place) && activityType == other.activityType;
+    }
+
+    @Override
+    public int hashCode() {
+      return place.hashCode() * 31 + (activityType == null ? 0 : activityType.hashCode());
+    }
+  }
+
+  /**
+   * A stored state and its weight.
+   */
+  private static class Entry {
+    final Object state;
+    final int weight;
+
+    Entry(Object state, int weight) {
+      this.state = state;
+      this.weight = weight;
+    }
+  }
+
+  private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+  private final Weigher weigher;
+  private int maxWeight;
+  private int weight;
+
+  /**
+   * Creates a store that keeps at most the given number of states.
+   *
+   * @param maxEntries the maximum number of states to keep
+   */
+  public ActivityStateStore(int maxEntries) {
+    this(maxEntries, ONE);
+  }
+
+  /**
+   * Creates a store that keeps states up to the given total weight.
+   *
+   * @param maxWeight the maximum total weight of the kept states
+   * @param weigher measures each state
+   */
+  public ActivityStateStore(int maxWeight, Weigher weigher) {
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  /**
+   * Discards all stored state.
+   */
+  public void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /**
+   * Returns the maximum total weight of kept states.
+   */
+  public int getMaxWeight() {
+    return maxWeight;
+  }
+
+  /**
+   * Returns the total weight of the kept states. Without a {@link Weigher},
+   * this is the number of states kept.
+   */
+  public int getWeight() {
+    return weight;
+  }
+
+  /**
+   * Stores state for a place that is not tied to an activity class, as
+   * {@link #put(Place, Class, Object)} does with a null class.
+   *
+   * @param place the place the state belongs to
+   * @param state the state to keep, or null
+   */
+  public void put(Place place, Object state) {
+    put(place, null, state);
+  }
+
+  /**
+   * Stores the state an activity saved for a place, replacing any older one.
+   * A null state removes the entry. A state that on its own exceeds the
+   * maximum weight is not kept.
+   *
+   * @param place the place the state belongs to
+   * @param activityType the class of the activity that saved it
+   * @param state the state to keep, or null
+   */
+  public void put(Place place, Class<?> activityType, Object state) {
+    Key key = new Key(place, activityType);
+    discard(key);
+    if (state == null) {
+      return;
+    }
+    int stateWeight = weigher.weigh(place, state);
+    if (stateWeight > maxWeight) {
+      return;
+    }
+    entries.put(key, new Entry(state, stateWeight));
+    weight += stateWeight;
+    trim(maxWeight);
+  }
+
+  /**
+   * Discards the state stored for a place without an activity class, if any.
+   *
+   * @param place the place whose state should be dropped
+   */
+  public void remove(Place place) {
+    remove(place, null);
+  }
+
+  /**
+   * Discards the state an activity class stored for a place, if any.
+   *
+   * @param place the place whose state should be dropped
+   * @param activityType the class of the activity that saved it
+   */
+  public void remove(Place place, Class<?> activityType) {
+    discard(new Key(place, activityType));
+  }
+
+  /**
+   * Changes the maximum total weight, evicting least recently used states if
+   * the store is now over it.
+   *
+   * @param maxWeight the new maximum
+   */
+  public void setMaxWeight(int maxWeight) {
+    this.maxWeight = maxWeight;
+    trim(maxWeight);
+  }
+
+  /**
+   * Returns the number of states kept.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Removes and returns the state stored for a place without an activity
+   * class.
+   *
+   * @param place the place being started
+   * @return the stored state, or null
+   */
+  public Object take(Place place) {
+    return take(place, null);
+  }
+
+  /**
+   * Removes and returns the state an activity class stored for a place.
+   *
+   * @param place the place being started
+   * @param activityType the class of the activity being started
+   * @return the stored state, or null
+   */
+  public Object take(Place place, Class<?> activityType) {
+    Entry entry = entries.remove(new Key(place, activityType));
+    if (entry == null) {
+      return null;
+    }
+    weight -= entry.weight;
+    return entry.state;
+  }
+
+  /**
+   * Evicts least recently used states until the total weight is at most the
+   * given one.
+   *
+   * @param targetWeight the weight to shrink to
+   * @return the number of states evicted
+   */
+  public int trim(int targetWeight) {
+    int evicted = 0;
+    Iterator<Entry> it = entries.values().iterator();
+    while (weight > targetWeight && it.hasNext()) {
+      weight -= it.next().weight;
+      it.remove();
+      evicted++;
+    }
+    return evicted;
+  }
+
+  /**
+   * Evicts half the weight, or all of it under critical pressure.
+   */
+  public int shrink(MemoryPressure.Level level) {
+    return trim(level == MemoryPressure.Level.CRITICAL ? 0 : weight / 2);
+  }
+
+  private void discard(Key key) {
+    Entry old = entries.remove(key);
+    if (old != null) {
+      weight -= old.weight;
+    }
+  }
+}
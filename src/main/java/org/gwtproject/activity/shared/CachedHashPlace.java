@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+/**
+ * A base class for immutable places that computes its hash code only once.
+ * Places parsed from history tokens often carry several fields, and are hashed
+ * again by each map they are looked up in, e.g. by a {@link PlaceInterner} or
+ * an {@link ActivityStateStore}.
+ * <p>
+ * Subclasses implement {@link #computeHashCode()} instead of
+ * {@link #hashCode()}, and must not change any field it uses after
+ * construction. Equality checks use the cached hashes to reject most unequal
+ * places cheaply via {@link #hashEquals}.
+ */
+public abstract class CachedHashPlace extends Place {
+
+  private int hash;
+  private boolean hashed;
+
+  @Override
+  public final int hashCode() {
+    if (!hashed) {
+      hash = computeHashCode();
+      hashed = true;
+    }
+    return hash;
+  }
+
+  /**
+   * Computes the hash code of this place, called at most once.
+   *
+   * @return a hash code consistent with {@link #equals(Object)}
+   */
+  protected abstract int computeHashCode();
+
+  /**
+   * Returns whether the given object is a place of the same class with the
+   * same hash code, i.e. whether it might be equal to this one. Call this
+   * first in {@link #equals(Object)}.
+   *
+   * @param other the object to compare with
+   * @return false if the object cannot be equal to this place
+   */
+  protected final boolean hashEquals(Object other) {
+    return other != null && other.getClass() == getClass() && other.hashCode() == hashCode();
+  }
+}
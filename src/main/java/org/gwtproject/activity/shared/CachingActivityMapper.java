@@ -20,6 +20,8 @@ import org.gwtproject.place.shared.Place;
 /**
  * Wraps another {@link ActivityMapper} and caches the last activity it
  * returned, to be re-used if we see the same place twice.
+ *
+ * @see PlaceInterner
  */
 public class CachingActivityMapper implements ActivityMapper {
 
@@ -38,7 +40,8 @@ public class CachingActivityMapper implements ActivityMapper {
   }
 
   public Activity getActivity(Place place) {
-    if (!place.equals(lastPlace)) {
+    // Interned places make the reference check the common case
+    if (place != lastPlace && !place.equals(lastPlace)) {
       lastPlace = place;
       lastActivity = wrapped.getActivity(place);
     }
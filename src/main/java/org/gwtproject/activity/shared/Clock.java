@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+/**
+ * A source of time stamps, in milliseconds. Lets instrumentation and
+ * time-based caches run against a fake time source in JRE tests.
+ */
+@FunctionalInterface
+public interface Clock {
+
+  /**
+   * A clock backed by {@link System#currentTimeMillis()}.
+   */
+  Clock SYSTEM = new Clock() {
+    public double now() {
+      return System.currentTimeMillis();
+    }
+  };
+
+  /**
+   * Returns the current time in milliseconds. Only differences between two
+   * values are meaningful.
+   */
+  double now();
+}
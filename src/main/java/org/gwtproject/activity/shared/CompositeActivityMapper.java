@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combines several {@link ActivityMapper}s, typically one per feature module,
+ * each of which returns null for places it does not handle.
+ * <p>
+ * A delegate added with the place types it owns is asked directly for places
+ * of exactly those types. Any other place is offered to the delegates added
+ * without types, most frequently successful first: a delegate that answers
+ * more often than the one ahead of it moves up. Only answers found this way
+ * count towards the order, and they count for less as they age, so that the
+ * order follows changes in traffic. Since the order changes, delegates added
+ * without types should not answer for the same places; declare ownership
+ * where precedence matters.
+ */
+public class CompositeActivityMapper implements ActivityMapper {
+
+  /**
+   * How many answers from the delegates without types it takes for the
+   * weight of older answers to halve.
+   */
+  public static final int DECAY_PERIOD = 1024;
+
+  private static class Delegate {
+    final ActivityMapper mapper;
+    int hits;
+    // Recent answers found by walking the chain, which order it
+    int score;
+
+    Delegate(ActivityMapper mapper) {
+      this.mapper = mapper;
+    }
+  }
+
+  private final Map<ActivityMapper, Delegate> delegates =
+      new IdentityHashMap<ActivityMapper, Delegate>();
+  private final Map<Class<?>, Delegate> owners = new HashMap<Class<?>, Delegate>();
+  private final List<Delegate> chain = new ArrayList<Delegate>();
+
+  private int misses;
+  private int chainHits;
+
+  /**
+   * Constructs a CompositeActivityMapper object.
+   *
+   * @param delegates the initial delegates, without declared place types
+   */
+  public CompositeActivityMapper(ActivityMapper... delegates) {
+    for (ActivityMapper delegate : delegates) {
+      add(delegate);
+    }
+  }
+
+  /**
+   * Adds a delegate to be asked about places not owned by any other delegate.
+   *
+   * @param delegate the mapper to add
+   * @return this mapper
+   * @throws IllegalArgumentException if the delegate was already added
+   *           without types
+   */
+  public CompositeActivityMapper add(ActivityMapper delegate) {
+    Delegate d = delegateFor(delegate);
+    if (chain.contains(d)) {
+      throw new IllegalArgumentException(delegate + " was already added");
+    }
+    chain.add(d);
+    return this;
+  }
+
+  /**
+   * Adds a delegate that owns places of the given type. Places are matched by
+   * their exact class; subclasses must be declared separately. A delegate may
+   * be added for several types.
+   *
+   * @param delegate the mapper to add
+   * @param placeType the place class it owns
+   * @return this mapper
+   * @throws IllegalArgumentException if the type is already owned
+   */
+  public CompositeActivityMapper add(ActivityMapper delegate, Class<? extends Place> placeType) {
+    if (owners.containsKey(placeType)) {
+      throw new IllegalArgumentException(placeType.getName() + " is already owned");
+    }
+    owners.put(placeType, delegateFor(delegate));
+    return this;
+  }
+
+  public Activity getActivity(Place place) {
+    Delegate owner = owners.get(place.getClass());
+    if (owner != null) {
+      Activity activity = owner.mapper.getActivity(place);
+      if (activity != null) {
+        owner.hits++;
+        return activity;
+      }
+    }
+
+    for (int i = 0, j = chain.size(); i < j; i++) {
+      Delegate delegate = chain.get(i);
+      if (delegate == owner) {
+        continue;
+      }
+      Activity activity = delegate.mapper.getActivity(place);
+      if (activity != null) {
+        delegate.hits++;
+        delegate.score++;
+        if (++chainHits == DECAY_PERIOD) {
+          decay();
+        }
+        promote(i);
+        return activity;
+      }
+    }
+    misses++;
+    return null;
+  }
+
+  /**
+   * Returns how many activities the given delegate has supplied.
+   *
+   * @param delegate a mapper added to this one
+   * @return the hit count, 0 for unknown mappers
+   */
+  public int getHitCount(ActivityMapper delegate) {
+    Delegate d = delegates.get(delegate);
+    return d == null ? 0 : d.hits;
+  }
+
+  /**
+   * Returns how many lookups no delegate answered.
+   */
+  public int getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Returns the delegates added without place types, in the order they are
+   * currently asked.
+   */
+  public List<ActivityMapper> getOrder() {
+    List<ActivityMapper> order = new ArrayList<ActivityMapper>(chain.size());
+    for (Delegate delegate : chain) {
+      order.add(delegate.mapper);
+    }
+    return order;
+  }
+
+  private Delegate delegateFor(ActivityMapper mapper) {
+    Delegate delegate = delegates.get(mapper);
+    if (delegate == null) {
+      delegate = new Delegate(mapper);
+      delegates.put(mapper, delegate);
+    }
+    return delegate;
+  }
+
+  private void decay() {
+    // Halving keeps the chain sorted
+    chainHits = 0;
+    for (Delegate delegate : chain) {
+      delegate.score /= 2;
+    }
+  }
+
+  private void promote(int index) {
+    // Bubble up past delegates with lower scores; ties keep the current order
+    Delegate delegate = chain.get(index);
+    while (index > 0 && chain.get(index - 1).score < delegate.score) {
+      chain.set(index, chain.get(index - 1));
+      index--;
+    }
+    chain.set(index, delegate);
+  }
+}
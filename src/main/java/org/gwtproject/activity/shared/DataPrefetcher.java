@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts loading the data declared for a place as soon as an
+ * {@link ActivityManager} navigates to it, before the mapper is asked for the
+ * activity, so that fetching the data and resolving and loading the
+ * activity's code overlap instead of following one another. Set one on each
+ * manager with {@link ActivityManager#setDataPrefetcher}; the activities, or
+ * wrappers standing in for them until their code has loaded, receive the
+ * loads by implementing {@link DataRequiringActivity}.
+ * <p>
+ * Requirements are declared per place type, next to the mapper registration
+ * for it. Places are matched by their exact class, as in
+ * {@link CompositeActivityMapper}. When the prefetcher has an
+ * {@link ActivityDataCache}, loads go through it, so that they are shared
+ * with other activities and kept for later navigations.
+ */
+public class DataPrefetcher {
+
+  /**
+   * Declares the data needed for places of one type.
+   */
+  @FunctionalInterface
+  public interface Requirements {
+    /**
+     * Declares each value the place needs with
+     * {@link PrefetchedData#require}. Must not wait for anything.
+     *
+     * @param place the new place
+     * @param data receives the declarations
+     */
+    void declare(Place place, PrefetchedData data);
+  }
+
+  private final ActivityDataCache cache;
+  private final Map<Class<?>, Requirements> requirements = new HashMap<Class<?>, Requirements>();
+
+  private int prefetches;
+
+  /**
+   * Creates a prefetcher that loads each declared value every time.
+   */
+  public DataPrefetcher() {
+    this(null);
+  }
+
+  /**
+   * Creates a prefetcher whose loads go through the given cache.
+   *
+   * @param cache the cache to use, or null
+   */
+  public DataPrefetcher(ActivityDataCache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Declares the data needed for places of the given type.
+   *
+   * @param placeType the place class
+   * @param requirements declares the data for each such place
+   * @return this prefetcher
+   * @throws IllegalArgumentException if the type already has requirements
+   */
+  public DataPrefetcher register(Class<? extends Place> placeType, Requirements requirements) {
+    if (this.requirements.containsKey(placeType)) {
+      throw new IllegalArgumentException(placeType.getName() + " already has requirements");
+    }
+    this.requirements.put(placeType, requirements);
+    return this;
+  }
+
+  /**
+   * Returns how many places had data prefetched.
+   */
+  public int getPrefetchCount() {
+    return prefetches;
+  }
+
+  /**
+   * Starts the loads declared for the given place.
+   *
+   * @param place the new place
+   * @return the loads, or null if none were declared
+   */
+  public PrefetchedData prefetch(Place place) {
+    Requirements declared = requirements.get(place.getClass());
+    if (declared == null) {
+      return null;
+    }
+    PrefetchedData data = new PrefetchedData(place, cache);
+    declared.declare(place, data);
+    if (data.isEmpty()) {
+      return null;
+    }
+    prefetches++;
+    return data;
+  }
+}
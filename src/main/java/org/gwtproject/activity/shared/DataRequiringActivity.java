@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+/**
+ * An {@link Activity} whose data is loaded while it is being resolved and
+ * started, rather than once it asks for it. The loads are declared for its
+ * place to a {@link DataPrefetcher}, and its {@link ActivityManager} starts
+ * them before asking the mapper for the activity, alongside stopping the
+ * current activity and whatever code loading {@link #start} then waits for.
+ * <p>
+ * The manager passes the loads in flight to {@link #acceptData} just before
+ * {@link #start}, only if any were declared for the place. A
+ * {@link DelegatingActivity} whose code is split off implements this
+ * interface to receive them, and passes them on once its delegate is loaded.
+ */
+public interface DataRequiringActivity extends Activity {
+
+  /**
+   * Receives the loads declared for the activity's place. Called before
+   * {@link #start}; ask for the values with {@link PrefetchedData#get}.
+   *
+   * @param data the loads in flight or done
+   */
+  void acceptData(PrefetchedData data);
+}
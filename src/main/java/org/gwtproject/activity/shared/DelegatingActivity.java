@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+/**
+ * An {@link Activity} that stands in for another, e.g. to move its calls
+ * onto another thread. The {@link ActivityManager} still starts and stops the
+ * delegating activity, but reports the delegate to its
+ * {@link ActivityLifecycleListener listeners}, and offers the delegate the
+ * optional interfaces it implements, such as {@link StatefulActivity}.
+ */
+public interface DelegatingActivity extends Activity {
+
+  /**
+   * Returns the activity innermost in a chain of delegating activities, as
+   * far as the chain is available.
+   *
+   * @param activity an activity, or null
+   * @return the activity it delegates to, or the activity itself
+   */
+  static Activity unwrap(Activity activity) {
+    while (activity instanceof DelegatingActivity) {
+      Activity delegate = ((DelegatingActivity) activity).getDelegate();
+      if (delegate == null) {
+        break;
+      }
+      activity = delegate;
+    }
+    return activity;
+  }
+
+  /**
+   * Returns the activity this one stands in for, or null if it is not
+   * available yet, e.g. before its code has loaded.
+   */
+  Activity getDelegate();
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.Event;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.HandlerRegistration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps an {@link EventBus} and counts the events fired on it, by type. Use
+ * one as the application's event bus to have {@link ActivityEventStats}
+ * include the events each activity received.
+ */
+public class DispatchCountingEventBus extends EventBus {
+
+  private final EventBus wrapped;
+  private final Map<Event.Type<?>, int[]> fires = new HashMap<Event.Type<?>, int[]>();
+
+  /**
+   * Constructs a DispatchCountingEventBus object.
+   *
+   * @param wrapped the bus to dispatch events on
+   */
+  public DispatchCountingEventBus(EventBus wrapped) {
+    this.wrapped = wrapped;
+  }
+
+  @Override
+  public <H> HandlerRegistration addHandler(Event.Type<H> type, H handler) {
+    return wrapped.addHandler(type, handler);
+  }
+
+  @Override
+  public <H> HandlerRegistration addHandlerToSource(Event.Type<H> type, Object source,
+      H handler) {
+    return wrapped.addHandlerToSource(type, source, handler);
+  }
+
+  @Override
+  public void fireEvent(Event<?> event) {
+    count(event.getAssociatedType());
+    wrapped.fireEvent(event);
+  }
+
+  @Override
+  public void fireEventFromSource(Event<?> event, Object source) {
+    count(event.getAssociatedType());
+    wrapped.fireEventFromSource(event, source);
+  }
+
+  /**
+   * Returns how many events of the given type have been fired.
+   *
+   * @param type an event type
+   */
+  public int getFireCount(Event.Type<?> type) {
+    int[] count = fires.get(type);
+    return count == null ? 0 : count[0];
+  }
+
+  private void count(Event.Type<?> type) {
+    int[] count = fires.get(type);
+    if (count == null) {
+      count = new int[1];
+      fires.put(type, count);
+    }
+    // Counted before dispatch, so that handlers added meanwhile don't get it
+    count[0]++;
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+/**
+ * Implemented by places that sit in a hierarchy, e.g. app/section/item/tab,
+ * so that a {@link NestedActivityManager} can tell which levels of a
+ * navigation actually changed.
+ * <p>
+ * Parent places are compared with {@link Object#equals}, so they need value
+ * semantics.
+ */
+public interface HierarchicalPlace {
+
+  /**
+   * Returns the place one level up, or null if this is a top level place.
+   */
+  Place getParentPlace();
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.function.Supplier;
+
+/**
+ * An {@link ActivityMapper} that builds the mapper it delegates to the first
+ * time it is asked for an activity. Wrapping each feature's mapper in one of
+ * these keeps the presenters and services behind it from being created until
+ * the user first navigates to one of its places.
+ */
+public class LazyActivityMapper implements ActivityMapper {
+
+  private Supplier<? extends ActivityMapper> supplier;
+  private ActivityMapper wrapped;
+
+  /**
+   * Constructs a LazyActivityMapper object.
+   *
+   * @param supplier builds the real mapper, called at most once
+   */
+  public LazyActivityMapper(Supplier<? extends ActivityMapper> supplier) {
+    this.supplier = supplier;
+  }
+
+  public Activity getActivity(Place place) {
+    if (wrapped == null) {
+      wrapped = supplier.get();
+      // Let the supplier and whatever it captured be collected
+      supplier = null;
+    }
+    return wrapped.getActivity(place);
+  }
+
+  /**
+   * Returns whether the real mapper has been built yet.
+   */
+  public boolean isInitialized() {
+    return wrapped != null;
+  }
+}
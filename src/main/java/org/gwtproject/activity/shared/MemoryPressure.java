@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.HandlerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tells registered caches to shrink when memory runs low. Something has to
+ * call {@link #signal}: on the JVM,
+ * {@code org.gwtproject.activity.vm.MemoryPoolPressureSource} does so when
+ * heap usage crosses a threshold; in the browser, e.g. a heuristic watching
+ * the number of places visited.
+ * <p>
+ * Caches are asked to shrink in order of priority, lowest first. Under
+ * {@link Level#MODERATE} pressure, that stops with the first cache that
+ * dropped anything; under {@link Level#CRITICAL} pressure every cache is
+ * shrunk. Each shrink is reported to the listeners added with
+ * {@link #addListener}.
+ */
+public class MemoryPressure {
+
+  /**
+   * How short memory is.
+   */
+  public enum Level {
+    /**
+     * Memory is getting short; drop what is cheapest to rebuild.
+     */
+    MODERATE,
+    /**
+     * Memory is about to run out; drop everything that can be dropped.
+     */
+    CRITICAL
+  }
+
+  private static class Registration {
+    final Shrinkable cache;
+    final int priority;
+
+    Registration(Shrinkable cache, int priority) {
+      this.cache = cache;
+      this.priority = priority;
+    }
+  }
+
+  private final List<Registration> caches = new ArrayList<Registration>();
+  private final ActivityLifecycleListeners listeners = new ActivityLifecycleListeners();
+
+  /**
+   * Registers a cache.
+   *
+   * @param cache the cache
+   * @param priority caches of lower priority are shrunk first
+   * @return a registration that unregisters the cache
+   */
+  public HandlerRegistration register(Shrinkable cache, int priority) {
+    final Registration registration = new Registration(cache, priority);
+    int i = caches.size();
+    // Equal priorities shrink in the order they were registered
+    while (i > 0 && caches.get(i - 1).priority > priority) {
+      i--;
+    }
+    caches.add(i, registration);
+    return new HandlerRegistration() {
+      public void removeHandler() {
+        caches.remove(registration);
+      }
+    };
+  }
+
+  /**
+   * Adds a listener to be told about each cache shrunk, through
+   * {@link ActivityLifecycleListener#onCacheShrunk}.
+   *
+   * @param listener the listener to add
+   * @return a registration that removes the listener
+   */
+  public HandlerRegistration addListener(ActivityLifecycleListener listener) {
+    return listeners.add(listener);
+  }
+
+  /**
+   * Shrinks registered caches.
+   *
+   * @param level how short memory is
+   * @return the total number of entries dropped
+   */
+  public int signal(Level level) {
+    int total = 0;
+    // Copied, so that caches may unregister while shrinking
+    for (Registration registration : new ArrayList<Registration>(caches)) {
+      int dropped = registration.cache.shrink(level);
+      listeners.onCacheShrunk(registration.cache, level, dropped);
+      total += dropped;
+      if (level == Level.MODERATE && dropped > 0) {
+        break;
+      }
+    }
+    return total;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+/**
+ * Looks at each place an {@link ActivityManager} is asked to go to before it
+ * consults its {@link ActivityMapper}, and lets it through, sends it
+ * elsewhere, e.g. to a login place, or vetoes it. Interceptors are run by a
+ * {@link NavigationInterceptorChain}.
+ */
+public interface NavigationInterceptor {
+
+  /**
+   * What an interceptor decided about a place.
+   */
+  final class Decision {
+    private static final Decision PASS = new Decision(null, false, true);
+    private static final Decision VETO = new Decision(null, true, true);
+
+    /**
+     * Lets the place through to the next interceptor.
+     */
+    public static Decision pass() {
+      return PASS;
+    }
+
+    /**
+     * Replaces the place with another one, which runs through the whole chain
+     * again.
+     *
+     * @param place the place to go to instead
+     */
+    public static Decision redirect(Place place) {
+      return new Decision(place, false, true);
+    }
+
+    /**
+     * Stops the navigation: the current activity keeps running.
+     */
+    public static Decision veto() {
+      return VETO;
+    }
+
+    private final Place redirect;
+    private final boolean vetoed;
+    private final boolean cacheable;
+
+    private Decision(Place redirect, boolean vetoed, boolean cacheable) {
+      this.redirect = redirect;
+      this.vetoed = vetoed;
+      this.cacheable = cacheable;
+    }
+
+    /**
+     * Returns this decision, but keeps the chain from remembering the outcome
+     * for the place, e.g. because it depends on more than the place and the
+     * chain's epoch.
+     */
+    public Decision uncached() {
+      return cacheable ? new Decision(redirect, vetoed, false) : this;
+    }
+
+    Place getRedirect() {
+      return redirect;
+    }
+
+    boolean isVetoed() {
+      return vetoed;
+    }
+
+    boolean isCacheable() {
+      return cacheable;
+    }
+  }
+
+  /**
+   * Decides what to do about the given place.
+   *
+   * @param place the place being navigated to
+   * @return a decision, not null
+   */
+  Decision intercept(Place place);
+}
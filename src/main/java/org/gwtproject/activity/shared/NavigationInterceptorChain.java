@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs {@link NavigationInterceptor}s in the order they were added, and
+ * remembers the outcome for each place, so that navigating to it again skips
+ * the chain. Give one to {@link ActivityManager#setInterceptorChain}.
+ * <p>
+ * Outcomes are remembered until {@link #invalidate} starts a new epoch, e.g.
+ * when the user logs in or out. Interceptors whose decision depends on
+ * anything else should return {@link NavigationInterceptor.Decision#uncached}
+ * decisions.
+ */
+public class NavigationInterceptorChain {
+
+  /**
+   * The number of redirects followed for one navigation before giving up.
+   */
+  static final int MAX_REDIRECTS = 10;
+
+  private static class Outcome {
+    final int epoch;
+    final Place place;
+
+    Outcome(int epoch, Place place) {
+      this.epoch = epoch;
+      this.place = place;
+    }
+  }
+
+  private final List<NavigationInterceptor> interceptors = new ArrayList<NavigationInterceptor>();
+  private final Map<Place, Outcome> outcomes;
+
+  private int epoch;
+  private int hits;
+  private int misses;
+
+  /**
+   * Creates a chain that remembers the outcome for at most the given number
+   * of places, dropping the least recently used first.
+   *
+   * @param maxOutcomes the maximum number of outcomes to remember
+   */
+  public NavigationInterceptorChain(final int maxOutcomes) {
+    outcomes = new LinkedHashMap<Place, Outcome>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Place, Outcome> eldest) {
+        return size() > maxOutcomes;
+      }
+    };
+  }
+
+  /**
+   * Adds an interceptor at the end of the chain, and starts a new epoch.
+   *
+   * @param interceptor the interceptor to add
+   * @return this chain
+   */
+  public NavigationInterceptorChain add(NavigationInterceptor interceptor) {
+    interceptors.add(interceptor);
+    invalidate();
+    return this;
+  }
+
+  /**
+   * Forgets all remembered outcomes, by starting a new epoch.
+   */
+  public void invalidate() {
+    epoch++;
+  }
+
+  /**
+   * Returns the current epoch.
+   */
+  public int getEpoch() {
+    return epoch;
+  }
+
+  /**
+   * Returns how many navigations were answered from a remembered outcome.
+   */
+  public int getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Returns how many navigations ran the chain.
+   */
+  public int getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Returns the place to go to instead of the given one, which is the place
+   * itself if all interceptors let it pass, or null if one vetoed it.
+   *
+   * @param place the place being navigated to
+   * @throws IllegalStateException if redirects go on for too long, e.g.
+   *           because two interceptors redirect to each other's places
+   */
+  public Place resolve(Place place) {
+    Outcome outcome = outcomes.get(place);
+    if (outcome != null && outcome.epoch == epoch) {
+      hits++;
+      return outcome.place;
+    }
+    misses++;
+
+    boolean cacheable = true;
+    Place current = place;
+    int redirects = 0;
+    int i = 0;
+    while (i < interceptors.size()) {
+      NavigationInterceptor.Decision decision = interceptors.get(i).intercept(current);
+      cacheable &= decision.isCacheable();
+      if (decision.isVetoed()) {
+        current = null;
+        break;
+      }
+      if (decision.getRedirect() != null) {
+        if (++redirects > MAX_REDIRECTS) {
+          throw new IllegalStateException("Too many redirects from " + place);
+        }
+        current = decision.getRedirect();
+        i = 0;
+      } else {
+        i++;
+      }
+    }
+
+    if (cacheable) {
+      outcomes.put(place, new Outcome(epoch, current));
+    } else {
+      outcomes.remove(place);
+    }
+    return current;
+  }
+}
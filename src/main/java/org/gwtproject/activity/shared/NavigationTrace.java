@@ -0,0 +1,271 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recording of what an {@link ActivityManager} did over a series of
+ * navigations, as captured by a {@link NavigationTraceRecorder}.
+ * <p>
+ * A trace has a compact line based text form, one {@link Entry} per line:
+ * <pre>
+ * 0 P orders/42
+ * 0 R 1 OrderActivity
+ * 0 S 1
+ * 1 E 1
+ * 38 W 1
+ * </pre>
+ * Each line holds the time in milliseconds since the trace began, the
+ * {@link Kind#getCode() code} of the entry kind, and depending on the kind an
+ * activity id, a place token or an activity type. A resolution to no activity
+ * is written as {@code R -}.
+ */
+public class NavigationTrace {
+
+  /**
+   * The kinds of step recorded in a trace.
+   */
+  public enum Kind {
+    /**
+     * A place change was received; carries the place token.
+     */
+    PLACE_CHANGE('P'),
+    /**
+     * The mapper returned an activity; carries its id and type, or no id if
+     * the mapper returned null.
+     */
+    RESOLVED('R'),
+    /**
+     * {@link Activity#start} was called.
+     */
+    START('S'),
+    /**
+     * {@link Activity#start} returned.
+     */
+    STARTED('E'),
+    /**
+     * The starting activity showed an interim widget.
+     */
+    INTERIM_PRESENTED('I'),
+    /**
+     * The starting activity showed its widget.
+     */
+    PRESENTED('W'),
+    /**
+     * {@link Activity#onStop} was called.
+     */
+    STOP('X'),
+    /**
+     * {@link Activity#onCancel} was called.
+     */
+    CANCEL('C');
+
+    private final char code;
+
+    Kind(char code) {
+      this.code = code;
+    }
+
+    /**
+     * Returns the character used for this kind in the text form of a trace.
+     */
+    public char getCode() {
+      return code;
+    }
+
+    static Kind forCode(char code) {
+      for (Kind kind : values()) {
+        if (kind.code == code) {
+          return kind;
+        }
+      }
+      throw new IllegalArgumentException("Unknown trace entry kind: " + code);
+    }
+  }
+
+  /**
+   * A single recorded step.
+   */
+  public static class Entry {
+    private final int time;
+    private final Kind kind;
+    private final int activityId;
+    private final String value;
+
+    Entry(int time, Kind kind, int activityId, String value) {
+      this.time = time;
+      this.kind = kind;
+      this.activityId = activityId;
+      this.value = value;
+    }
+
+    /**
+     * Returns the id the recorder gave to the activity involved, or
+     * {@code 0} for place changes and resolutions to no activity. The same
+     * activity instance always gets the same id within a trace.
+     */
+    public int getActivityId() {
+      return activityId;
+    }
+
+    /**
+     * Returns what kind of step this entry records.
+     */
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * Returns the time of this step, in milliseconds since the trace began.
+     */
+    public int getTime() {
+      return time;
+    }
+
+    /**
+     * Returns the place token of a {@link Kind#PLACE_CHANGE} entry, the
+     * activity type of a {@link Kind#RESOLVED} entry, or null.
+     */
+    public String getValue() {
+      return value;
+    }
+  }
+
+  /**
+   * Parses the text form of a trace, as returned by {@link #toString()}.
+   *
+   * @param text the trace, one entry per line
+   * @return the parsed trace
+   * @throws IllegalArgumentException if a line is malformed
+   */
+  public static NavigationTrace parse(String text) {
+    NavigationTrace trace = new NavigationTrace();
+    int lineStart = 0;
+    while (lineStart < text.length()) {
+      int lineEnd = text.indexOf('\n', lineStart);
+      if (lineEnd < 0) {
+        lineEnd = text.length();
+      }
+      if (lineEnd > lineStart) {
+        trace.entries.add(parseEntry(text.substring(lineStart, lineEnd)));
+      }
+      lineStart = lineEnd + 1;
+    }
+    return trace;
+  }
+
+  private static Entry parseEntry(String line) {
+    int timeEnd = line.indexOf(' ');
+    if (timeEnd < 1 || timeEnd + 2 > line.length()) {
+      throw new IllegalArgumentException("Malformed trace line: " + line);
+    }
+    int time = Integer.parseInt(line.substring(0, timeEnd));
+    Kind kind = Kind.forCode(line.charAt(timeEnd + 1));
+    String rest = timeEnd + 3 < line.length() ? line.substring(timeEnd + 3) : "";
+
+    switch (kind) {
+      case PLACE_CHANGE:
+        return new Entry(time, kind, 0, unescape(rest));
+      case RESOLVED:
+        if (rest.equals("-")) {
+          return new Entry(time, kind, 0, null);
+        }
+        int idEnd = rest.indexOf(' ');
+        if (idEnd < 0) {
+          throw new IllegalArgumentException("Malformed trace line: " + line);
+        }
+        return new Entry(time, kind, Integer.parseInt(rest.substring(0, idEnd)),
+            rest.substring(idEnd + 1));
+      default:
+        return new Entry(time, kind, Integer.parseInt(rest), null);
+    }
+  }
+
+  private static String unescape(String token) {
+    if (token.indexOf('\\') < 0) {
+      return token;
+    }
+    StringBuilder sb = new StringBuilder(token.length());
+    for (int i = 0; i < token.length(); i++) {
+      char c = token.charAt(i);
+      if (c == '\\' && i + 1 < token.length()) {
+        c = token.charAt(++i);
+        sb.append(c == 'n' ? '\n' : c);
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static void appendEscaped(StringBuilder sb, String token) {
+    for (int i = 0; i < token.length(); i++) {
+      char c = token.charAt(i);
+      if (c == '\n') {
+        sb.append("\\n");
+      } else if (c == '\\') {
+        sb.append("\\\\");
+      } else {
+        sb.append(c);
+      }
+    }
+  }
+
+  private final List<Entry> entries = new ArrayList<Entry>();
+
+  /**
+   * Returns the recorded entries, in the order they happened.
+   */
+  public List<Entry> getEntries() {
+    return Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * Returns the text form of this trace, which {@link #parse} accepts.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(entries.size() * 12);
+    for (Entry entry : entries) {
+      sb.append(entry.time).append(' ').append(entry.kind.code);
+      switch (entry.kind) {
+        case PLACE_CHANGE:
+          sb.append(' ');
+          appendEscaped(sb, entry.value);
+          break;
+        case RESOLVED:
+          if (entry.value == null) {
+            sb.append(" -");
+          } else {
+            sb.append(' ').append(entry.activityId).append(' ').append(entry.value);
+          }
+          break;
+        default:
+          sb.append(' ').append(entry.activityId);
+          break;
+      }
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+
+  void add(Entry entry) {
+    entries.add(entry);
+  }
+}
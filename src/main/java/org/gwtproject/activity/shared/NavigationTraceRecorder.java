@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Records the place changes seen by one or more {@link ActivityManager}s,
+ * what their mappers returned, and when activities started, presented their
+ * widgets, stopped or were canceled, into a {@link NavigationTrace}.
+ * <p>
+ * The recorder holds on to every activity it has seen, so that it can tell
+ * when a mapper hands out the same instance again. Call {@link #reset} to
+ * release them.
+ */
+public class NavigationTraceRecorder implements ActivityLifecycleListener {
+
+  private final PlaceNamer namer;
+  private final Clock clock;
+
+  private final Map<Activity, Integer> activityIds = new IdentityHashMap<Activity, Integer>();
+  private NavigationTrace trace = new NavigationTrace();
+  private double startTime = Double.NaN;
+
+  /**
+   * Creates a recorder timed by {@link Clock#SYSTEM}.
+   *
+   * @param namer turns places into tokens, which must not be null
+   */
+  public NavigationTraceRecorder(PlaceNamer namer) {
+    this(namer, Clock.SYSTEM);
+  }
+
+  /**
+   * Creates a recorder.
+   *
+   * @param namer turns places into tokens, which must not be null
+   * @param clock times the recorded entries
+   */
+  public NavigationTraceRecorder(PlaceNamer namer, Clock clock) {
+    this.namer = namer;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the trace recorded so far.
+   */
+  public NavigationTrace getTrace() {
+    return trace;
+  }
+
+  /**
+   * Discards the recorded trace and the activities it refers to, and starts
+   * a new one.
+   */
+  public void reset() {
+    trace = new NavigationTrace();
+    activityIds.clear();
+    startTime = Double.NaN;
+  }
+
+  @Override
+  public void onPlaceChange(Place place) {
+    trace.add(new NavigationTrace.Entry(time(), NavigationTrace.Kind.PLACE_CHANGE, 0,
+        namer.getToken(place)));
+  }
+
+  @Override
+  public void onActivityResolved(Place place, Activity activity) {
+    if (activity == null) {
+      trace.add(new NavigationTrace.Entry(time(), NavigationTrace.Kind.RESOLVED, 0, null));
+    } else {
+      trace.add(new NavigationTrace.Entry(time(), NavigationTrace.Kind.RESOLVED, idOf(activity),
+          typeOf(activity)));
+    }
+  }
+
+  @Override
+  public void onActivityStart(Activity activity) {
+    add(NavigationTrace.Kind.START, activity);
+  }
+
+  @Override
+  public void onActivityStarted(Activity activity) {
+    add(NavigationTrace.Kind.STARTED, activity);
+  }
+
+  @Override
+  public void onActivityInterimPresented(Activity activity) {
+    add(NavigationTrace.Kind.INTERIM_PRESENTED, activity);
+  }
+
+  @Override
+  public void onActivityPresented(Activity activity) {
+    add(NavigationTrace.Kind.PRESENTED, activity);
+  }
+
+  @Override
+  public void onActivityStop(Activity activity) {
+    add(NavigationTrace.Kind.STOP, activity);
+  }
+
+  @Override
+  public void onActivityCancel(Activity activity) {
+    add(NavigationTrace.Kind.CANCEL, activity);
+  }
+
+  private void add(NavigationTrace.Kind kind, Activity activity) {
+    trace.add(new NavigationTrace.Entry(time(), kind, idOf(activity), null));
+  }
+
+  private int idOf(Activity activity) {
+    Integer id = activityIds.get(activity);
+    if (id == null) {
+      id = activityIds.size() + 1;
+      activityIds.put(activity, id);
+    }
+    return id;
+  }
+
+  private int time() {
+    double now = clock.now();
+    if (Double.isNaN(startTime)) {
+      startTime = now;
+    }
+    return (int) Math.round(now - startTime);
+  }
+
+  private static String typeOf(Activity activity) {
+    String name = activity.getClass().getName();
+    return name.substring(name.lastIndexOf('.') + 1).replace(' ', '_');
+  }
+}
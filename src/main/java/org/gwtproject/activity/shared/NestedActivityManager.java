@@ -0,0 +1,352 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.event.shared.ResettableEventBus;
+import org.gwtproject.event.shared.UmbrellaException;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.place.shared.PlaceChangeRequestEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Manages a stack of nested {@link Activity} objects for
+ * {@link HierarchicalPlace hierarchical places}, one per level of the place's
+ * path. The top level activity is shown in the manager's display; each deeper
+ * one in a region provided by its {@link ParentActivity parent}.
+ * <p>
+ * On a place change only the levels from the first one whose place differs
+ * downwards are stopped and restarted, so that parent activities keep their
+ * views and data while the user moves between their children. A place that
+ * does not implement {@link HierarchicalPlace} is a path of one level.
+ * <p>
+ * A level's activity is started once its parent has presented its widget,
+ * and each level has its own event bus, whose handlers are removed when that
+ * level's activity stops.
+ */
+public class NestedActivityManager implements PlaceChangeEvent.Handler,
+    PlaceChangeRequestEvent.Handler {
+
+  /**
+   * One level of the current place's path and the activity running for it.
+   */
+  private class Level {
+    final int depth;
+    final Place place;
+    final Activity activity;
+    final ResettableEventBus levelEventBus = new ResettableEventBus(eventBus);
+    AcceptsOneWidget levelDisplay;
+    ProtectedDisplay protectedDisplay;
+    boolean starting;
+
+    Level(int depth, Place place, Activity activity) {
+      this.depth = depth;
+      this.place = place;
+      this.activity = activity;
+    }
+
+    boolean isPresented() {
+      return protectedDisplay != null && !starting;
+    }
+
+    boolean isStarted() {
+      return protectedDisplay != null;
+    }
+
+    void showWidget(IsWidget view) {
+      if (depth == 0) {
+        if (display != null) {
+          display.setWidget(view);
+        }
+      } else if (levelDisplay != null) {
+        levelDisplay.setWidget(view);
+      }
+    }
+  }
+
+  /**
+   * Keeps a level's activity from showing its widget once it has been
+   * stopped or canceled, and starts the next level when it first presents.
+   */
+  private class ProtectedDisplay implements AcceptsOneWidget {
+    private final Level level;
+
+    ProtectedDisplay(Level level) {
+      this.level = level;
+    }
+
+    public void setWidget(IsWidget view) {
+      if (this != level.protectedDisplay) {
+        return;
+      }
+      level.showWidget(view);
+      if (level.starting) {
+        level.starting = false;
+        listeners.onActivityPresented(level.activity);
+        Throwable caught = startFrom(level.depth + 1);
+        if (caught != null) {
+          Set<Throwable> causes = new LinkedHashSet<Throwable>();
+          causes.add(caught);
+          throw new UmbrellaException(causes);
+        }
+      }
+    }
+  }
+
+  private final ActivityMapper mapper;
+
+  private final EventBus eventBus;
+
+  private final List<Level> levels = new ArrayList<Level>();
+
+  private final ActivityLifecycleListeners listeners = new ActivityLifecycleListeners();
+
+  private AcceptsOneWidget display;
+
+  private HandlerRegistration handlerRegistration;
+
+  /**
+   * Create a NestedActivityManager. Next call {@link #setDisplay}.
+   *
+   * @param mapper finds the {@link Activity} for each level of a place's path
+   * @param eventBus source of {@link PlaceChangeEvent} and
+   *          {@link PlaceChangeRequestEvent} events.
+   */
+  public NestedActivityManager(ActivityMapper mapper, EventBus eventBus) {
+    this.mapper = mapper;
+    this.eventBus = eventBus;
+  }
+
+  /**
+   * Adds a listener to be told about each step this manager takes while
+   * responding to place changes. It is told about every level.
+   *
+   * @param listener the listener to add
+   * @return a registration that removes the listener
+   */
+  public HandlerRegistration addLifecycleListener(ActivityLifecycleListener listener) {
+    return listeners.add(listener);
+  }
+
+  /**
+   * Returns the number of levels currently running or waiting for their
+   * parent to present.
+   */
+  public int getDepth() {
+    return levels.size();
+  }
+
+  /**
+   * Stops and restarts the levels of the new place's path that differ from
+   * the current ones, deepest first.
+   */
+  public void onPlaceChange(PlaceChangeEvent event) {
+    listeners.onPlaceChange(event.getNewPlace());
+    List<Place> path = display == null ? new ArrayList<Place>() : pathOf(event.getNewPlace());
+    int divergence = divergenceFrom(path);
+
+    Set<Throwable> causes = new LinkedHashSet<Throwable>();
+    for (int i = levels.size() - 1; i >= divergence; i--) {
+      Throwable caught = stopOrCancel(levels.remove(i));
+      if (caught != null) {
+        causes.add(caught);
+      }
+    }
+
+    for (int i = divergence; i < path.size(); i++) {
+      Place place = path.get(i);
+      Activity activity = mapper.getActivity(place);
+      listeners.onActivityResolved(place, activity);
+      if (activity == null) {
+        break;
+      }
+      levels.add(new Level(i, place, activity));
+    }
+
+    if (levels.isEmpty()) {
+      if (display != null) {
+        display.setWidget(null);
+      }
+    } else if (divergence == 0) {
+      Throwable caught = startFrom(0);
+      if (caught != null) {
+        causes.add(caught);
+      }
+    } else if (levels.get(divergence - 1).isPresented()) {
+      Throwable caught = startFrom(divergence);
+      if (caught != null) {
+        causes.add(caught);
+      }
+    }
+
+    if (!causes.isEmpty()) {
+      throw new UmbrellaException(causes);
+    }
+  }
+
+  /**
+   * Reject the place change if any of the activities it would stop is not
+   * willing to. The deepest one's warning is used.
+   *
+   * @see org.gwtproject.place.shared.PlaceChangeRequestEvent.Handler#
+   *      onPlaceChangeRequest(PlaceChangeRequestEvent)
+   */
+  public void onPlaceChangeRequest(PlaceChangeRequestEvent event) {
+    int divergence = divergenceFrom(pathOf(event.getNewPlace()));
+    for (int i = levels.size() - 1; i >= divergence; i--) {
+      String warning = listeners.mayStop(levels.get(i).activity);
+      if (warning != null) {
+        event.setWarning(warning);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Sets the display for the top level activity, and has the side effect of
+   * starting or stopping monitoring the event bus for place change events.
+   * <p>
+   * If you are disposing of a NestedActivityManager, it is important to call
+   * setDisplay(null) to get it to de-register from the event bus, so that it
+   * can be garbage collected.
+   *
+   * @param display an instance of AcceptsOneWidget
+   */
+  public void setDisplay(AcceptsOneWidget display) {
+    boolean wasActive = (null != this.display);
+    boolean willBeActive = (null != display);
+    this.display = display;
+    if (wasActive != willBeActive) {
+      updateHandlers(willBeActive);
+    }
+  }
+
+  /**
+   * Returns the path of the given place, top level first.
+   */
+  private static List<Place> pathOf(Place place) {
+    List<Place> path = new ArrayList<Place>();
+    for (Place p = place; p != null;
+        p = p instanceof HierarchicalPlace ? ((HierarchicalPlace) p).getParentPlace() : null) {
+      path.add(0, p);
+    }
+    return path;
+  }
+
+  private int divergenceFrom(List<Place> path) {
+    int i = 0;
+    while (i < levels.size() && i < path.size() && levels.get(i).place.equals(path.get(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Starts the level at the given index, if its parent can host it. Deeper
+   * levels follow as each one presents.
+   */
+  private Throwable startFrom(int index) {
+    if (index >= levels.size()) {
+      return null;
+    }
+    Level level = levels.get(index);
+    if (index > 0) {
+      Activity parent = levels.get(index - 1).activity;
+      if (parent instanceof ParentActivity) {
+        level.levelDisplay = ((ParentActivity) parent).getChildDisplay(level.place);
+      }
+      if (level.levelDisplay == null) {
+        // Nowhere to show it, drop this level and any below it
+        levels.subList(index, levels.size()).clear();
+        return null;
+      }
+    }
+
+    level.starting = true;
+    level.protectedDisplay = new ProtectedDisplay(level);
+    listeners.onActivityStart(level.activity);
+    Throwable caught = null;
+    try {
+      level.activity.start(level.protectedDisplay, level.levelEventBus);
+    } catch (Throwable t) {
+      caught = t;
+    }
+    listeners.onActivityStarted(level.activity);
+    return caught;
+  }
+
+  private Throwable stopOrCancel(Level level) {
+    if (!level.isStarted()) {
+      return null;
+    }
+    boolean stop = !level.starting;
+    level.protectedDisplay = null;
+    if (stop) {
+      level.showWidget(null);
+      level.levelEventBus.removeHandlers();
+      listeners.onActivityStop(level.activity);
+    } else {
+      listeners.onActivityCancel(level.activity);
+    }
+
+    Throwable caught = null;
+    try {
+      if (stop) {
+        level.activity.onStop();
+      } else {
+        level.activity.onCancel();
+      }
+    } catch (Throwable t) {
+      caught = t;
+    } finally {
+      level.levelEventBus.removeHandlers();
+    }
+    if (stop) {
+      listeners.onActivityStopped(level.activity);
+    } else {
+      listeners.onActivityCanceled(level.activity);
+    }
+    return caught;
+  }
+
+  private void updateHandlers(boolean activate) {
+    if (activate) {
+      final HandlerRegistration placeReg = eventBus.addHandler(PlaceChangeEvent.TYPE, this);
+      final HandlerRegistration placeRequestReg =
+          eventBus.addHandler(PlaceChangeRequestEvent.TYPE, this);
+
+      this.handlerRegistration = new HandlerRegistration() {
+        public void removeHandler() {
+          placeReg.removeHandler();
+          placeRequestReg.removeHandler();
+        }
+      };
+    } else {
+      if (handlerRegistration != null) {
+        handlerRegistration.removeHandler();
+        handlerRegistration = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+/**
+ * An {@link Activity} whose widget hosts the activities of deeper levels of a
+ * {@link NestedActivityManager}.
+ */
+public interface ParentActivity extends Activity {
+
+  /**
+   * Returns the region of this activity's widget that should show the
+   * activity for the given child place. Only called after this activity has
+   * presented its widget.
+   *
+   * @param childPlace the place one level below this activity's place
+   * @return the region to show the child in, or null if this activity has no
+   *         room for it, in which case no deeper activity is started
+   */
+  AcceptsOneWidget getChildDisplay(Place childPlace);
+}
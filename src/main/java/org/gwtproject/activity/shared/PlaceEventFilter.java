@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.Event;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.place.shared.PlaceChangeRequestEvent;
+
+/**
+ * Passes everything on to the wrapped event bus but the place event handlers
+ * of one object, which are ignored. Give it to an {@link ActivityManager}
+ * whose place events are delivered by something else, e.g. a
+ * {@link StagedRegionStartup}, and filter the manager itself; its activities
+ * still use the wrapped bus, place events included.
+ */
+public class PlaceEventFilter extends EventBus {
+  private final EventBus wrapped;
+  private Object filtered;
+
+  /**
+   * Constructs a PlaceEventFilter object.
+   *
+   * @param wrapped the event bus to pass everything else on to
+   */
+  public PlaceEventFilter(EventBus wrapped) {
+    this.wrapped = wrapped;
+  }
+
+  /**
+   * Sets the object whose place event handlers are ignored, typically the
+   * manager given this bus.
+   *
+   * @param handler the handler to filter, or null
+   */
+  public void setFilteredHandler(Object handler) {
+    this.filtered = handler;
+  }
+
+  @Override
+  public <H> HandlerRegistration addHandler(Event.Type<H> type, H handler) {
+    if (handler != null && handler == filtered
+        && (type == PlaceChangeEvent.TYPE || type == PlaceChangeRequestEvent.TYPE)) {
+      return new HandlerRegistration() {
+        public void removeHandler() {
+        }
+      };
+    }
+    return wrapped.addHandler(type, handler);
+  }
+
+  @Override
+  public <H> HandlerRegistration addHandlerToSource(Event.Type<H> type, Object source,
+      H handler) {
+    return wrapped.addHandlerToSource(type, source, handler);
+  }
+
+  @Override
+  public void fireEvent(Event<?> event) {
+    wrapped.fireEvent(event);
+  }
+
+  @Override
+  public void fireEventFromSource(Event<?> event, Object source) {
+    wrapped.fireEventFromSource(event, source);
+  }
+
+  EventBus getWrapped() {
+    return wrapped;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collapses equal {@link Place} objects to one canonical instance, so that
+ * code comparing places, such as {@link CachingActivityMapper}, usually finds
+ * them identical without calling {@link Object#equals}. Intern places where
+ * they are created, e.g. when parsing history tokens, or wrap a mapper in a
+ * {@link FilteredActivityMapper} using an interner as its filter.
+ * <p>
+ * Places must be immutable to be interned. The interner keeps at most a given
+ * number of places, dropping the least recently interned first; a dropped
+ * place simply stops being canonical.
+ */
+public class PlaceInterner implements FilteredActivityMapper.Filter, Shrinkable {
+
+  private final Map<Place, Place> places;
+
+  private int hits;
+  private int misses;
+
+  /**
+   * Creates an interner that keeps at most the given number of places.
+   *
+   * @param maxSize the maximum number of canonical places, at least 1
+   */
+  public PlaceInterner(final int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be at least 1: " + maxSize);
+    }
+    places = new LinkedHashMap<Place, Place>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Place, Place> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the canonical instance equal to the given place, which becomes
+   * canonical itself if there is none.
+   *
+   * @param place the place to intern, or null
+   * @return the canonical place, or null
+   */
+  public Place intern(Place place) {
+    if (place == null) {
+      return null;
+    }
+    Place canonical = places.get(place);
+    if (canonical == null) {
+      misses++;
+      places.put(place, place);
+      return place;
+    }
+    hits++;
+    return canonical;
+  }
+
+  /**
+   * Same as {@link #intern}, to use the interner as a filter.
+   */
+  public Place filter(Place place) {
+    return intern(place);
+  }
+
+  /**
+   * Forgets all canonical places.
+   */
+  public void clear() {
+    places.clear();
+  }
+
+  /**
+   * Returns how many times an already canonical place was found.
+   */
+  public int getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Returns how many places became canonical.
+   */
+  public int getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of canonical places held.
+   */
+  public int size() {
+    return places.size();
+  }
+
+  /**
+   * Forgets the least recently used half of the canonical places, or all of
+   * them under critical pressure.
+   */
+  public int shrink(MemoryPressure.Level level) {
+    int size = places.size();
+    int drop = level == MemoryPressure.Level.CRITICAL ? size : size - size / 2;
+    Iterator<Place> it = places.keySet().iterator();
+    for (int i = 0; i < drop; i++) {
+      it.next();
+      it.remove();
+    }
+    return drop;
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+/**
+ * Turns places into tokens, typically a {@code PlaceHistoryMapper::getToken}
+ * reference. Used to route places by their token, and to label them in
+ * traces.
+ */
+@FunctionalInterface
+public interface PlaceNamer {
+
+  /**
+   * Returns the token for the given place.
+   *
+   * @param place the place to name
+   */
+  String getToken(Place place);
+}
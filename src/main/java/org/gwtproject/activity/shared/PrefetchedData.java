@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The loads a {@link DataPrefetcher} started for one place, keyed as they
+ * were declared. An activity asks for each value with {@link #get}, which
+ * calls back at once if the value has already arrived.
+ * <p>
+ * Once the activity is canceled, or the place changes before it starts, the
+ * data is canceled: values still in flight are dropped, though a cache they
+ * were loaded through keeps them.
+ */
+public final class PrefetchedData {
+
+  /**
+   * One declared value, and the callbacks waiting for it.
+   */
+  private class Slot implements ActivityDataCache.Callback<Object> {
+    List<ActivityDataCache.Callback<Object>> callbacks =
+        new ArrayList<ActivityDataCache.Callback<Object>>(1);
+    boolean done;
+    Object value;
+    Throwable caught;
+
+    public void onFailure(Throwable caught) {
+      complete(null, caught);
+    }
+
+    public void onSuccess(Object value) {
+      complete(value, null);
+    }
+
+    void complete(Object value, Throwable caught) {
+      if (done || canceled) {
+        return;
+      }
+      done = true;
+      this.value = value;
+      this.caught = caught;
+      List<ActivityDataCache.Callback<Object>> waiting = callbacks;
+      callbacks = null;
+      for (ActivityDataCache.Callback<Object> callback : waiting) {
+        deliver(callback);
+      }
+    }
+
+    void deliver(ActivityDataCache.Callback<Object> callback) {
+      if (caught != null) {
+        callback.onFailure(caught);
+      } else {
+        callback.onSuccess(value);
+      }
+    }
+  }
+
+  private final Place place;
+  private final ActivityDataCache cache;
+  private final Map<Object, Slot> slots = new LinkedHashMap<Object, Slot>();
+
+  private boolean canceled;
+
+  PrefetchedData(Place place, ActivityDataCache cache) {
+    this.place = place;
+    this.cache = cache;
+  }
+
+  /**
+   * Drops the values still in flight, and any callbacks waiting for them.
+   */
+  public void cancel() {
+    canceled = true;
+    for (Slot slot : slots.values()) {
+      slot.callbacks = null;
+    }
+  }
+
+  /**
+   * Asks for a declared value. Calls back synchronously if it has arrived,
+   * and never once the data has been canceled.
+   *
+   * @param key the key it was declared with
+   * @param callback receives the value
+   * @param <T> the type of the value
+   * @throws IllegalArgumentException if no value was declared for the key
+   */
+  @SuppressWarnings("unchecked")
+  public <T> void get(Object key, ActivityDataCache.Callback<T> callback) {
+    Slot slot = slots.get(key);
+    if (slot == null) {
+      throw new IllegalArgumentException("No data was declared for " + key);
+    }
+    if (canceled) {
+      return;
+    }
+    if (slot.done) {
+      slot.deliver((ActivityDataCache.Callback<Object>) callback);
+    } else {
+      slot.callbacks.add((ActivityDataCache.Callback<Object>) callback);
+    }
+  }
+
+  /**
+   * Returns the place the data was declared for.
+   */
+  public Place getPlace() {
+    return place;
+  }
+
+  /**
+   * Returns whether the data has been canceled.
+   */
+  public boolean isCanceled() {
+    return canceled;
+  }
+
+  /**
+   * Returns whether the value for a key has arrived, or failed to.
+   *
+   * @param key the key it was declared with
+   */
+  public boolean isDone(Object key) {
+    Slot slot = slots.get(key);
+    return slot != null && slot.done;
+  }
+
+  /**
+   * Declares a value and starts loading it, unless a value was already
+   * declared for the key.
+   *
+   * @param key identifies the value, also in the prefetcher's cache
+   * @param loader loads the value
+   * @param <T> the type of the value
+   */
+  @SuppressWarnings("unchecked")
+  public <T> void require(Object key, ActivityDataCache.Loader<T> loader) {
+    if (slots.containsKey(key)) {
+      return;
+    }
+    Slot slot = new Slot();
+    slots.put(key, slot);
+    ActivityDataCache.Callback<T> callback = (ActivityDataCache.Callback<T>) (Object) slot;
+    if (cache != null) {
+      cache.get(key, place, null, loader, callback);
+    } else {
+      loader.load(callback);
+    }
+  }
+
+  boolean isEmpty() {
+    return slots.isEmpty();
+  }
+}
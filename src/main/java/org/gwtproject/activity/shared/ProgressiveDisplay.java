@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+/**
+ * A display that lets an activity show a placeholder, e.g. a skeleton of its
+ * view, before its real widget is ready. The panel an {@link ActivityManager}
+ * passes to {@link Activity#start} implements it:
+ *
+ * <pre>
+ * public void start(AcceptsOneWidget panel, EventBus eventBus) {
+ *   if (panel instanceof ProgressiveDisplay) {
+ *     ((ProgressiveDisplay) panel).setInterimWidget(skeleton);
+ *   }
+ *   loadData(data -&gt; panel.setWidget(createView(data)));
+ * }
+ * </pre>
+ */
+public interface ProgressiveDisplay extends AcceptsOneWidget {
+  /**
+   * Shows an interim widget. Unlike {@link #setWidget}, this does not count as
+   * the activity being presented: it may still be canceled, rather than
+   * stopped, by the next place change, which also removes the interim widget.
+   *
+   * @param interim the placeholder widget
+   */
+  void setInterimWidget(IsWidget interim);
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps another {@link ActivityMapper} and caches the activities it returned
+ * for any number of places, holding them through soft or weak references so
+ * that the cache grows with the available heap and never causes an
+ * {@link OutOfMemoryError}. Cached activities are started again when their
+ * place is revisited, so they must support that.
+ * <p>
+ * Entries whose activity was collected are removed as the mapper is used.
+ * <p>
+ * GWT and J2CL have no such references; there, a super-source version keeps
+ * the {@value #FALLBACK_MAX_SIZE} most recently used activities strongly.
+ */
+public class ReferenceCachingActivityMapper implements ActivityMapper, Shrinkable {
+
+  /**
+   * How the cached activities are held.
+   */
+  public enum Strength {
+    /**
+     * Kept until the heap runs short; the usual choice for a cache.
+     */
+    SOFT,
+    /**
+     * Kept only while something else holds on to them, e.g. another cache.
+     */
+    WEAK
+  }
+
+  /**
+   * The number of activities kept by the fallback for GWT and J2CL.
+   */
+  public static final int FALLBACK_MAX_SIZE = 32;
+
+  private interface Entry {
+    Place getPlace();
+  }
+
+  private static final class SoftEntry extends SoftReference<Activity> implements Entry {
+    private final Place place;
+
+    SoftEntry(Place place, Activity activity, ReferenceQueue<Activity> queue) {
+      super(activity, queue);
+      this.place = place;
+    }
+
+    public Place getPlace() {
+      return place;
+    }
+  }
+
+  private static final class WeakEntry extends WeakReference<Activity> implements Entry {
+    private final Place place;
+
+    WeakEntry(Place place, Activity activity, ReferenceQueue<Activity> queue) {
+      super(activity, queue);
+      this.place = place;
+    }
+
+    public Place getPlace() {
+      return place;
+    }
+  }
+
+  private final ActivityMapper wrapped;
+  private final Strength strength;
+  private final Map<Place, Reference<Activity>> entries =
+      new HashMap<Place, Reference<Activity>>();
+  private final ReferenceQueue<Activity> queue = new ReferenceQueue<Activity>();
+
+  private int hits;
+  private int misses;
+
+  /**
+   * Constructs a ReferenceCachingActivityMapper object.
+   *
+   * @param wrapped the mapper to cache
+   * @param strength how to hold the activities
+   */
+  public ReferenceCachingActivityMapper(ActivityMapper wrapped, Strength strength) {
+    this.wrapped = wrapped;
+    this.strength = strength;
+  }
+
+  public Activity getActivity(Place place) {
+    expunge();
+    Reference<Activity> reference = entries.get(place);
+    Activity activity = reference == null ? null : reference.get();
+    if (activity != null) {
+      hits++;
+      return activity;
+    }
+    misses++;
+    activity = wrapped.getActivity(place);
+    if (activity != null) {
+      entries.put(place, strength == Strength.SOFT
+          ? new SoftEntry(place, activity, queue) : new WeakEntry(place, activity, queue));
+    } else if (reference != null) {
+      entries.remove(place);
+    }
+    return activity;
+  }
+
+  /**
+   * Drops all cached activities.
+   */
+  public void clear() {
+    expunge();
+    entries.clear();
+  }
+
+  /**
+   * Returns how many lookups were answered from the cache.
+   */
+  public int getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Returns how many lookups went to the wrapped mapper.
+   */
+  public int getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Drops all cached activities under critical pressure; otherwise leaves
+   * them to the garbage collector.
+   */
+  public int shrink(MemoryPressure.Level level) {
+    if (level != MemoryPressure.Level.CRITICAL) {
+      return 0;
+    }
+    int size = size();
+    entries.clear();
+    return size;
+  }
+
+  /**
+   * Returns the number of cached activities, including any collected but not
+   * yet removed.
+   */
+  public int size() {
+    expunge();
+    return entries.size();
+  }
+
+  private void expunge() {
+    Reference<? extends Activity> collected;
+    while ((collected = queue.poll()) != null) {
+      Place place = ((Entry) collected).getPlace();
+      // The place may have been cached again since
+      if (entries.get(place) == collected) {
+        entries.remove(place);
+      }
+    }
+  }
+}
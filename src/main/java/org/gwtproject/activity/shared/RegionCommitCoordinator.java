@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.event.shared.UmbrellaException;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shows the widgets of several {@link ActivityManager}s, one per region of
+ * the page, together rather than one region at a time, so that a navigation
+ * causes one layout and repaint instead of several, and no half-updated
+ * page is seen.
+ * <p>
+ * Once any region's manager receives a place change, the widgets its
+ * activities present are held back until every region's new activity has
+ * presented, or has been stopped or canceled, and are then shown in one go.
+ * If that takes longer than the deadline, the widgets held so far are shown,
+ * and later ones go straight to their displays. Regions whose activity does
+ * not change take no part.
+ */
+public class RegionCommitCoordinator {
+
+  /**
+   * One region: the real display, and the widget held back for it.
+   */
+  private class Region implements AcceptsOneWidget, ActivityLifecycleListener {
+    final AcceptsOneWidget display;
+    boolean pending;
+    boolean held;
+    IsWidget widget;
+
+    Region(AcceptsOneWidget display) {
+      this.display = display;
+    }
+
+    public void setWidget(IsWidget view) {
+      if (batching) {
+        held = true;
+        widget = view;
+      } else {
+        display.setWidget(view);
+      }
+    }
+
+    @Override
+    public void onPlaceChange(Place place) {
+      begin();
+    }
+
+    @Override
+    public void onActivityStart(Activity activity) {
+      if (batching && !pending) {
+        pending = true;
+        pendingCount++;
+      }
+    }
+
+    @Override
+    public void onActivityPresented(Activity activity) {
+      settle();
+    }
+
+    @Override
+    public void onActivityStop(Activity activity) {
+      settle();
+    }
+
+    @Override
+    public void onActivityCancel(Activity activity) {
+      settle();
+    }
+
+    void settle() {
+      if (pending) {
+        pending = false;
+        pendingCount--;
+        maybeCommit();
+      }
+    }
+  }
+
+  private final TaskScheduler scheduler;
+
+  private final int deadlineMillis;
+
+  private final List<Region> regions = new ArrayList<Region>();
+
+  private boolean batching;
+
+  private int pendingCount;
+
+  private int commitCount;
+
+  // Runs once every manager has received the place change
+  private TaskScheduler.Task dispatched;
+
+  private TaskScheduler.Task deadline;
+
+  /**
+   * Constructs a RegionCommitCoordinator object.
+   *
+   * @param scheduler times the deadline, and lets every manager receive a
+   *          place change before the widgets are shown
+   * @param deadlineMillis how long to hold widgets back at most
+   */
+  public RegionCommitCoordinator(TaskScheduler scheduler, int deadlineMillis) {
+    if (deadlineMillis < 0) {
+      throw new IllegalArgumentException("deadlineMillis must not be negative");
+    }
+    this.scheduler = scheduler;
+    this.deadlineMillis = deadlineMillis;
+  }
+
+  /**
+   * Adds a region, giving its manager a display that holds widgets back for
+   * the given one. The manager must not be given another display.
+   *
+   * @param manager the region's manager
+   * @param display where the region's widgets are shown
+   * @return a registration that removes the region, showing any widget held
+   *         back for it, and clears the manager's display
+   */
+  public HandlerRegistration addRegion(final ActivityManager manager, AcceptsOneWidget display) {
+    final Region region = new Region(display);
+    regions.add(region);
+    final HandlerRegistration listenerReg = manager.addLifecycleListener(region);
+    manager.setDisplay(region);
+    return new HandlerRegistration() {
+      public void removeHandler() {
+        if (!regions.remove(region)) {
+          return;
+        }
+        listenerReg.removeHandler();
+        manager.setDisplay(null);
+        if (region.held) {
+          region.held = false;
+          region.display.setWidget(region.widget);
+          region.widget = null;
+        }
+        region.settle();
+      }
+    };
+  }
+
+  /**
+   * Returns how many batches of widgets have been shown.
+   */
+  public int getCommitCount() {
+    return commitCount;
+  }
+
+  /**
+   * Returns whether widgets are currently being held back.
+   */
+  public boolean isBatching() {
+    return batching;
+  }
+
+  /**
+   * Shows the widgets held back so far, without waiting for the remaining
+   * regions.
+   */
+  public void commit() {
+    if (!batching) {
+      return;
+    }
+    batching = false;
+    cancel(dispatched);
+    dispatched = null;
+    cancel(deadline);
+    deadline = null;
+    commitCount++;
+    for (Region region : regions) {
+      if (region.pending) {
+        region.pending = false;
+        pendingCount--;
+      }
+    }
+
+    Set<Throwable> causes = new LinkedHashSet<Throwable>();
+    for (Region region : regions) {
+      if (region.held) {
+        IsWidget widget = region.widget;
+        region.held = false;
+        region.widget = null;
+        try {
+          region.display.setWidget(widget);
+        } catch (Throwable t) {
+          causes.add(t);
+        }
+      }
+    }
+    if (!causes.isEmpty()) {
+      throw new UmbrellaException(causes);
+    }
+  }
+
+  private void begin() {
+    if (!batching) {
+      batching = true;
+      deadline = scheduler.scheduleDelayed(new Runnable() {
+        public void run() {
+          deadline = null;
+          commit();
+        }
+      }, deadlineMillis);
+    }
+    if (dispatched == null) {
+      dispatched = scheduler.scheduleDelayed(new Runnable() {
+        public void run() {
+          dispatched = null;
+          maybeCommit();
+        }
+      }, 0);
+    }
+  }
+
+  private static void cancel(TaskScheduler.Task task) {
+    if (task != null) {
+      task.cancel();
+    }
+  }
+
+  private void maybeCommit() {
+    if (batching && dispatched == null && pendingCount == 0) {
+      commit();
+    }
+  }
+}
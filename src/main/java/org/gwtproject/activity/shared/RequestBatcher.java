@@ -0,0 +1,300 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the small data requests that the activities started by one
+ * navigation send, often one or more per region, and sends them to the
+ * server together, as a single call to a {@link Transport}, whose responses
+ * are then handed back to each request's callback.
+ * <p>
+ * Requests are sent once the current turn of the event loop ends, i.e. once
+ * every manager has reacted to the place change, or as soon as the maximum
+ * batch size is reached. Set the batcher on each {@link ActivityManager} with
+ * {@link ActivityManager#setRequestBatcher}; activities get their own
+ * {@link Requests} by implementing {@link RequestingActivity}, and stopping
+ * or canceling an activity cancels them.
+ */
+public class RequestBatcher {
+
+  /**
+   * Sends batches of requests, typically as one RPC or HTTP request.
+   */
+  @FunctionalInterface
+  public interface Transport {
+    /**
+     * Sends the requests of a batch, and eventually answers each of them
+     * through the batch, in any order. Requests may already be canceled when
+     * the batch is sent, or become so while it is in flight; their answers
+     * are then ignored.
+     *
+     * @param batch the requests to send
+     */
+    void send(Batch batch);
+  }
+
+  /**
+   * The requests sent in one call to the {@link Transport}.
+   */
+  public static final class Batch {
+    private final List<Pending> entries;
+
+    Batch(List<Pending> entries) {
+      this.entries = entries;
+    }
+
+    /**
+     * Fails every request not yet answered, e.g. when the whole call failed.
+     *
+     * @param caught the failure
+     */
+    public void failAll(Throwable caught) {
+      for (Pending entry : entries) {
+        entry.fail(caught);
+      }
+    }
+
+    /**
+     * Fails one request.
+     *
+     * @param index the request's index in the batch
+     * @param caught the failure
+     */
+    public void fail(int index, Throwable caught) {
+      entries.get(index).fail(caught);
+    }
+
+    /**
+     * Returns a request, as passed to {@link Requests#send}.
+     *
+     * @param index the request's index in the batch
+     */
+    public Object getRequest(int index) {
+      return entries.get(index).request;
+    }
+
+    /**
+     * Returns whether the activity that sent a request no longer wants the
+     * answer.
+     *
+     * @param index the request's index in the batch
+     */
+    public boolean isCanceled(int index) {
+      return entries.get(index).owner.canceled;
+    }
+
+    /**
+     * Returns the number of requests in the batch.
+     */
+    public int size() {
+      return entries.size();
+    }
+
+    /**
+     * Answers one request. Only the first answer to each request counts.
+     *
+     * @param index the request's index in the batch
+     * @param response the response
+     */
+    public void succeed(int index, Object response) {
+      entries.get(index).succeed(response);
+    }
+  }
+
+  /**
+   * The requests of one activity, which can be canceled together.
+   */
+  public final class Requests {
+    private final List<Pending> pending = new ArrayList<Pending>();
+    private boolean canceled;
+
+    private Requests() {
+    }
+
+    /**
+     * Drops the requests not yet sent, and the answers to those in flight.
+     */
+    public void cancel() {
+      if (canceled) {
+        return;
+      }
+      canceled = true;
+      for (Pending entry : pending) {
+        queue.remove(entry);
+      }
+      pending.clear();
+      if (queue.isEmpty() && scheduled != null) {
+        scheduled.cancel();
+        scheduled = null;
+      }
+    }
+
+    /**
+     * Returns the number of requests waiting to be sent or answered.
+     */
+    public int getPendingCount() {
+      return pending.size();
+    }
+
+    /**
+     * Returns whether these requests have been canceled.
+     */
+    public boolean isCanceled() {
+      return canceled;
+    }
+
+    /**
+     * Queues a request for the next batch. Does nothing once canceled.
+     *
+     * @param request the request, as understood by the transport
+     * @param callback receives the response
+     * @param <T> the type of the response
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void send(Object request, ActivityDataCache.Callback<T> callback) {
+      if (canceled) {
+        return;
+      }
+      Pending entry = new Pending(this, request, (ActivityDataCache.Callback<Object>) callback);
+      pending.add(entry);
+      queue.add(entry);
+      requests++;
+      if (queue.size() >= maxBatchSize) {
+        flush();
+      } else if (scheduled == null) {
+        scheduled = scheduler.scheduleDelayed(new Runnable() {
+          public void run() {
+            scheduled = null;
+            flush();
+          }
+        }, 0);
+      }
+    }
+  }
+
+  /**
+   * A request waiting to be sent or answered.
+   */
+  private static class Pending {
+    final Requests owner;
+    final Object request;
+    final ActivityDataCache.Callback<Object> callback;
+    boolean done;
+
+    Pending(Requests owner, Object request, ActivityDataCache.Callback<Object> callback) {
+      this.owner = owner;
+      this.request = request;
+      this.callback = callback;
+    }
+
+    void fail(Throwable caught) {
+      if (finish()) {
+        callback.onFailure(caught);
+      }
+    }
+
+    void succeed(Object response) {
+      if (finish()) {
+        callback.onSuccess(response);
+      }
+    }
+
+    private boolean finish() {
+      if (done) {
+        return false;
+      }
+      done = true;
+      owner.pending.remove(this);
+      return !owner.canceled;
+    }
+  }
+
+  private final Transport transport;
+  private final TaskScheduler scheduler;
+  private final int maxBatchSize;
+
+  private List<Pending> queue = new ArrayList<Pending>();
+  private TaskScheduler.Task scheduled;
+  private int batches;
+  private int requests;
+
+  /**
+   * Creates a batcher whose batches are not limited in size.
+   *
+   * @param transport sends the batches
+   * @param scheduler sends each batch at the end of the turn
+   */
+  public RequestBatcher(Transport transport, TaskScheduler scheduler) {
+    this(transport, scheduler, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a batcher.
+   *
+   * @param transport sends the batches
+   * @param scheduler sends each batch at the end of the turn
+   * @param maxBatchSize the most requests to send in one batch
+   */
+  public RequestBatcher(Transport transport, TaskScheduler scheduler, int maxBatchSize) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be positive");
+    }
+    this.transport = transport;
+    this.scheduler = scheduler;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Sends the queued requests now, rather than at the end of the turn.
+   */
+  public void flush() {
+    if (scheduled != null) {
+      scheduled.cancel();
+      scheduled = null;
+    }
+    if (queue.isEmpty()) {
+      return;
+    }
+    Batch batch = new Batch(queue);
+    queue = new ArrayList<Pending>();
+    batches++;
+    transport.send(batch);
+  }
+
+  /**
+   * Returns how many batches have been sent.
+   */
+  public int getBatchCount() {
+    return batches;
+  }
+
+  /**
+   * Returns how many requests have been queued, including canceled ones.
+   */
+  public int getRequestCount() {
+    return requests;
+  }
+
+  /**
+   * Returns a new set of requests, e.g. for one activity.
+   */
+  public Requests open() {
+    return new Requests();
+  }
+}
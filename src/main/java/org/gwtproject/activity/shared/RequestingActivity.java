@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+/**
+ * An {@link Activity} that sends its data requests through a
+ * {@link RequestBatcher}, together with those of the other activities started
+ * by the same navigation.
+ * <p>
+ * When its {@link ActivityManager} has a batcher, the manager passes the
+ * activity its own {@link RequestBatcher.Requests} just before
+ * {@link #start}, and cancels them once the activity stops or is canceled.
+ */
+public interface RequestingActivity extends Activity {
+
+  /**
+   * Receives the activity's requests. Called before {@link #start}.
+   *
+   * @param requests where to send requests during this run
+   */
+  void acceptRequests(RequestBatcher.Requests requests);
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link ActivityMapper} that picks activities by the history token of the
+ * place, rather than by testing its type. Routes are token patterns made of
+ * {@code /} separated segments, where a segment starting with {@code :} is a
+ * parameter matching any non-empty text up to the next {@code /}:
+ *
+ * <pre>
+ * new RouteActivityMapper(historyMapper::getToken)
+ *     .route("orders", (place, params) -&gt; new OrderListActivity())
+ *     .route("orders/:id", (place, params) -&gt; new OrderActivity(params.get("id")))
+ *     .route("orders/new", (place, params) -&gt; new NewOrderActivity());
+ * </pre>
+ * <p>
+ * A route matches a token equal to it, or starting with it followed by a
+ * {@code /}. The route matching the most of the token wins; between routes
+ * matching as much, one with a literal segment wins over one with a
+ * parameter in its place. So above, {@code orders/42/items} runs an
+ * OrderActivity and {@code orders/new} a NewOrderActivity, while with an
+ * {@code orders/:id/items} route, {@code orders/new/items} would run the
+ * latter's activity.
+ * <p>
+ * Routes are compiled into a trie of segments, so the cost of a lookup
+ * depends on the token rather than on the number of routes. Parameter values
+ * are only recorded as offsets while matching, and extracted when asked
+ * for.
+ */
+public class RouteActivityMapper implements ActivityMapper {
+
+  /**
+   * Creates the activity for a matched route.
+   */
+  @FunctionalInterface
+  public interface Factory {
+    /**
+     * Returns the activity to run, or null.
+     *
+     * @param place the place being mapped
+     * @param params the parameters of the matched route
+     */
+    Activity create(Place place, Parameters params);
+  }
+
+  /**
+   * The parameter values of a matched token.
+   */
+  public static class Parameters {
+    private final String token;
+    private final String[] names;
+    private final int[] offsets;
+
+    Parameters(String token, String[] names, int[] offsets) {
+      this.token = token;
+      this.names = names;
+      this.offsets = offsets;
+    }
+
+    /**
+     * Returns the value of the named parameter, or null if the route has no
+     * such parameter.
+     *
+     * @param name the parameter name, without the leading {@code :}
+     */
+    public String get(String name) {
+      for (int i = 0; i < names.length; i++) {
+        if (names[i].equals(name)) {
+          return token.substring(offsets[2 * i], offsets[2 * i + 1]);
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Returns the matched route's parameter names, in order.
+     */
+    public List<String> getNames() {
+      List<String> list = new ArrayList<String>(names.length);
+      for (String name : names) {
+        list.add(name);
+      }
+      return list;
+    }
+
+    /**
+     * Returns the whole token that was matched.
+     */
+    public String getToken() {
+      return token;
+    }
+  }
+
+  private static class Route {
+    final String pattern;
+    final String[] names;
+    final Factory factory;
+
+    Route(String pattern, String[] names, Factory factory) {
+      this.pattern = pattern;
+      this.names = names;
+      this.factory = factory;
+    }
+  }
+
+  /**
+   * A node of the route trie, one level per token segment. Literal children
+   * are kept in an open-addressed hash table keyed by the segment text, whose
+   * hash is computed over the token region without copying it, so that a step
+   * costs the length of the segment however many siblings it has.
+   */
+  private static class Node {
+    // Power of two sized, at most half full; empty slots are null
+    String[] literals = new String[0];
+    Node[] children = new Node[0];
+    int size;
+    Node param;
+    Route route;
+
+    Node child(String token, int start, int end) {
+      if (size == 0) {
+        return null;
+      }
+      int length = end - start;
+      int mask = literals.length - 1;
+      for (int i = hash(token, start, end) & mask; literals[i] != null; i = (i + 1) & mask) {
+        String literal = literals[i];
+        if (literal.length() == length && token.regionMatches(start, literal, 0, length)) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    Node addChild(String literal) {
+      Node child = child(literal, 0, literal.length());
+      if (child == null) {
+        if (2 * (size + 1) > literals.length) {
+          grow();
+        }
+        child = new Node();
+        put(literal, child);
+      }
+      return child;
+    }
+
+    private void grow() {
+      String[] oldLiterals = literals;
+      Node[] oldChildren = children;
+      int capacity = Math.max(4, 2 * oldLiterals.length);
+      literals = new String[capacity];
+      children = new Node[capacity];
+      size = 0;
+      for (int i = 0; i < oldLiterals.length; i++) {
+        if (oldLiterals[i] != null) {
+          put(oldLiterals[i], oldChildren[i]);
+        }
+      }
+    }
+
+    private void put(String literal, Node child) {
+      int mask = literals.length - 1;
+      int i = hash(literal, 0, literal.length()) & mask;
+      while (literals[i] != null) {
+        i = (i + 1) & mask;
+      }
+      literals[i] = literal;
+      children[i] = child;
+      size++;
+    }
+
+    /*
+     * The String hash of the region, spread so that the low bits used as an
+     * index depend on all of it.
+     */
+    private static int hash(String s, int start, int end) {
+      int h = 0;
+      for (int i = start; i < end; i++) {
+        h = 31 * h + s.charAt(i);
+      }
+      return h ^ (h >>> 16);
+    }
+  }
+
+  /**
+   * The state of one lookup: the parameter offsets of the branch being
+   * tried, and the best match so far with its own.
+   */
+  private static class Match {
+    final String token;
+    final int[] offsets;
+    final int[] bestOffsets;
+    Node best;
+    int bestEnd = -1;
+
+    Match(String token, int maxParams) {
+      this.token = token;
+      this.offsets = new int[2 * maxParams];
+      this.bestOffsets = new int[2 * maxParams];
+    }
+  }
+
+  private final PlaceNamer namer;
+  private final Node root = new Node();
+  private int maxParams;
+
+  /**
+   * Constructs a RouteActivityMapper object.
+   *
+   * @param namer returns the history token of a place, typically a
+   *          {@code PlaceHistoryMapper::getToken} reference, or null for
+   *          places that have none
+   */
+  public RouteActivityMapper(PlaceNamer namer) {
+    this.namer = namer;
+  }
+
+  /**
+   * Declares a route. A trailing {@code /} in the pattern is ignored.
+   *
+   * @param pattern the token pattern, e.g. {@code orders/:id}
+   * @param factory creates the activity for matching places
+   * @return this mapper
+   * @throws IllegalArgumentException if the pattern is malformed or already
+   *           declared
+   */
+  public RouteActivityMapper route(String pattern, Factory factory) {
+    String normalized = pattern.endsWith("/")
+        ? pattern.substring(0, pattern.length() - 1) : pattern;
+    List<String> names = new ArrayList<String>();
+    Node node = root;
+    int pos = 0;
+    int length = normalized.length();
+    while (pos < length) {
+      int end = segmentEnd(normalized, pos);
+      if (normalized.charAt(pos) == ':') {
+        if (end == pos + 1) {
+          throw new IllegalArgumentException("Unnamed parameter in " + pattern);
+        }
+        names.add(normalized.substring(pos + 1, end));
+        if (node.param == null) {
+          node.param = new Node();
+        }
+        node = node.param;
+      } else {
+        node = node.addChild(normalized.substring(pos, end));
+      }
+      pos = end + 1;
+    }
+    if (node.route != null) {
+      throw new IllegalArgumentException(pattern + " conflicts with " + node.route.pattern);
+    }
+    node.route = new Route(pattern, names.toArray(new String[names.size()]), factory);
+    maxParams = Math.max(maxParams, names.size());
+    return this;
+  }
+
+  public Activity getActivity(Place place) {
+    String token = namer.getToken(place);
+    if (token == null) {
+      return null;
+    }
+    Match match = new Match(token, maxParams);
+    if (root.route != null) {
+      match.best = root;
+      match.bestEnd = 0;
+    }
+    if (!token.isEmpty()) {
+      match(match, root, 0, 0);
+    }
+    if (match.best == null) {
+      return null;
+    }
+    Route route = match.best.route;
+    int[] offsets = new int[2 * route.names.length];
+    System.arraycopy(match.bestOffsets, 0, offsets, 0, offsets.length);
+    return route.factory.create(place, new Parameters(token, route.names, offsets));
+  }
+
+  /*
+   * Tries the segment of the token starting at pos against the children of
+   * node, literals before the parameter, recursing once per segment. A node
+   * with a route matches once its segments are used up; the match ending
+   * furthest into the token wins, the first one found on a tie.
+   */
+  private void match(Match match, Node node, int pos, int param) {
+    String token = match.token;
+    int end = segmentEnd(token, pos);
+    Node child = node.child(token, pos, end);
+    if (child != null) {
+      consumed(match, child, end, param);
+    }
+    if (node.param != null && end > pos) {
+      match.offsets[2 * param] = pos;
+      match.offsets[2 * param + 1] = end;
+      consumed(match, node.param, end, param + 1);
+    }
+  }
+
+  private void consumed(Match match, Node node, int end, int param) {
+    if (node.route != null && end > match.bestEnd) {
+      match.best = node;
+      match.bestEnd = end;
+      System.arraycopy(match.offsets, 0, match.bestOffsets, 0, 2 * param);
+    }
+    if (end < match.token.length()) {
+      match(match, node, end + 1, param);
+    }
+  }
+
+  private static int segmentEnd(String s, int pos) {
+    int end = s.indexOf('/', pos);
+    return end < 0 ? s.length() : end;
+  }
+}
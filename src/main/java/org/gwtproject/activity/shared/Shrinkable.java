@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+/**
+ * A cache that can give up entries when memory runs low. Register one with a
+ * {@link MemoryPressure}.
+ */
+@FunctionalInterface
+public interface Shrinkable {
+  /**
+   * Drops entries: about half of them for
+   * {@link MemoryPressure.Level#MODERATE}, and all that can be dropped for
+   * {@link MemoryPressure.Level#CRITICAL}.
+   *
+   * @param level how short memory is
+   * @return the number of entries dropped
+   */
+  int shrink(MemoryPressure.Level level);
+}
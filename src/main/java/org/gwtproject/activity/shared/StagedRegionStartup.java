@@ -0,0 +1,347 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.event.shared.UmbrellaException;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.place.shared.PlaceChangeRequestEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Starts the activities of several regions of the page, e.g. the main
+ * content, a sidebar and a footer, in stages rather than all at once, so that
+ * the secondary regions do not compete with the primary one for the network
+ * and the main thread.
+ * <p>
+ * Each region has an {@link ActivityManager} of its own, created by
+ * {@link #addRegion}, and a stage number. On a place change the regions of
+ * the lowest stage, the primary ones, start their activities at once. Each
+ * later stage starts once every region of the stage before it has presented
+ * its widget, or has no new activity to present, or once the deadline has
+ * passed since that stage started, whichever comes first.
+ * <p>
+ * The regions of a later stage are asked for their activities as soon as
+ * the place changes. An activity equal to the one a region is running, e.g.
+ * a sidebar that does not depend on the place, carries on undisturbed.
+ * Otherwise the region stops its activity and clears its display at once,
+ * and starts the new activity with its stage. The next place change cancels
+ * every stage that has not started yet.
+ */
+public class StagedRegionStartup implements PlaceChangeEvent.Handler,
+    PlaceChangeRequestEvent.Handler {
+
+  /**
+   * One region: its manager, and the mapper through which the manager is
+   * kept from starting anything new before the region's stage.
+   */
+  private class Region implements ActivityMapper, ActivityLifecycleListener {
+    final ActivityMapper mapper;
+    final int stage;
+    final ActivityManager manager;
+    boolean open;
+    boolean settled;
+
+    // The last activity handed to the manager, and the one it is running
+    Activity resolved;
+    Activity running;
+    boolean presented;
+
+    // Resolved for a place before the region's stage started
+    Place deferredPlace;
+    Activity deferred;
+
+    Region(ActivityMapper mapper, int stage) {
+      this.mapper = mapper;
+      this.stage = stage;
+      PlaceEventFilter filter = new PlaceEventFilter(eventBus);
+      this.manager = new ActivityManager(this, filter);
+      filter.setFilteredHandler(manager);
+      manager.addLifecycleListener(this);
+    }
+
+    public Activity getActivity(Place place) {
+      Activity activity = open && place.equals(deferredPlace)
+          ? deferred : mapper.getActivity(place);
+      deferredPlace = null;
+      deferred = null;
+      if (!open) {
+        // Kept for the stage, so that the mapper is asked once per place
+        deferredPlace = place;
+        deferred = activity;
+        if (activity != null && !activity.equals(running)) {
+          // Stop the current activity now, and start this one with the stage
+          activity = null;
+        }
+      }
+      resolved = activity;
+      return activity;
+    }
+
+    @Override
+    public void onActivityResolved(Place place, Activity activity) {
+      // The manager ignores an activity equal to the one it is running
+      if (open && (resolved == null || resolved.equals(running) && presented)) {
+        settle();
+      }
+    }
+
+    @Override
+    public void onActivityStart(Activity activity) {
+      running = resolved;
+      presented = false;
+    }
+
+    @Override
+    public void onActivityPresented(Activity activity) {
+      presented = true;
+      if (open) {
+        settle();
+      }
+    }
+
+    @Override
+    public void onActivityStop(Activity activity) {
+      running = null;
+    }
+
+    @Override
+    public void onActivityCancel(Activity activity) {
+      running = null;
+    }
+
+    private void settle() {
+      if (!settled) {
+        settled = true;
+        onSettled(this);
+      }
+    }
+  }
+
+  private final EventBus eventBus;
+
+  private final TaskScheduler scheduler;
+
+  private final int deadlineMillis;
+
+  // Sorted by stage, in the order added within a stage
+  private final List<Region> regions = new ArrayList<Region>();
+
+  private PlaceChangeEvent currentEvent;
+
+  // Index of the first region of the stage that started last
+  private int stageStart;
+
+  // Index of the first region of the stage after it
+  private int stageEnd;
+
+  private int unsettled;
+
+  private TaskScheduler.Task scheduled;
+
+  private HandlerRegistration handlerRegistration;
+
+  /**
+   * Create a StagedRegionStartup. Next add its regions, and call
+   * {@link #setActive}.
+   *
+   * @param eventBus source of {@link PlaceChangeEvent} and
+   *          {@link PlaceChangeRequestEvent} events.
+   * @param scheduler starts the later stages
+   * @param deadlineMillis how long to wait for a stage to present before the
+   *          next one starts anyway
+   */
+  public StagedRegionStartup(EventBus eventBus, TaskScheduler scheduler, int deadlineMillis) {
+    if (deadlineMillis < 0) {
+      throw new IllegalArgumentException("deadlineMillis must not be negative");
+    }
+    this.eventBus = eventBus;
+    this.scheduler = scheduler;
+    this.deadlineMillis = deadlineMillis;
+  }
+
+  /**
+   * Adds a region. Its manager already has the given display, and must not be
+   * given another one; place changes reach it through this object only.
+   *
+   * @param mapper finds the {@link Activity} for the region
+   * @param display where the region's activities show their widgets
+   * @param stage when the region starts; lower stages start first
+   * @return the region's manager, e.g. to add listeners to
+   */
+  public ActivityManager addRegion(ActivityMapper mapper, AcceptsOneWidget display, int stage) {
+    Region region = new Region(mapper, stage);
+    int index = regions.size();
+    while (index > 0 && regions.get(index - 1).stage > stage) {
+      index--;
+    }
+    regions.add(index, region);
+    region.manager.setDisplay(display);
+    return region.manager;
+  }
+
+  /**
+   * Returns the number of regions that have yet to start their activities
+   * for the current place.
+   */
+  public int getPendingCount() {
+    return currentEvent == null ? 0 : regions.size() - stageEnd;
+  }
+
+  /**
+   * Stops every region's current activity, then starts the first stage for
+   * the new place.
+   */
+  public void onPlaceChange(PlaceChangeEvent event) {
+    cancelScheduled();
+    currentEvent = event;
+    stageStart = 0;
+    stageEnd = 0;
+
+    Set<Throwable> causes = new LinkedHashSet<Throwable>();
+    int firstStage = regions.isEmpty() ? 0 : regions.get(0).stage;
+    for (Region region : regions) {
+      region.open = false;
+      if (region.stage != firstStage) {
+        forward(region, event, causes);
+      }
+    }
+    startStage(causes);
+    throwIfAny(causes);
+  }
+
+  /**
+   * Rejects the place change if any region's current activity is not willing
+   * to stop, with the first warning given.
+   */
+  public void onPlaceChangeRequest(PlaceChangeRequestEvent event) {
+    for (Region region : regions) {
+      PlaceChangeRequestEvent probe = new PlaceChangeRequestEvent(event.getNewPlace());
+      region.manager.onPlaceChangeRequest(probe);
+      if (probe.getWarning() != null) {
+        event.setWarning(probe.getWarning());
+        return;
+      }
+    }
+  }
+
+  /**
+   * Starts or stops monitoring the event bus for place change events.
+   * Stopping also cancels the stages that have not started yet.
+   *
+   * @param active whether to monitor the event bus
+   */
+  public void setActive(boolean active) {
+    if (active && handlerRegistration == null) {
+      final HandlerRegistration placeReg = eventBus.addHandler(PlaceChangeEvent.TYPE, this);
+      final HandlerRegistration placeRequestReg =
+          eventBus.addHandler(PlaceChangeRequestEvent.TYPE, this);
+
+      this.handlerRegistration = new HandlerRegistration() {
+        public void removeHandler() {
+          placeReg.removeHandler();
+          placeRequestReg.removeHandler();
+        }
+      };
+    } else if (!active && handlerRegistration != null) {
+      handlerRegistration.removeHandler();
+      handlerRegistration = null;
+      cancelScheduled();
+      stageEnd = regions.size();
+    }
+  }
+
+  private void cancelScheduled() {
+    if (scheduled != null) {
+      scheduled.cancel();
+      scheduled = null;
+    }
+  }
+
+  private void forward(Region region, PlaceChangeEvent event, Set<Throwable> causes) {
+    try {
+      region.manager.onPlaceChange(event);
+    } catch (UmbrellaException e) {
+      causes.addAll(e.getCauses());
+    } catch (Throwable t) {
+      causes.add(t);
+    }
+  }
+
+  private void onSettled(Region region) {
+    if (region.stage == regions.get(stageStart).stage && --unsettled == 0) {
+      scheduleNextStage(0);
+    }
+  }
+
+  private void scheduleNextStage(int delayMillis) {
+    cancelScheduled();
+    if (stageEnd == regions.size()) {
+      return;
+    }
+    final PlaceChangeEvent event = currentEvent;
+    scheduled = scheduler.scheduleDelayed(new Runnable() {
+      public void run() {
+        if (event != currentEvent) {
+          return;
+        }
+        scheduled = null;
+        Set<Throwable> causes = new LinkedHashSet<Throwable>();
+        startStage(causes);
+        throwIfAny(causes);
+      }
+    }, delayMillis);
+  }
+
+  private void startStage(Set<Throwable> causes) {
+    if (stageEnd == regions.size()) {
+      return;
+    }
+    stageStart = stageEnd;
+    int stage = regions.get(stageStart).stage;
+    while (stageEnd < regions.size() && regions.get(stageEnd).stage == stage) {
+      stageEnd++;
+    }
+    unsettled = stageEnd - stageStart;
+    for (int i = stageStart; i < stageEnd; i++) {
+      Region region = regions.get(i);
+      region.open = true;
+      region.settled = false;
+    }
+
+    // The first presentation may schedule the next stage already
+    PlaceChangeEvent event = currentEvent;
+    for (int i = stageStart; i < stageEnd && event == currentEvent; i++) {
+      forward(regions.get(i), event, causes);
+    }
+    if (event == currentEvent && unsettled > 0) {
+      scheduleNextStage(deadlineMillis);
+    }
+  }
+
+  private static void throwIfAny(Set<Throwable> causes) {
+    if (!causes.isEmpty()) {
+      throw new UmbrellaException(causes);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+/**
+ * An {@link Activity} that can hand compact state, such as a scroll position,
+ * the page of data it loaded or a form draft, to its next start for the same
+ * place, so that it can render again without a round trip.
+ * <p>
+ * When its {@link ActivityManager} has an {@link ActivityStateStore}, the
+ * manager calls {@link #saveState} before taking the activity's view down and
+ * stopping it, and keeps the result keyed by the activity's place. When an
+ * activity is next started for an equal place, the state is taken out of the
+ * store and passed to {@link #restoreState} just before {@link #start}.
+ * Stored state may be evicted at any time, so activities must always be able
+ * to start without it.
+ *
+ * @param <S> the type of the saved state
+ */
+public interface StatefulActivity<S> extends Activity {
+
+  /**
+   * Restores state saved by an earlier run for the same place. Called before
+   * {@link #start}, and only if such state is available.
+   *
+   * @param state the state returned by an earlier {@link #saveState}
+   */
+  void restoreState(S state);
+
+  /**
+   * Returns the state to keep for the next start for the same place, or null
+   * to keep nothing. Called while the activity's view is still shown and its
+   * handlers are registered, before {@link #onStop}, but not when the activity
+   * is canceled.
+   */
+  S saveState();
+}
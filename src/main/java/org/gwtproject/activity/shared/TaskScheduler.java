@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+/**
+ * Runs tasks later, at a time of the implementation's choosing. Lets
+ * activity infrastructure defer work without depending on a particular
+ * browser or JVM scheduling mechanism, and run against a fake in JRE tests.
+ */
+public interface TaskScheduler {
+
+  /**
+   * A scheduled task.
+   */
+  interface Task {
+    /**
+     * Prevents the task from running, if it has not run yet.
+     */
+    void cancel();
+  }
+
+  /**
+   * Runs the given task once the application is idle, e.g. from a
+   * {@code requestIdleCallback} in the browser.
+   *
+   * @param task the task to run
+   * @return a handle to cancel the task
+   */
+  Task scheduleIdle(Runnable task);
+
+  /**
+   * Runs the given task once the given delay has elapsed, e.g. from a
+   * {@code setTimeout} in the browser. A delay of 0 yields to the browser, so
+   * that it can render before the task runs.
+   * <p>
+   * By default the task is run once the application is idle instead, which
+   * suits schedulers that have no timer.
+   *
+   * @param task the task to run
+   * @param delayMillis the minimum delay, in milliseconds
+   * @return a handle to cancel the task
+   */
+  default Task scheduleDelayed(Runnable task, int delayMillis) {
+    return scheduleIdle(task);
+  }
+}
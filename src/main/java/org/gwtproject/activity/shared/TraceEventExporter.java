@@ -0,0 +1,299 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Records what one or more {@link ActivityManager}s do in the Chrome
+ * trace-event format, so that navigations can be examined in
+ * {@code chrome://tracing}, Perfetto or any other tool that reads it.
+ * <p>
+ * Each manager gets a track of its own from {@link #track}, shown as a
+ * thread. On it, {@link Activity#start}, {@link Activity#mayStop},
+ * {@link Activity#onStop} and {@link Activity#onCancel} are spans, which nest
+ * when one manager's calls happen inside another's; mapper resolutions are
+ * spans from the place change; and the time from an activity's start until
+ * it presents its widget or is canceled is an asynchronous span, which may
+ * overlap others.
+ * <p>
+ * Events are kept in memory, up to a limit beyond which they are dropped,
+ * until {@link #clear} is called. Use {@link #toJson} to get them, e.g. to
+ * save them to a file.
+ */
+public class TraceEventExporter {
+
+  /**
+   * The default limit on the number of events kept.
+   */
+  public static final int DEFAULT_MAX_EVENTS = 100000;
+
+  private static final String CATEGORY = "activity";
+
+  /**
+   * The listener for one manager's track.
+   */
+  private class Track implements ActivityLifecycleListener {
+    private final int tid;
+    private final Map<Activity, Integer> presenting = new IdentityHashMap<Activity, Integer>();
+    private double resolveBegin = Double.NaN;
+
+    Track(int tid) {
+      this.tid = tid;
+    }
+
+    @Override
+    public void onPlaceChange(Place place) {
+      double now = clock.now();
+      StringBuilder event = begin("place change", "i", now);
+      event.append(",\"s\":\"t\",\"args\":{\"place\":");
+      quote(event, namer.getToken(place));
+      end(event.append('}'));
+      resolveBegin = now;
+    }
+
+    @Override
+    public void onActivityResolved(Place place, Activity activity) {
+      // Further resolutions for deeper levels start where this one ends
+      double now = clock.now();
+      double from = Double.isNaN(resolveBegin) ? now : resolveBegin;
+      StringBuilder event = begin("resolve", "X", from);
+      event.append(",\"dur\":").append(micros(now) - micros(from));
+      event.append(",\"args\":{\"place\":");
+      quote(event, namer.getToken(place));
+      event.append(",\"activity\":");
+      quote(event, activity == null ? null : typeOf(activity));
+      end(event.append('}'));
+      resolveBegin = now;
+    }
+
+    @Override
+    public void onActivityStart(Activity activity) {
+      resolveBegin = Double.NaN;
+      double now = clock.now();
+      end(begin("start " + typeOf(activity), "B", now));
+      int id = ++asyncIds;
+      presenting.put(activity, id);
+      end(begin("present " + typeOf(activity), "b", now).append(",\"id\":").append(id));
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+      end(begin("start " + typeOf(activity), "E", clock.now()));
+    }
+
+    @Override
+    public void onActivityInterimPresented(Activity activity) {
+      Integer id = presenting.get(activity);
+      if (id != null) {
+        end(begin("interim", "n", clock.now()).append(",\"id\":").append(id));
+      }
+    }
+
+    @Override
+    public void onActivityPresented(Activity activity) {
+      endPresenting(activity, false);
+    }
+
+    @Override
+    public void onActivityStop(Activity activity) {
+      end(begin("onStop " + typeOf(activity), "B", clock.now()));
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+      end(begin("onStop " + typeOf(activity), "E", clock.now()));
+    }
+
+    @Override
+    public void onActivityCancel(Activity activity) {
+      end(begin("onCancel " + typeOf(activity), "B", clock.now()));
+    }
+
+    @Override
+    public void onActivityCanceled(Activity activity) {
+      end(begin("onCancel " + typeOf(activity), "E", clock.now()));
+      endPresenting(activity, true);
+    }
+
+    @Override
+    public void onActivityMayStop(Activity activity) {
+      end(begin("mayStop " + typeOf(activity), "B", clock.now()));
+    }
+
+    @Override
+    public void onActivityMayStopAnswered(Activity activity, String warning) {
+      StringBuilder event = begin("mayStop " + typeOf(activity), "E", clock.now());
+      event.append(",\"args\":{\"warning\":");
+      quote(event, warning);
+      end(event.append('}'));
+    }
+
+    private StringBuilder begin(String name, String phase, double time) {
+      return event(name, phase, tid, time);
+    }
+
+    private void endPresenting(Activity activity, boolean canceled) {
+      Integer id = presenting.remove(activity);
+      if (id != null) {
+        StringBuilder event = begin("present " + typeOf(activity), "e", clock.now());
+        event.append(",\"id\":").append(id);
+        if (canceled) {
+          event.append(",\"args\":{\"canceled\":true}");
+        }
+        end(event);
+      }
+    }
+  }
+
+  private final PlaceNamer namer;
+  private final Clock clock;
+  private final int maxEvents;
+
+  private StringBuilder events = new StringBuilder();
+  private int eventCount;
+  private int droppedCount;
+  private int trackCount;
+  private int asyncIds;
+  private double startTime = Double.NaN;
+
+  /**
+   * Creates an exporter timed by {@link Clock#SYSTEM}, which keeps up to
+   * {@value #DEFAULT_MAX_EVENTS} events.
+   *
+   * @param namer turns places into the tokens shown with place changes
+   */
+  public TraceEventExporter(PlaceNamer namer) {
+    this(namer, Clock.SYSTEM, DEFAULT_MAX_EVENTS);
+  }
+
+  /**
+   * Creates an exporter.
+   *
+   * @param namer turns places into the tokens shown with place changes
+   * @param clock times the events
+   * @param maxEvents how many events to keep at most
+   */
+  public TraceEventExporter(PlaceNamer namer, Clock clock,
+      int maxEvents) {
+    this.namer = namer;
+    this.clock = clock;
+    this.maxEvents = maxEvents;
+  }
+
+  /**
+   * Discards the events recorded so far. Tracks stay valid, but spans open
+   * at that point lose their beginning.
+   */
+  public void clear() {
+    events = new StringBuilder();
+    eventCount = 0;
+    droppedCount = 0;
+    startTime = Double.NaN;
+  }
+
+  /**
+   * Returns the number of events dropped because the limit was reached.
+   */
+  public int getDroppedCount() {
+    return droppedCount;
+  }
+
+  /**
+   * Returns the number of events kept.
+   */
+  public int getEventCount() {
+    return eventCount;
+  }
+
+  /**
+   * Returns the events kept as a trace-event JSON object.
+   */
+  public String toJson() {
+    return "{\"traceEvents\":[" + events + "],\"displayTimeUnit\":\"ms\"}";
+  }
+
+  /**
+   * Creates a track for one manager. Register the result with the manager's
+   * {@code addLifecycleListener}.
+   *
+   * @param name the track's name, e.g. the region the manager is for
+   * @return the listener recording the track
+   */
+  public ActivityLifecycleListener track(String name) {
+    int tid = ++trackCount;
+    StringBuilder event = new StringBuilder("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1");
+    event.append(",\"tid\":").append(tid).append(",\"args\":{\"name\":");
+    quote(event, name);
+    end(event.append('}'));
+    return new Track(tid);
+  }
+
+  private StringBuilder event(String name, String phase, int tid, double time) {
+    StringBuilder event = new StringBuilder("{\"name\":");
+    quote(event, name);
+    event.append(",\"cat\":\"").append(CATEGORY).append("\",\"ph\":\"").append(phase);
+    event.append("\",\"pid\":1,\"tid\":").append(tid);
+    event.append(",\"ts\":").append(micros(time));
+    return event;
+  }
+
+  private void end(StringBuilder event) {
+    if (eventCount >= maxEvents) {
+      droppedCount++;
+      return;
+    }
+    if (eventCount++ > 0) {
+      events.append(",\n");
+    }
+    events.append(event).append('}');
+  }
+
+  private long micros(double time) {
+    if (Double.isNaN(startTime)) {
+      startTime = time;
+    }
+    return Math.round((time - startTime) * 1000);
+  }
+
+  private static void quote(StringBuilder out, String value) {
+    if (value == null) {
+      out.append("null");
+      return;
+    }
+    out.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        out.append('\\').append(c);
+      } else if (c < 0x20) {
+        String hex = Integer.toHexString(c);
+        out.append("\\u00").append(hex.length() == 1 ? "0" : "").append(hex);
+      } else {
+        out.append(c);
+      }
+    }
+    out.append('"');
+  }
+
+  private static String typeOf(Activity activity) {
+    String name = activity.getClass().getName();
+    return name.substring(name.lastIndexOf('.') + 1);
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.user.client.ui.IsWidget;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps views of released activities for reuse by the next activity needing
+ * a view of the same class, so that building widgets and their DOM drops out
+ * of navigation.
+ * <p>
+ * Activities take their views from the pool with
+ * {@link #get(Activity, Class, Supplier)}, naming themselves as the owner.
+ * Give the same pool to the {@link ActivityManager} with
+ * {@link ActivityManager#setViewPool}, and it will {@link #release} the views
+ * an activity showed once the activity has stopped, or been canceled, and the
+ * views have been detached, and {@link #discard} the ones it took but never
+ * showed. An activity must not hold on to a pooled view after it stops.
+ * Views implementing {@link Poolable} are reset before they are reused;
+ * others are reused as they are.
+ * <p>
+ * Each view class has a cap on the number of idle views kept, see
+ * {@link #setCap}; released views beyond it are dropped.
+ */
+public class ViewPool implements Shrinkable {
+
+  /**
+   * Implemented by pooled views that must be cleared before reuse.
+   */
+  public interface Poolable {
+    /**
+     * Returns the view to the state of a newly built one.
+     */
+    void reset();
+  }
+
+  private static class Slot {
+    final List<IsWidget> idle = new ArrayList<IsWidget>();
+    int cap;
+    int hits;
+    int misses;
+
+    Slot(int cap) {
+      this.cap = cap;
+    }
+  }
+
+  private final int defaultCap;
+  private final Map<Class<?>, Slot> slots = new HashMap<Class<?>, Slot>();
+
+  /**
+   * A view handed out: the slot it goes back to, and the activity it was
+   * lent to, if any.
+   */
+  private static class Lease {
+    final Slot slot;
+    final Activity owner;
+
+    Lease(Slot slot, Activity owner) {
+      this.slot = slot;
+      this.owner = owner;
+    }
+  }
+
+  // Views handed out and not yet released
+  private final Map<IsWidget, Lease> lent = new IdentityHashMap<IsWidget, Lease>();
+
+  // The same views, by the activity they were lent to
+  private final Map<Activity, List<IsWidget>> owned =
+      new IdentityHashMap<Activity, List<IsWidget>>();
+
+  private int hits;
+  private int misses;
+
+  /**
+   * Creates a pool.
+   *
+   * @param defaultCap the number of idle views to keep for classes without a
+   *          cap of their own
+   */
+  public ViewPool(int defaultCap) {
+    this.defaultCap = defaultCap;
+  }
+
+  /**
+   * Sets the number of idle views of the given class to keep, dropping any
+   * beyond it.
+   *
+   * @param type a view class, as passed to {@link #get}
+   * @param cap the number of views to keep, 0 to not pool the class
+   * @return this pool
+   */
+  public ViewPool setCap(Class<? extends IsWidget> type, int cap) {
+    Slot slot = slot(type);
+    slot.cap = cap;
+    trim(slot, cap);
+    return this;
+  }
+
+  /**
+   * Returns an idle view of the given class, or a new one, without an owner.
+   * The pool keeps track of the view until it is released, so prefer
+   * {@link #get(Activity, Class, Supplier)} in activities.
+   *
+   * @param type the view class
+   * @param factory builds a view when there is no idle one
+   * @return a view, to be released once no longer used
+   */
+  public <V extends IsWidget> V get(Class<V> type, Supplier<? extends V> factory) {
+    return get(null, type, factory);
+  }
+
+  /**
+   * Returns an idle view of the given class, or a new one, lent to the given
+   * activity until it is released or the activity is discarded.
+   *
+   * @param owner the activity taking the view, or null
+   * @param type the view class
+   * @param factory builds a view when there is no idle one
+   * @return a view, to be released when the activity stops
+   */
+  @SuppressWarnings("unchecked")
+  public <V extends IsWidget> V get(Activity owner, Class<V> type,
+      Supplier<? extends V> factory) {
+    Slot slot = slot(type);
+    V view;
+    int idle = slot.idle.size();
+    if (idle > 0) {
+      view = (V) slot.idle.remove(idle - 1);
+      slot.hits++;
+      hits++;
+    } else {
+      view = factory.get();
+      slot.misses++;
+      misses++;
+    }
+    lent.put(view, new Lease(slot, owner));
+    if (owner != null) {
+      List<IsWidget> views = owned.get(owner);
+      if (views == null) {
+        views = new ArrayList<IsWidget>(2);
+        owned.put(owner, views);
+      }
+      views.add(view);
+    }
+    return view;
+  }
+
+  /**
+   * Returns a view to the pool. Views that did not come from {@link #get}, or
+   * were already released, are ignored.
+   *
+   * @param view the view, no longer attached or used
+   * @return whether the view was kept for reuse
+   */
+  public boolean release(IsWidget view) {
+    Lease lease = lent.remove(view);
+    if (lease == null) {
+      return false;
+    }
+    if (lease.owner != null) {
+      List<IsWidget> views = owned.get(lease.owner);
+      views.remove(view);
+      if (views.isEmpty()) {
+        owned.remove(lease.owner);
+      }
+    }
+    Slot slot = lease.slot;
+    if (slot.idle.size() >= slot.cap) {
+      return false;
+    }
+    if (view instanceof Poolable) {
+      ((Poolable) view).reset();
+    }
+    slot.idle.add(view);
+    return true;
+  }
+
+  /**
+   * Forgets the views lent to the given activity and not released, e.g.
+   * built but never shown, without keeping them for reuse.
+   *
+   * @param owner the activity that stopped or was canceled
+   * @return the number of views forgotten
+   */
+  public int discard(Activity owner) {
+    List<IsWidget> views = owned.remove(owner);
+    if (views == null) {
+      return 0;
+    }
+    for (IsWidget view : views) {
+      lent.remove(view);
+    }
+    return views.size();
+  }
+
+  /**
+   * Returns the number of views handed out and not yet released or
+   * discarded.
+   */
+  public int getLentCount() {
+    return lent.size();
+  }
+
+  /**
+   * Drops all idle views.
+   */
+  public void clear() {
+    for (Slot slot : slots.values()) {
+      slot.idle.clear();
+    }
+  }
+
+  /**
+   * Returns the number of idle views of the given class.
+   */
+  public int getIdleCount(Class<? extends IsWidget> type) {
+    Slot slot = slots.get(type);
+    return slot == null ? 0 : slot.idle.size();
+  }
+
+  /**
+   * Returns how many views of the given class were reused.
+   */
+  public int getHitCount(Class<? extends IsWidget> type) {
+    Slot slot = slots.get(type);
+    return slot == null ? 0 : slot.hits;
+  }
+
+  /**
+   * Returns how many views of the given class had to be built.
+   */
+  public int getMissCount(Class<? extends IsWidget> type) {
+    Slot slot = slots.get(type);
+    return slot == null ? 0 : slot.misses;
+  }
+
+  /**
+   * Returns the fraction of {@link #get} calls answered with an idle view, or
+   * 0 before the first one.
+   */
+  public double getHitRate() {
+    int total = hits + misses;
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  private Slot slot(Class<?> type) {
+    Slot slot = slots.get(type);
+    if (slot == null) {
+      slot = new Slot(defaultCap);
+      slots.put(type, slot);
+    }
+    return slot;
+  }
+
+  private static void trim(Slot slot, int size) {
+    while (slot.idle.size() > size) {
+      slot.idle.remove(slot.idle.size() - 1);
+    }
+  }
+
+  /**
+   * Drops half the idle views of each class, or all of them under critical
+   * pressure.
+   */
+  public int shrink(MemoryPressure.Level level) {
+    int dropped = 0;
+    for (Slot slot : slots.values()) {
+      int size = slot.idle.size();
+      int keep = level == MemoryPressure.Level.CRITICAL ? 0 : size / 2;
+      trim(slot, keep);
+      dropped += size - keep;
+    }
+    return dropped;
+  }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import org.gwtproject.activity.shared.Activity;
+import org.gwtproject.activity.shared.ActivityLifecycleListener;
+import org.gwtproject.activity.shared.ActivityManager;
+import org.gwtproject.activity.shared.ActivityMapper;
+import org.gwtproject.activity.shared.ActivityStateStore;
+import org.gwtproject.activity.shared.DataPrefetcher;
+import org.gwtproject.activity.shared.DelegatingActivity;
+import org.gwtproject.activity.shared.PlaceEventFilter;
+import org.gwtproject.activity.shared.ProgressiveDisplay;
+import org.gwtproject.activity.shared.RequestBatcher;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.place.shared.PlaceChangeRequestEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * An {@link ActivityManager} for event sources on several threads, as found
+ * on desktop and Android ports: place changes may be fired, and activities
+ * may present their widgets, from any thread.
+ * <p>
+ * All work is confined to one logical thread: it is queued, and drained in
+ * order by a single task at a time on the given executor, typically the UI
+ * thread's. The drain is a small state machine moved on with compare-and-set,
+ * so enqueueing never blocks or takes a lock; if the executor is a pool, the
+ * drain still only ever runs on one of its threads at a time. The wrapped
+ * {@link ActivityManager}, the activities' {@link Activity#start},
+ * {@link Activity#onStop} and {@link Activity#onCancel} methods, and the
+ * display all only run on the drain.
+ * <p>
+ * {@link PlaceChangeRequestEvent} has to be answered synchronously, so
+ * {@link Activity#mayStop} is called on the thread firing it, for the latest
+ * activity started. It must be safe to call from that thread.
+ */
+public class ConcurrentActivityManager
+    implements PlaceChangeEvent.Handler, PlaceChangeRequestEvent.Handler {
+
+  /*
+   * Drain states. A task enqueued while IDLE moves the drain to SCHEDULED and
+   * submits it; the drain is RUNNING while it polls the queue, and goes back
+   * to IDLE once the queue looks empty, rescheduling itself if a task slipped
+   * in meanwhile.
+   */
+  private static final int IDLE = 0;
+  private static final int SCHEDULED = 1;
+  private static final int RUNNING = 2;
+
+  /**
+   * Lets the activity run on any thread, and moves its widget onto the drain.
+   * As a {@link DelegatingActivity}, it leaves listeners, and the optional
+   * activity interfaces, to the activity it wraps.
+   */
+  private class MarshallingActivity implements DelegatingActivity {
+    private final Activity wrapped;
+
+    MarshallingActivity(Activity wrapped) {
+      this.wrapped = wrapped;
+    }
+
+    public Activity getDelegate() {
+      return wrapped;
+    }
+
+    public String mayStop() {
+      return wrapped.mayStop();
+    }
+
+    public void onCancel() {
+      wrapped.onCancel();
+    }
+
+    public void onStop() {
+      wrapped.onStop();
+    }
+
+    public void start(final AcceptsOneWidget panel, EventBus eventBus) {
+      wrapped.start(new ProgressiveDisplay() {
+        public void setInterimWidget(final IsWidget interim) {
+          if (panel instanceof ProgressiveDisplay) {
+            runOnDrain(new Runnable() {
+              public void run() {
+                ((ProgressiveDisplay) panel).setInterimWidget(interim);
+              }
+            });
+          }
+        }
+
+        public void setWidget(final IsWidget w) {
+          runOnDrain(new Runnable() {
+            public void run() {
+              panel.setWidget(w);
+            }
+          });
+        }
+      }, eventBus);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      // Keep the manager's check for an unchanged activity working
+      return obj instanceof MarshallingActivity
+          && wrapped.equals(((MarshallingActivity) obj).wrapped);
+    }
+
+    @Override
+    public int hashCode() {
+      return wrapped.hashCode();
+    }
+  }
+
+  private final EventBus eventBus;
+  private final Executor executor;
+  private final ActivityManager manager;
+
+  private final Queue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>();
+  private final AtomicInteger state = new AtomicInteger(IDLE);
+  private final Runnable drain = new Runnable() {
+    public void run() {
+      drain();
+    }
+  };
+
+  private volatile Thread drainThread;
+  private volatile Activity current;
+  private volatile Consumer<? super Throwable> exceptionHandler;
+  private final AtomicReference<HandlerRegistration> handlerRegistration =
+      new AtomicReference<HandlerRegistration>();
+
+  /**
+   * Create a ConcurrentActivityManager. Next call {@link #setDisplay}.
+   *
+   * @param mapper finds the {@link Activity} for a given {@link Place}, called
+   *          on the drain
+   * @param eventBus source of {@link PlaceChangeEvent} and
+   *          {@link PlaceChangeRequestEvent} events
+   * @param executor runs the drain, typically on the UI thread
+   */
+  public ConcurrentActivityManager(final ActivityMapper mapper, EventBus eventBus,
+      Executor executor) {
+    this.eventBus = eventBus;
+    this.executor = executor;
+    PlaceEventFilter filter = new PlaceEventFilter(eventBus);
+    this.manager = new ActivityManager(new ActivityMapper() {
+      public Activity getActivity(Place place) {
+        Activity activity = mapper.getActivity(place);
+        return activity == null ? null : new MarshallingActivity(activity);
+      }
+    }, filter);
+    filter.setFilteredHandler(manager);
+    manager.addLifecycleListener(new ActivityLifecycleListener() {
+      @Override
+      public void onActivityStart(Activity activity) {
+        current = activity;
+      }
+
+      @Override
+      public void onActivityStop(Activity activity) {
+        current = null;
+      }
+
+      @Override
+      public void onActivityCancel(Activity activity) {
+        current = null;
+      }
+    });
+  }
+
+  /**
+   * Adds a listener to the wrapped manager. It is called on the drain, with
+   * the activities returned by the mapper.
+   *
+   * @param listener the listener to add
+   * @return a registration that removes the listener
+   */
+  public HandlerRegistration addLifecycleListener(ActivityLifecycleListener listener) {
+    return manager.addLifecycleListener(listener);
+  }
+
+  /**
+   * Returns whether the calling thread is the one currently running the drain.
+   */
+  public boolean isDraining() {
+    return drainThread == Thread.currentThread();
+  }
+
+  /**
+   * Queues the given task to run on the drain, after all work queued so far.
+   *
+   * @param task the task to run
+   */
+  public void enqueue(Runnable task) {
+    queue.add(task);
+    if (state.compareAndSet(IDLE, SCHEDULED)) {
+      executor.execute(drain);
+    }
+  }
+
+  /**
+   * Queues the place change for the drain.
+   */
+  public void onPlaceChange(final PlaceChangeEvent event) {
+    enqueue(new Runnable() {
+      public void run() {
+        manager.onPlaceChange(event);
+      }
+    });
+  }
+
+  /**
+   * Reject the place change if the latest activity started is not willing to
+   * stop.
+   */
+  public void onPlaceChangeRequest(PlaceChangeRequestEvent event) {
+    Activity activity = current;
+    if (activity != null) {
+      event.setWarning(activity.mayStop());
+    }
+  }
+
+  /**
+   * Sets the display, which will only be called on the drain, and starts or
+   * stops monitoring the event bus for place change events. Call
+   * setDisplay(null) to dispose of the manager.
+   *
+   * @param display an instance of AcceptsOneWidget, or null
+   */
+  public void setDisplay(final AcceptsOneWidget display) {
+    if (display == null) {
+      HandlerRegistration registration = handlerRegistration.getAndSet(null);
+      if (registration != null) {
+        registration.removeHandler();
+      }
+    }
+    enqueue(new Runnable() {
+      public void run() {
+        manager.setDisplay(display);
+      }
+    });
+    if (display != null && handlerRegistration.get() == null) {
+      final HandlerRegistration placeReg = eventBus.addHandler(PlaceChangeEvent.TYPE, this);
+      final HandlerRegistration placeRequestReg =
+          eventBus.addHandler(PlaceChangeRequestEvent.TYPE, this);
+      HandlerRegistration registration = new HandlerRegistration() {
+        public void removeHandler() {
+          placeReg.removeHandler();
+          placeRequestReg.removeHandler();
+        }
+      };
+      if (!handlerRegistration.compareAndSet(null, registration)) {
+        // Lost a race with another setDisplay
+        registration.removeHandler();
+      }
+    }
+  }
+
+  /**
+   * Sets the prefetcher that loads the data of each
+   * {@link org.gwtproject.activity.shared.DataRequiringActivity}, on the
+   * drain.
+   *
+   * @param dataPrefetcher the prefetcher, or null for none
+   */
+  public void setDataPrefetcher(final DataPrefetcher dataPrefetcher) {
+    enqueue(new Runnable() {
+      public void run() {
+        manager.setDataPrefetcher(dataPrefetcher);
+      }
+    });
+  }
+
+  /**
+   * Sets the batcher through which each
+   * {@link org.gwtproject.activity.shared.RequestingActivity} sends its
+   * requests, on the drain.
+   *
+   * @param requestBatcher the batcher, or null for none
+   */
+  public void setRequestBatcher(final RequestBatcher requestBatcher) {
+    enqueue(new Runnable() {
+      public void run() {
+        manager.setRequestBatcher(requestBatcher);
+      }
+    });
+  }
+
+  /**
+   * Sets the store in which each
+   * {@link org.gwtproject.activity.shared.StatefulActivity} keeps its state,
+   * on the drain.
+   *
+   * @param stateStore the store, or null for none
+   */
+  public void setStateStore(final ActivityStateStore stateStore) {
+    enqueue(new Runnable() {
+      public void run() {
+        manager.setStateStore(stateStore);
+      }
+    });
+  }
+
+  /**
+   * Sets what to do with exceptions thrown on the drain, e.g. the
+   * {@link org.gwtproject.event.shared.UmbrellaException} of a failed place
+   * change. By default they are passed to the draining thread's uncaught
+   * exception handler; the drain carries on either way.
+   *
+   * @param handler the handler, or null for the default
+   */
+  public void setExceptionHandler(Consumer<? super Throwable> handler) {
+    this.exceptionHandler = handler;
+  }
+
+  private void drain() {
+    state.set(RUNNING);
+    drainThread = Thread.currentThread();
+    try {
+      Runnable task;
+      while ((task = queue.poll()) != null) {
+        try {
+          task.run();
+        } catch (Throwable t) {
+          handle(t);
+        }
+      }
+    } finally {
+      drainThread = null;
+      state.set(IDLE);
+      if (!queue.isEmpty() && state.compareAndSet(IDLE, SCHEDULED)) {
+        executor.execute(drain);
+      }
+    }
+  }
+
+  private void runOnDrain(Runnable task) {
+    if (isDraining()) {
+      task.run();
+    } else {
+      enqueue(task);
+    }
+  }
+
+  private void handle(Throwable t) {
+    Consumer<? super Throwable> handler = exceptionHandler;
+    if (handler != null) {
+      handler.accept(t);
+    } else {
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import org.gwtproject.activity.shared.MemoryPressure;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+/**
+ * Feeds a {@link MemoryPressure} from the JVM's heap memory pools: when a
+ * pool is still fuller than a threshold after a garbage collection, the
+ * caches are asked to shrink.
+ * <p>
+ * Usage is checked against two fractions of each pool's maximum size, one
+ * for {@link MemoryPressure.Level#MODERATE} and one for
+ * {@link MemoryPressure.Level#CRITICAL} pressure. JMX notifications arrive on
+ * a JVM thread, so the signal is passed to the executor the caches are used
+ * on, e.g. {@link ConcurrentActivityManager#enqueue}.
+ * <p>
+ * Note that collection usage thresholds are shared by all code in the JVM;
+ * {@link #start} sets them, and {@link #stop} clears them.
+ */
+public class MemoryPoolPressureSource {
+
+  private final MemoryPressure pressure;
+  private final Executor executor;
+  private final double moderate;
+  private final double critical;
+  private final List<MemoryPoolMXBean> pools = new ArrayList<MemoryPoolMXBean>();
+
+  private final NotificationListener listener = new NotificationListener() {
+    public void handleNotification(Notification notification, Object handback) {
+      if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(
+          notification.getType())) {
+        executor.execute(new Runnable() {
+          public void run() {
+            check();
+          }
+        });
+      }
+    }
+  };
+
+  private boolean started;
+
+  /**
+   * Constructs a MemoryPoolPressureSource object.
+   *
+   * @param pressure the pressure to signal
+   * @param executor runs the signal where the caches are used
+   * @param moderate the fraction of a pool's maximum size in use after a
+   *          collection that means moderate pressure, e.g. 0.75
+   * @param critical the fraction that means critical pressure, e.g. 0.9
+   */
+  public MemoryPoolPressureSource(MemoryPressure pressure, Executor executor, double moderate,
+      double critical) {
+    if (moderate > critical) {
+      throw new IllegalArgumentException("moderate " + moderate + " > critical " + critical);
+    }
+    this.pressure = pressure;
+    this.executor = executor;
+    this.moderate = moderate;
+    this.critical = critical;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()
+          && pool.getUsage().getMax() > 0) {
+        pools.add(pool);
+      }
+    }
+  }
+
+  /**
+   * Starts listening for collections that leave a pool above the moderate
+   * threshold.
+   */
+  public synchronized void start() {
+    if (started) {
+      return;
+    }
+    started = true;
+    for (MemoryPoolMXBean pool : pools) {
+      long max = pool.getUsage().getMax();
+      pool.setCollectionUsageThreshold(Math.max(1, Math.min(max, (long) (max * moderate))));
+    }
+    emitter().addNotificationListener(listener, null, null);
+  }
+
+  /**
+   * Stops listening, and clears the thresholds.
+   */
+  public synchronized void stop() {
+    if (!started) {
+      return;
+    }
+    started = false;
+    try {
+      emitter().removeNotificationListener(listener);
+    } catch (ListenerNotFoundException e) {
+      // Already gone
+    }
+    for (MemoryPoolMXBean pool : pools) {
+      pool.setCollectionUsageThreshold(0);
+    }
+  }
+
+  /**
+   * Returns the current pressure level, from the fullest pool's usage after
+   * its last collection, or null if there is no pressure.
+   */
+  public MemoryPressure.Level getLevel() {
+    double fullest = 0;
+    for (MemoryPoolMXBean pool : pools) {
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (usage == null || usage.getUsed() == 0) {
+        usage = pool.getUsage();
+      }
+      fullest = Math.max(fullest, (double) usage.getUsed() / usage.getMax());
+    }
+    if (fullest >= critical) {
+      return MemoryPressure.Level.CRITICAL;
+    }
+    return fullest >= moderate ? MemoryPressure.Level.MODERATE : null;
+  }
+
+  /**
+   * Signals the current pressure level, if any, and returns it.
+   */
+  public MemoryPressure.Level check() {
+    MemoryPressure.Level level = getLevel();
+    if (level != null) {
+      pressure.signal(level);
+    }
+    return level;
+  }
+
+  private static NotificationEmitter emitter() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    return (NotificationEmitter) memory;
+  }
+}
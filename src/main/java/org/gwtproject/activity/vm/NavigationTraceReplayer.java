@@ -0,0 +1,488 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import org.gwtproject.activity.shared.AbstractActivity;
+import org.gwtproject.activity.shared.Activity;
+import org.gwtproject.activity.shared.ActivityManager;
+import org.gwtproject.activity.shared.ActivityMapper;
+import org.gwtproject.activity.shared.CachingActivityMapper;
+import org.gwtproject.activity.shared.LazyActivityMapper;
+import org.gwtproject.activity.shared.NavigationTrace;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import com.google.gwt.user.client.ui.Widget;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Replays a recorded {@link NavigationTrace} through a fresh
+ * {@link ActivityManager} as fast as possible, to compare mapper and caching
+ * configurations against a realistic workload.
+ * <p>
+ * Each place token in the trace is mapped to a stub activity that behaves like
+ * the recorded one did: it presents its widget synchronously from
+ * {@link Activity#start}, asynchronously before the next navigation, or not
+ * at all. A {@link Configuration} decorates the stub mapper, e.g. with a
+ * {@link CachingActivityMapper}, and the replay reports throughput, how often
+ * the decorated mapper avoided creating an activity, and the bytes allocated
+ * by the replaying thread.
+ */
+public class NavigationTraceReplayer {
+
+  /**
+   * A named way of building the mapper under test around the stub mapper.
+   */
+  public interface Configuration {
+    /**
+     * Returns the name used in reports.
+     */
+    String getName();
+
+    /**
+     * Returns the mapper to replay through, wrapping the given stub mapper.
+     *
+     * @param stubs creates a new stub activity on every call
+     */
+    ActivityMapper createMapper(ActivityMapper stubs);
+  }
+
+  /**
+   * The results of one replay.
+   */
+  public static class Report {
+    private final String name;
+    private final int navigations;
+    private final long nanos;
+    private final int lookups;
+    private final int created;
+    private final long allocatedBytes;
+    private final long constructionNanos;
+    private final long firstNavigationNanos;
+
+    Report(String name, int navigations, long nanos, int lookups, int created,
+        long allocatedBytes, long constructionNanos, long firstNavigationNanos) {
+      this.name = name;
+      this.navigations = navigations;
+      this.nanos = nanos;
+      this.lookups = lookups;
+      this.created = created;
+      this.allocatedBytes = allocatedBytes;
+      this.constructionNanos = constructionNanos;
+      this.firstNavigationNanos = firstNavigationNanos;
+    }
+
+    /**
+     * Returns the bytes allocated by the replaying thread, or {@code -1} if
+     * the JVM cannot measure it.
+     */
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    /**
+     * Returns the number of stub activities the mapper asked for.
+     */
+    public int getActivitiesCreated() {
+      return created;
+    }
+
+    /**
+     * Returns the time it took to build the mapper and the manager and set
+     * its display, in nanoseconds.
+     */
+    public long getConstructionNanos() {
+      return constructionNanos;
+    }
+
+    /**
+     * Returns the time the first navigation of the trace took, including any
+     * deferred mapper construction, in nanoseconds.
+     */
+    public long getFirstNavigationNanos() {
+      return firstNavigationNanos;
+    }
+
+    /**
+     * Returns the fraction of mapper lookups that were answered without
+     * creating a new activity.
+     */
+    public double getCacheHitRate() {
+      return lookups == 0 ? 0 : 1 - (double) created / lookups;
+    }
+
+    /**
+     * Returns the name of the replayed configuration.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the number of mapper lookups made.
+     */
+    public int getLookups() {
+      return lookups;
+    }
+
+    /**
+     * Returns the number of place changes replayed.
+     */
+    public int getNavigations() {
+      return navigations;
+    }
+
+    /**
+     * Returns the wall clock time the replay took, in nanoseconds.
+     */
+    public long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * Returns the replayed navigations per second.
+     */
+    public double getThroughput() {
+      return nanos == 0 ? 0 : navigations * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%-30s %10.0f nav/s  hit rate %5.1f%%  %s  startup %d+%d us", name,
+          getThroughput(), getCacheHitRate() * 100,
+          allocatedBytes < 0 || navigations == 0 ? "allocation n/a"
+              : (allocatedBytes / navigations) + " B/nav",
+          constructionNanos / 1000, firstNavigationNanos / 1000);
+    }
+  }
+
+  /**
+   * Replays a trace file through an uncached and a
+   * {@link CachingActivityMapper} configuration and prints the reports.
+   *
+   * @param args the trace file, and optionally the number of iterations
+   * @throws IOException if the trace cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: NavigationTraceReplayer <trace file> [iterations]");
+      return;
+    }
+    String text = new String(Files.readAllBytes(Paths.get(args[0])), StandardCharsets.UTF_8);
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    NavigationTraceReplayer replayer = new NavigationTraceReplayer(NavigationTrace.parse(text));
+
+    List<Configuration> configurations = new ArrayList<Configuration>();
+    configurations.add(uncached());
+    configurations.add(caching());
+    configurations.add(lazy(caching()));
+    for (Configuration configuration : configurations) {
+      // Warm up, then measure
+      replayer.replay(configuration, iterations);
+      System.out.println(replayer.replay(configuration, iterations));
+    }
+  }
+
+  /**
+   * Returns a configuration that replays straight through the stub mapper.
+   */
+  public static Configuration uncached() {
+    return new Configuration() {
+      public String getName() {
+        return "uncached";
+      }
+
+      public ActivityMapper createMapper(ActivityMapper stubs) {
+        return stubs;
+      }
+    };
+  }
+
+  /**
+   * Returns a configuration that wraps the stub mapper in a
+   * {@link CachingActivityMapper}.
+   */
+  public static Configuration caching() {
+    return new Configuration() {
+      public String getName() {
+        return "CachingActivityMapper";
+      }
+
+      public ActivityMapper createMapper(ActivityMapper stubs) {
+        return new CachingActivityMapper(stubs);
+      }
+    };
+  }
+
+  /**
+   * Returns a configuration that builds the given one's mapper lazily, on the
+   * first navigation, through a {@link LazyActivityMapper}.
+   *
+   * @param configuration the configuration to defer
+   */
+  public static Configuration lazy(final Configuration configuration) {
+    return new Configuration() {
+      public String getName() {
+        return "lazy " + configuration.getName();
+      }
+
+      public ActivityMapper createMapper(final ActivityMapper stubs) {
+        return new LazyActivityMapper(new Supplier<ActivityMapper>() {
+          public ActivityMapper get() {
+            return configuration.createMapper(stubs);
+          }
+        });
+      }
+    };
+  }
+
+  private static final int PRESENTS_NEVER = 0;
+  private static final int PRESENTS_SYNC = 1;
+  private static final int PRESENTS_ASYNC = 2;
+
+  private static final StubSpec NO_ACTIVITY = new StubSpec(PRESENTS_NEVER);
+
+  private static final IsWidget VIEW = new IsWidget() {
+    public Widget asWidget() {
+      return null;
+    }
+  };
+
+  /**
+   * A place standing in for a recorded one, equal to any other with the same
+   * token.
+   */
+  private static class TracePlace extends Place {
+    private final String token;
+
+    TracePlace(String token) {
+      this.token = token;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof TracePlace && token.equals(((TracePlace) obj).token);
+    }
+
+    @Override
+    public int hashCode() {
+      return token.hashCode();
+    }
+  }
+
+  /**
+   * How the activity recorded for a token behaved.
+   */
+  private static class StubSpec {
+    final int presents;
+
+    StubSpec(int presents) {
+      this.presents = presents;
+    }
+  }
+
+  private class StubActivity extends AbstractActivity {
+    private final StubSpec spec;
+
+    StubActivity(StubSpec spec) {
+      this.spec = spec;
+    }
+
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      if (spec.presents == PRESENTS_SYNC) {
+        panel.setWidget(VIEW);
+      } else if (spec.presents == PRESENTS_ASYNC) {
+        pendingDisplays.add(panel);
+      }
+    }
+  }
+
+  private final List<String> tokens = new ArrayList<String>();
+  private final Map<String, StubSpec> specs = new HashMap<String, StubSpec>();
+  private final List<AcceptsOneWidget> pendingDisplays = new ArrayList<AcceptsOneWidget>();
+
+  private int lookups;
+  private int created;
+  private long firstNavigated;
+
+  /**
+   * Prepares a trace for replay.
+   *
+   * @param trace the recorded trace
+   */
+  public NavigationTraceReplayer(NavigationTrace trace) {
+    List<NavigationTrace.Entry> entries = trace.getEntries();
+    for (int i = 0; i < entries.size(); i++) {
+      NavigationTrace.Entry entry = entries.get(i);
+      if (entry.getKind() != NavigationTrace.Kind.PLACE_CHANGE) {
+        continue;
+      }
+      tokens.add(entry.getValue());
+      if (!specs.containsKey(entry.getValue())) {
+        StubSpec spec = specFor(entries, i + 1);
+        if (spec != null) {
+          specs.put(entry.getValue(), spec);
+        }
+      }
+    }
+    for (String token : tokens) {
+      if (!specs.containsKey(token)) {
+        // Only ever seen reusing a running activity, assume the simplest case
+        specs.put(token, new StubSpec(PRESENTS_SYNC));
+      }
+    }
+  }
+
+  /**
+   * Returns the number of place changes in one pass over the trace.
+   */
+  public int getNavigationCount() {
+    return tokens.size();
+  }
+
+  /**
+   * Replays the trace through a fresh {@link ActivityManager}.
+   *
+   * @param configuration builds the mapper to replay through
+   * @param iterations how many times to replay the whole trace
+   * @return the measurements
+   */
+  public Report replay(Configuration configuration, int iterations) {
+    lookups = 0;
+    created = 0;
+    firstNavigated = System.nanoTime();
+    pendingDisplays.clear();
+
+    ActivityMapper stubs = new ActivityMapper() {
+      public Activity getActivity(Place place) {
+        StubSpec spec = specs.get(((TracePlace) place).token);
+        if (spec == NO_ACTIVITY) {
+          return null;
+        }
+        created++;
+        return new StubActivity(spec);
+      }
+    };
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    long allocatedBefore = allocatedBytes(threads);
+    long start = System.nanoTime();
+
+    final ActivityMapper mapper = configuration.createMapper(stubs);
+    ActivityMapper counting = new ActivityMapper() {
+      public Activity getActivity(Place place) {
+        lookups++;
+        return mapper.getActivity(place);
+      }
+    };
+    EventBus eventBus = new SimpleEventBus();
+    ActivityManager manager = new ActivityManager(counting, eventBus);
+    manager.setDisplay(new AcceptsOneWidget() {
+      public void setWidget(IsWidget w) {
+      }
+    });
+    long constructed = System.nanoTime();
+
+    for (int iteration = 0; iteration < iterations; iteration++) {
+      for (int i = 0; i < tokens.size(); i++) {
+        completePending();
+        eventBus.fireEvent(new PlaceChangeEvent(new TracePlace(tokens.get(i))));
+        if (iteration == 0 && i == 0) {
+          firstNavigated = System.nanoTime();
+        }
+      }
+    }
+    completePending();
+    long nanos = System.nanoTime() - start;
+    long allocatedAfter = allocatedBytes(threads);
+    manager.setDisplay(null);
+
+    return new Report(configuration.getName(), iterations * tokens.size(), nanos, lookups,
+        created, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore,
+        constructed - start, firstNavigated - constructed);
+  }
+
+  private void completePending() {
+    for (int i = 0; i < pendingDisplays.size(); i++) {
+      pendingDisplays.get(i).setWidget(VIEW);
+    }
+    pendingDisplays.clear();
+  }
+
+  private static long allocatedBytes(ThreadMXBean threads) {
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+      if (sunThreads.isThreadAllocatedMemorySupported()
+          && sunThreads.isThreadAllocatedMemoryEnabled()) {
+        return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Works out how the activity resolved for the place change just before
+   * {@code from} behaved. Returns {@link #NO_ACTIVITY} if the mapper returned
+   * null, or null if the activity was not started, e.g. because it was
+   * already running.
+   */
+  private static StubSpec specFor(List<NavigationTrace.Entry> entries, int from) {
+    int activityId = 0;
+    boolean started = false;
+    boolean returned = false;
+    for (int i = from; i < entries.size(); i++) {
+      NavigationTrace.Entry entry = entries.get(i);
+      switch (entry.getKind()) {
+        case PLACE_CHANGE:
+          return started ? new StubSpec(PRESENTS_NEVER) : null;
+        case RESOLVED:
+          if (entry.getValue() == null) {
+            return NO_ACTIVITY;
+          }
+          activityId = entry.getActivityId();
+          break;
+        case START:
+          started |= entry.getActivityId() == activityId;
+          break;
+        case STARTED:
+          returned |= started && entry.getActivityId() == activityId;
+          break;
+        case PRESENTED:
+          if (started && entry.getActivityId() == activityId) {
+            return new StubSpec(returned ? PRESENTS_ASYNC : PRESENTS_SYNC);
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return started ? new StubSpec(PRESENTS_NEVER) : null;
+  }
+}
@@ -0,0 +1,478 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * A persistent store of prerendered activity snapshots, e.g. the HTML of each
+ * public place, keyed by place token, so that a restarted server can serve
+ * first paint without starting any activity.
+ * <p>
+ * Snapshots are appended to a single file, which is memory-mapped for reading:
+ * {@link #get} returns a read-only view of the mapping, without copying.
+ * Appends are written through the file channel; the mapping is made ahead of
+ * the data, growing in doubling chunks, so that only an append past its end
+ * maps the file again. Each
+ * record carries the store's version, e.g. the application's build number;
+ * opening the store with a different version, or calling {@link #setVersion},
+ * invalidates every older snapshot at once, while {@link #invalidate} drops a
+ * single one. Superseded records are garbage, and once there is more garbage
+ * than live data the file is compacted on the given executor, while reads and
+ * writes carry on.
+ * <p>
+ * The file is a header ({@code int} magic, {@code int} format, {@code long}
+ * end of the records) followed by records of an {@code int} token length, an
+ * {@code int} snapshot length, -1 for an invalidation, a {@code long}
+ * version, and the UTF-8 token and snapshot bytes. The end is written after
+ * each record, so the zeros the file is padded with, or a record torn by a
+ * crash, are ignored on open.
+ * <p>
+ * All methods are thread safe.
+ */
+public class SnapshotStore implements Closeable {
+
+  private static final int MAGIC = 0x41534e50;
+  private static final int FORMAT = 2;
+  private static final int HEADER_SIZE = 16;
+  private static final int END_OFFSET = 8;
+  private static final int RECORD_HEADER_SIZE = 16;
+  private static final int INVALIDATED = -1;
+
+  /**
+   * Compaction waits for at least this much garbage, so that small stores are
+   * left alone.
+   */
+  private static final long MIN_GARBAGE = 64 * 1024;
+
+  /**
+   * The mapping covers the file in multiples of this many bytes.
+   */
+  private static final long MAP_CHUNK = 64 * 1024;
+
+  private final Path file;
+  private final Executor compactor;
+
+  private FileChannel channel;
+  private MappedByteBuffer mapped;
+  private long end;
+  private long version;
+
+  /*
+   * Offsets of the live records, and the number of bytes in them, the rest
+   * of the file after the header being garbage.
+   */
+  private Map<String, Long> index = new HashMap<String, Long>();
+  private long liveBytes;
+  private boolean compacting;
+  private int compactions;
+
+  private SnapshotStore(Path file, long version, Executor compactor) {
+    this.file = file;
+    this.version = version;
+    this.compactor = compactor;
+  }
+
+  /**
+   * Opens or creates a store.
+   *
+   * @param file the store's file
+   * @param version the current version; snapshots of other versions are
+   *          ignored
+   * @param compactor runs compactions, or null to only compact when
+   *          {@link #compact} is called
+   * @throws IOException if the file cannot be read or is not a store
+   */
+  public static SnapshotStore open(Path file, long version, Executor compactor)
+      throws IOException {
+    SnapshotStore store = new SnapshotStore(file, version, compactor);
+    synchronized (store) {
+      store.load();
+    }
+    return store;
+  }
+
+  /**
+   * Returns the snapshot for the given token, as a read-only buffer backed by
+   * the file mapping, or null.
+   *
+   * @param token a place token
+   */
+  public synchronized ByteBuffer get(String token) {
+    Long offset = index.get(token);
+    if (offset == null) {
+      return null;
+    }
+    ByteBuffer view = mapped.duplicate();
+    int start = (int) (long) offset;
+    int keyLength = view.getInt(start);
+    int valueLength = view.getInt(start + 4);
+    int valueStart = start + RECORD_HEADER_SIZE + keyLength;
+    ((Buffer) view).limit(valueStart + valueLength);
+    ((Buffer) view).position(valueStart);
+    return view.slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * Stores the snapshot for the given token, replacing any previous one.
+   *
+   * @param token a place token
+   * @param snapshot the rendered output, from its position to its limit
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized void put(String token, ByteBuffer snapshot) throws IOException {
+    append(token, snapshot.duplicate(), snapshot.remaining());
+  }
+
+  /**
+   * Drops the snapshot for the given token, if any.
+   *
+   * @param token a place token
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized void invalidate(String token) throws IOException {
+    if (index.containsKey(token)) {
+      append(token, null, INVALIDATED);
+    }
+  }
+
+  /**
+   * Changes the store's version, invalidating all its snapshots.
+   *
+   * @param version the new version
+   */
+  public synchronized void setVersion(long version) {
+    if (version != this.version) {
+      this.version = version;
+      index.clear();
+      liveBytes = 0;
+      maybeCompact();
+    }
+  }
+
+  /**
+   * Returns the store's version.
+   */
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the number of live snapshots.
+   */
+  public synchronized int size() {
+    return index.size();
+  }
+
+  /**
+   * Returns the number of bytes in the file that compaction would reclaim.
+   */
+  public synchronized long getGarbageBytes() {
+    return end - HEADER_SIZE - liveBytes;
+  }
+
+  /**
+   * Returns how many compactions have completed since the store was opened.
+   */
+  public synchronized int getCompactionCount() {
+    return compactions;
+  }
+
+  /**
+   * Rewrites the file with only the live snapshots. Snapshots written
+   * meanwhile are carried over. If the rewrite fails, the store carries on
+   * with its current file. A compaction already running in the background is
+   * waited for first.
+   *
+   * @throws IOException if the file cannot be rewritten
+   * @throws InterruptedIOException if interrupted while waiting
+   */
+  public void compact() throws IOException {
+    synchronized (this) {
+      while (compacting) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        }
+      }
+      compacting = true;
+    }
+    try {
+      rewrite();
+    } finally {
+      endCompaction();
+    }
+  }
+
+  /**
+   * Closes the file. Buffers returned by {@link #get} stay readable.
+   */
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  private synchronized void endCompaction() {
+    compacting = false;
+    notifyAll();
+  }
+
+  private void rewrite() throws IOException {
+    Map<String, Long> live;
+    ByteBuffer source;
+    long copiedEnd;
+    synchronized (this) {
+      live = new HashMap<String, Long>(index);
+      source = mapped.duplicate();
+      copiedEnd = end;
+    }
+
+    Path temp = file.resolveSibling(file.getFileName() + ".compact");
+    try {
+      long written;
+      try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        written = writeHeader(out);
+        for (long offset : live.values()) {
+          written = writeFully(out, record(source, (int) offset), written);
+        }
+      }
+
+      synchronized (this) {
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+          // Carry over what was appended while we were copying
+          ByteBuffer tail = mapped.duplicate();
+          ((Buffer) tail).limit((int) end);
+          ((Buffer) tail).position((int) copiedEnd);
+          written = writeFully(out, tail, written);
+          writeEnd(out, written);
+          out.force(true);
+        }
+        replaceWith(temp);
+        compactions++;
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private void append(String token, ByteBuffer value, int valueLength) throws IOException {
+    byte[] key = token.getBytes(StandardCharsets.UTF_8);
+    int size = RECORD_HEADER_SIZE + key.length + Math.max(valueLength, 0);
+    if (end + size > Integer.MAX_VALUE) {
+      throw new IOException("Snapshot store is full: " + file);
+    }
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE + key.length);
+    header.putInt(key.length).putInt(valueLength).putLong(version).put(key);
+    ((Buffer) header).flip();
+    long written = writeFully(channel, header, end);
+    if (value != null) {
+      writeFully(channel, value, written);
+    }
+    writeEnd(channel, end + size);
+
+    long offset = end;
+    end += size;
+    ensureMapped(end);
+    apply(token, offset, valueLength == INVALIDATED ? -1 : size);
+    maybeCompact();
+  }
+
+  /*
+   * Updates the index for a record of the current version; a negative size
+   * stands for an invalidation.
+   */
+  private void apply(String token, long offset, int size) {
+    Long previous = size < 0 ? index.remove(token) : index.put(token, offset);
+    if (previous != null) {
+      liveBytes -= recordSize(previous);
+    }
+    if (size >= 0) {
+      liveBytes += size;
+    }
+  }
+
+  private void load() throws IOException {
+    load(file);
+  }
+
+  private void load(Path path) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    mapped = null;
+    if (channel.size() < HEADER_SIZE) {
+      channel.truncate(0);
+      writeHeader(channel);
+    }
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+      // Keep reading
+    }
+    end = header.getLong(END_OFFSET);
+    if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT || end < HEADER_SIZE
+        || end > channel.size()) {
+      channel.close();
+      throw new IOException("Not a snapshot store: " + path);
+    }
+    ensureMapped(end);
+
+    index = new HashMap<String, Long>();
+    liveBytes = 0;
+    int offset = HEADER_SIZE;
+    while (offset + RECORD_HEADER_SIZE <= end) {
+      int keyLength = mapped.getInt(offset);
+      int valueLength = mapped.getInt(offset + 4);
+      long recordVersion = mapped.getLong(offset + 8);
+      long size = (long) RECORD_HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+      if (keyLength < 0 || valueLength < INVALIDATED || offset + size > end) {
+        break;
+      }
+      if (recordVersion == version) {
+        byte[] key = new byte[keyLength];
+        ByteBuffer view = mapped.duplicate();
+        ((Buffer) view).position(offset + RECORD_HEADER_SIZE);
+        view.get(key);
+        apply(new String(key, StandardCharsets.UTF_8), offset,
+            valueLength == INVALIDATED ? -1 : (int) size);
+      }
+      offset += size;
+    }
+    if (offset != end) {
+      // A torn record at the end
+      end = offset;
+      writeEnd(channel, end);
+    }
+  }
+
+  /*
+   * Switches to the compacted file. It is loaded before it is moved over the
+   * store's file, so that if either step fails the store is left on its
+   * current file, as it was.
+   */
+  private void replaceWith(Path compacted) throws IOException {
+    FileChannel oldChannel = channel;
+    MappedByteBuffer oldMapped = mapped;
+    long oldEnd = end;
+    Map<String, Long> oldIndex = index;
+    long oldLiveBytes = liveBytes;
+    try {
+      load(compacted);
+      Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      if (channel != oldChannel) {
+        channel.close();
+      }
+      channel = oldChannel;
+      mapped = oldMapped;
+      end = oldEnd;
+      index = oldIndex;
+      liveBytes = oldLiveBytes;
+      throw e;
+    }
+    oldChannel.close();
+  }
+
+  private void maybeCompact() {
+    long garbage = getGarbageBytes();
+    if (compactor != null && !compacting && garbage > MIN_GARBAGE && garbage > liveBytes) {
+      compacting = true;
+      Runnable compaction = new Runnable() {
+        public void run() {
+          try {
+            rewrite();
+          } catch (IOException e) {
+            // Keep the current file, and try again after the next write
+          } finally {
+            endCompaction();
+          }
+        }
+      };
+      try {
+        compactor.execute(compaction);
+      } catch (RuntimeException e) {
+        compacting = false;
+        throw e;
+      }
+    }
+  }
+
+  private int recordSize(long offset) {
+    int start = (int) offset;
+    return RECORD_HEADER_SIZE + mapped.getInt(start) + Math.max(mapped.getInt(start + 4), 0);
+  }
+
+  private ByteBuffer record(ByteBuffer source, int offset) {
+    ByteBuffer record = source.duplicate();
+    ((Buffer) record).limit(offset + RECORD_HEADER_SIZE + source.getInt(offset)
+        + Math.max(source.getInt(offset + 4), 0));
+    ((Buffer) record).position(offset);
+    return record;
+  }
+
+  /*
+   * Maps the file up to at least the given offset, doubling the mapping and
+   * rounding it up to whole chunks, which extends the file with zeros.
+   */
+  private void ensureMapped(long needed) throws IOException {
+    if (mapped == null || mapped.capacity() < needed) {
+      long capacity = Math.max(needed, mapped == null ? 0 : 2L * mapped.capacity());
+      capacity = Math.min((capacity + MAP_CHUNK - 1) / MAP_CHUNK * MAP_CHUNK, Integer.MAX_VALUE);
+      // Earlier mappings stay valid for the buffers handed out by get
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+    }
+  }
+
+  private static long writeHeader(FileChannel out) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(FORMAT).putLong(HEADER_SIZE);
+    ((Buffer) header).flip();
+    return writeFully(out, header, 0);
+  }
+
+  private static void writeEnd(FileChannel out, long end) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(8);
+    buffer.putLong(end);
+    ((Buffer) buffer).flip();
+    writeFully(out, buffer, END_OFFSET);
+  }
+
+  /*
+   * Writes the buffer at the given position, returning the position after it.
+   */
+  private static long writeFully(FileChannel out, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      position += out.write(buffer, position);
+    }
+    return position;
+  }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import org.gwtproject.activity.shared.Activity;
+import org.gwtproject.activity.shared.ActivityManager;
+import org.gwtproject.activity.shared.ActivityMapper;
+import org.gwtproject.activity.shared.DelegatingActivity;
+import org.gwtproject.activity.shared.ProgressiveDisplay;
+import org.gwtproject.event.shared.Event;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.event.shared.UmbrellaException;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Wraps an {@link ActivityMapper} so that each {@link Activity#start} runs on
+ * its own thread, and may block, e.g. on data loads, without holding up the
+ * {@link ActivityManager}. Widgets the activity presents are handed back to
+ * the owner executor, the one the manager runs on, and canceling or stopping
+ * the activity interrupts its start thread.
+ * <p>
+ * By default starts run on virtual threads where the JDK has them (21 and
+ * later), so that thousands of simulated sessions cost little more than their
+ * heap, and on a pool of daemon threads otherwise.
+ * <p>
+ * The activity may use the event bus it is handed from its start thread:
+ * adding and removing handlers, and firing events, are handed to the owner
+ * executor in order, since the manager's bus is not thread safe. Handlers
+ * are called on the owner. Once the activity is stopped or canceled, its
+ * late widgets, registrations and events are dropped.
+ * {@link Activity#mayStop}, {@link Activity#onCancel} and
+ * {@link Activity#onStop} are called by the manager as usual, on the owner.
+ * Exceptions thrown by a start are rethrown on the owner, wrapped in an
+ * {@link UmbrellaException}, unless the activity was stopped or canceled
+ * meanwhile.
+ */
+public class ThreadedActivityMapper implements ActivityMapper {
+
+  /**
+   * One run of an activity's start. It is canceled on the owner when the
+   * activity stops or is canceled, after which nothing it hands to the owner
+   * reaches the manager.
+   */
+  private class Start implements Runnable {
+    private final Activity activity;
+    private final AcceptsOneWidget panel;
+    private final EventBus eventBus;
+    private volatile boolean canceled;
+    private Future<?> future;
+
+    Start(Activity activity, AcceptsOneWidget panel, EventBus eventBus) {
+      this.activity = activity;
+      this.panel = panel;
+      this.eventBus = eventBus;
+    }
+
+    public void run() {
+      try {
+        activity.start(new ProgressiveDisplay() {
+          public void setInterimWidget(final IsWidget interim) {
+            if (panel instanceof ProgressiveDisplay) {
+              onOwner(new Runnable() {
+                public void run() {
+                  ((ProgressiveDisplay) panel).setInterimWidget(interim);
+                }
+              });
+            }
+          }
+
+          public void setWidget(final IsWidget w) {
+            onOwner(new Runnable() {
+              public void run() {
+                panel.setWidget(w);
+              }
+            });
+          }
+        }, new OwnerEventBus(this));
+      } catch (final Throwable t) {
+        // The activity may have turned our interrupt into any exception
+        if (!canceled) {
+          onOwner(new Runnable() {
+            public void run() {
+              throw new UmbrellaException(Collections.singleton(t));
+            }
+          });
+        }
+      }
+    }
+
+    void cancel() {
+      canceled = true;
+      future.cancel(true);
+    }
+
+    /**
+     * Runs the task on the owner, unless the activity has been stopped or
+     * canceled by then.
+     */
+    void onOwner(final Runnable task) {
+      owner.execute(new Runnable() {
+        public void run() {
+          if (!canceled) {
+            task.run();
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Hands handler registrations and events to the owner, in order, so that
+   * an activity can use its event bus from its start thread.
+   */
+  private static class OwnerEventBus extends EventBus {
+    private final Start start;
+
+    OwnerEventBus(Start start) {
+      this.start = start;
+    }
+
+    @Override
+    public <H> HandlerRegistration addHandler(final Event.Type<H> type, final H handler) {
+      return register(new Supplier<HandlerRegistration>() {
+        public HandlerRegistration get() {
+          return start.eventBus.addHandler(type, handler);
+        }
+      });
+    }
+
+    @Override
+    public <H> HandlerRegistration addHandlerToSource(final Event.Type<H> type,
+        final Object source, final H handler) {
+      return register(new Supplier<HandlerRegistration>() {
+        public HandlerRegistration get() {
+          return start.eventBus.addHandlerToSource(type, source, handler);
+        }
+      });
+    }
+
+    @Override
+    public void fireEvent(final Event<?> event) {
+      start.onOwner(new Runnable() {
+        public void run() {
+          start.eventBus.fireEvent(event);
+        }
+      });
+    }
+
+    @Override
+    public void fireEventFromSource(final Event<?> event, final Object source) {
+      start.onOwner(new Runnable() {
+        public void run() {
+          start.eventBus.fireEventFromSource(event, source);
+        }
+      });
+    }
+
+    private HandlerRegistration register(final Supplier<HandlerRegistration> add) {
+      final AtomicReference<HandlerRegistration> registration =
+          new AtomicReference<HandlerRegistration>();
+      start.onOwner(new Runnable() {
+        public void run() {
+          registration.set(add.get());
+        }
+      });
+      return new HandlerRegistration() {
+        public void removeHandler() {
+          // Queued after the add, so it sees its registration
+          start.onOwner(new Runnable() {
+            public void run() {
+              HandlerRegistration added = registration.getAndSet(null);
+              if (added != null) {
+                added.removeHandler();
+              }
+            }
+          });
+        }
+      };
+    }
+  }
+
+  private class ThreadedActivity implements DelegatingActivity {
+    private final Activity wrapped;
+    private Start starting;
+
+    ThreadedActivity(Activity wrapped) {
+      this.wrapped = wrapped;
+    }
+
+    public Activity getDelegate() {
+      return wrapped;
+    }
+
+    public String mayStop() {
+      return wrapped.mayStop();
+    }
+
+    public void onCancel() {
+      cancelStart();
+      wrapped.onCancel();
+    }
+
+    public void onStop() {
+      cancelStart();
+      wrapped.onStop();
+    }
+
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      starting = new Start(wrapped, panel, eventBus);
+      starting.future = starts.submit(starting);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      // Keep the manager's check for an unchanged activity working
+      return obj instanceof ThreadedActivity
+          && wrapped.equals(((ThreadedActivity) obj).wrapped);
+    }
+
+    @Override
+    public int hashCode() {
+      return wrapped.hashCode();
+    }
+
+    private void cancelStart() {
+      if (starting != null) {
+        starting.cancel();
+        starting = null;
+      }
+    }
+  }
+
+  private final ActivityMapper wrapped;
+  private final Executor owner;
+  private final ExecutorService starts;
+
+  /**
+   * Constructs a ThreadedActivityMapper that starts activities on
+   * {@link #newStartExecutor()}.
+   *
+   * @param wrapped finds the activities to start
+   * @param owner runs tasks on the thread the manager runs on, e.g. a single
+   *          thread executor or {@link ConcurrentActivityManager#enqueue}
+   */
+  public ThreadedActivityMapper(ActivityMapper wrapped, Executor owner) {
+    this(wrapped, owner, newStartExecutor());
+  }
+
+  /**
+   * Constructs a ThreadedActivityMapper object.
+   *
+   * @param wrapped finds the activities to start
+   * @param owner runs tasks on the thread the manager runs on
+   * @param starts runs each start as a task
+   */
+  public ThreadedActivityMapper(ActivityMapper wrapped, Executor owner,
+      ExecutorService starts) {
+    this.wrapped = wrapped;
+    this.owner = owner;
+    this.starts = starts;
+  }
+
+  /**
+   * Returns an executor that runs each task on a new virtual thread, or if
+   * they are not available, on a cached pool of daemon threads.
+   */
+  public static ExecutorService newStartExecutor() {
+    ExecutorService virtual = newVirtualThreadExecutor();
+    if (virtual != null) {
+      return virtual;
+    }
+    return Executors.newCachedThreadPool(new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "activity-start-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  /**
+   * Returns whether {@link #newStartExecutor()} uses virtual threads.
+   */
+  public static boolean isVirtualThreadsAvailable() {
+    ExecutorService virtual = newVirtualThreadExecutor();
+    if (virtual == null) {
+      return false;
+    }
+    virtual.shutdown();
+    return true;
+  }
+
+  private static ExecutorService newVirtualThreadExecutor() {
+    try {
+      // Reflection keeps this compiling and running before Java 21
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      // Missing, or a preview feature that is not enabled
+      return null;
+    }
+  }
+
+  public Activity getActivity(Place place) {
+    Activity activity = wrapped.getActivity(place);
+    return activity == null ? null : new ThreadedActivity(activity);
+  }
+
+  /**
+   * Shuts down the executor running the starts, interrupting any still
+   * running.
+   */
+  public void shutdown() {
+    starts.shutdownNow();
+  }
+}
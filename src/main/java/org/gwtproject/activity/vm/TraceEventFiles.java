@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import org.gwtproject.activity.shared.TraceEventExporter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Saves the events of a {@link TraceEventExporter} to a local file, which can
+ * be loaded into {@code chrome://tracing} or Perfetto.
+ */
+public final class TraceEventFiles {
+
+  /**
+   * Writes the exporter's events to the given file, replacing it. The file is
+   * written next to its destination first and then moved into place, so that
+   * a reader never sees a partial trace.
+   *
+   * @param exporter the exporter to save
+   * @param file the file to write, typically ending in {@code .json}
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(TraceEventExporter exporter, Path file) throws IOException {
+    Path absolute = file.toAbsolutePath();
+    Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+    Files.write(temp, exporter.toJson().getBytes(StandardCharsets.UTF_8));
+    try {
+      Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Writes the exporter's events to the given file, as {@link #write} does,
+   * then clears them, e.g. to save a trace per test run or time period.
+   *
+   * @param exporter the exporter to save
+   * @param file the file to write
+   * @throws IOException if the file cannot be written; the events are kept
+   */
+  public static void flush(TraceEventExporter exporter, Path file) throws IOException {
+    write(exporter, file);
+    exporter.clear();
+  }
+
+  private TraceEventFiles() {
+  }
+}
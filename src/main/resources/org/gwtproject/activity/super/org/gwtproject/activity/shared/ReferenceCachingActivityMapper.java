@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.place.shared.Place;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wraps another {@link ActivityMapper} and caches the activities it returned
+ * for recently visited places. This is the GWT version, which has no soft or
+ * weak references: it keeps the {@value #FALLBACK_MAX_SIZE} most recently
+ * used activities strongly, whatever the {@link Strength}.
+ */
+public class ReferenceCachingActivityMapper implements ActivityMapper, Shrinkable {
+
+  /**
+   * How the cached activities would be held on the JVM.
+   */
+  public enum Strength {
+    /**
+     * Kept until the heap runs short.
+     */
+    SOFT,
+    /**
+     * Kept only while something else holds on to them.
+     */
+    WEAK
+  }
+
+  /**
+   * The number of activities kept.
+   */
+  public static final int FALLBACK_MAX_SIZE = 32;
+
+  private final ActivityMapper wrapped;
+  private final Map<Place, Activity> entries =
+      new LinkedHashMap<Place, Activity>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Place, Activity> eldest) {
+          return size() > FALLBACK_MAX_SIZE;
+        }
+      };
+
+  private int hits;
+  private int misses;
+
+  /**
+   * Constructs a ReferenceCachingActivityMapper object.
+   *
+   * @param wrapped the mapper to cache
+   * @param strength ignored
+   */
+  public ReferenceCachingActivityMapper(ActivityMapper wrapped, Strength strength) {
+    this.wrapped = wrapped;
+  }
+
+  public Activity getActivity(Place place) {
+    Activity activity = entries.get(place);
+    if (activity != null) {
+      hits++;
+      return activity;
+    }
+    misses++;
+    activity = wrapped.getActivity(place);
+    if (activity != null) {
+      entries.put(place, activity);
+    }
+    return activity;
+  }
+
+  /**
+   * Drops all cached activities.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Returns how many lookups were answered from the cache.
+   */
+  public int getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Returns how many lookups went to the wrapped mapper.
+   */
+  public int getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Drops the least recently used half of the cached activities, or all of
+   * them under critical pressure.
+   */
+  public int shrink(MemoryPressure.Level level) {
+    int size = entries.size();
+    int drop = level == MemoryPressure.Level.CRITICAL ? size : size - size / 2;
+    Iterator<Place> it = entries.keySet().iterator();
+    for (int i = 0; i < drop; i++) {
+      it.next();
+      it.remove();
+    }
+    return drop;
+  }
+
+  /**
+   * Returns the number of cached activities.
+   */
+  public int size() {
+    return entries.size();
+  }
+}
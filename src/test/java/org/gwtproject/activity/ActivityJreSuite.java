@@ -15,7 +15,33 @@
  */
 package org.gwtproject.activity;
 
+import org.gwtproject.activity.shared.ActivityDataCacheTest;
+import org.gwtproject.activity.shared.ActivityEventStatsTest;
+import org.gwtproject.activity.shared.ActivityManagerStressTest;
 import org.gwtproject.activity.shared.ActivityManagerTest;
+import org.gwtproject.activity.shared.ActivityPreloaderTest;
+import org.gwtproject.activity.shared.ActivityStateStoreTest;
+import org.gwtproject.activity.shared.CompositeActivityMapperTest;
+import org.gwtproject.activity.shared.DataPrefetcherTest;
+import org.gwtproject.activity.shared.MemoryPressureTest;
+import org.gwtproject.activity.shared.NavigationInterceptorChainTest;
+import org.gwtproject.activity.shared.NavigationTraceRecorderTest;
+import org.gwtproject.activity.shared.NestedActivityManagerTest;
+import org.gwtproject.activity.shared.PlaceInternerTest;
+import org.gwtproject.activity.shared.ProgressiveDisplayTest;
+import org.gwtproject.activity.shared.ReferenceCachingActivityMapperTest;
+import org.gwtproject.activity.shared.RegionCommitCoordinatorTest;
+import org.gwtproject.activity.shared.RequestBatcherTest;
+import org.gwtproject.activity.shared.RouteActivityMapperTest;
+import org.gwtproject.activity.shared.StagedRegionStartupTest;
+import org.gwtproject.activity.shared.TraceEventExporterTest;
+import org.gwtproject.activity.shared.ViewPoolTest;
+import org.gwtproject.activity.vm.ConcurrentActivityManagerTest;
+import org.gwtproject.activity.vm.MemoryPoolPressureSourceTest;
+import org.gwtproject.activity.vm.NavigationTraceReplayerTest;
+import org.gwtproject.activity.vm.SnapshotStoreTest;
+import org.gwtproject.activity.vm.ThreadedActivityMapperTest;
+import org.gwtproject.activity.vm.TraceEventFilesTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -24,7 +50,33 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
-  ActivityManagerTest.class
+  ActivityManagerTest.class,
+  ActivityDataCacheTest.class,
+  ActivityEventStatsTest.class,
+  ActivityPreloaderTest.class,
+  ActivityManagerStressTest.class,
+  ActivityStateStoreTest.class,
+  CompositeActivityMapperTest.class,
+  DataPrefetcherTest.class,
+  MemoryPressureTest.class,
+  NavigationInterceptorChainTest.class,
+  NavigationTraceRecorderTest.class,
+  NestedActivityManagerTest.class,
+  PlaceInternerTest.class,
+  ProgressiveDisplayTest.class,
+  ReferenceCachingActivityMapperTest.class,
+  RegionCommitCoordinatorTest.class,
+  RequestBatcherTest.class,
+  RouteActivityMapperTest.class,
+  StagedRegionStartupTest.class,
+  TraceEventExporterTest.class,
+  ViewPoolTest.class,
+  NavigationTraceReplayerTest.class,
+  ConcurrentActivityManagerTest.class,
+  ThreadedActivityMapperTest.class,
+  TraceEventFilesTest.class,
+  SnapshotStoreTest.class,
+  MemoryPoolPressureSourceTest.class
 })
 public class ActivityJreSuite {
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Eponymous unit test.
+ */
+public class ActivityDataCacheTest extends TestCase {
+
+  private static class MyPlace extends Place {
+  }
+
+  private static class Result implements ActivityDataCache.Callback<String> {
+    String value;
+    Throwable caught;
+
+    @Override
+    public void onFailure(Throwable caught) {
+      this.caught = caught;
+    }
+
+    @Override
+    public void onSuccess(String value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * Records loads and lets the test complete them.
+   */
+  private static class PendingLoader implements ActivityDataCache.Loader<String> {
+    final List<ActivityDataCache.Callback<String>> pending =
+        new ArrayList<ActivityDataCache.Callback<String>>();
+    int loads;
+
+    @Override
+    public void load(ActivityDataCache.Callback<String> callback) {
+      loads++;
+      pending.add(callback);
+    }
+
+    void complete(String value) {
+      pending.remove(0).onSuccess(value);
+    }
+  }
+
+  private final MyPlace place1 = new MyPlace();
+  private final MyPlace place2 = new MyPlace();
+  private final PendingLoader loader = new PendingLoader();
+  private double now;
+  private final ActivityDataCache cache = new ActivityDataCache(2,
+      (key, value) -> 1, 1000, () -> now);
+
+  public void testHitAndMiss() {
+    Result first = new Result();
+    cache.get("order:1", place1, null, loader, first);
+    assertNull(first.value);
+    loader.complete("one");
+    assertEquals("one", first.value);
+
+    Result second = new Result();
+    cache.get("order:1", place1, null, loader, second);
+    assertEquals("one", second.value);
+    assertEquals(1, loader.loads);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  public void testCoalescing() {
+    Result first = new Result();
+    Result second = new Result();
+    cache.get("order:1", place1, null, loader, first);
+    cache.get("order:1", place1, null, loader, second);
+    assertEquals(1, loader.loads);
+    assertEquals(1, cache.getCoalescedCount());
+
+    loader.complete("one");
+    assertEquals("one", first.value);
+    assertEquals("one", second.value);
+  }
+
+  public void testFailureIsNotCached() {
+    Result first = new Result();
+    cache.get("order:1", place1, null, callback -> callback.onFailure(new RuntimeException()),
+        first);
+    assertNotNull(first.caught);
+    assertEquals(0, cache.size());
+
+    cache.get("order:1", place1, null, loader, new Result());
+    assertEquals(1, loader.loads);
+  }
+
+  public void testThrowingLoader() {
+    Result first = new Result();
+    cache.get("order:1", place1, null, callback -> {
+      throw new IllegalStateException();
+    }, first);
+    assertTrue(first.caught instanceof IllegalStateException);
+
+    // The failed load is not left behind for later requests to join
+    Result second = new Result();
+    cache.get("order:1", place1, null, loader, second);
+    assertEquals(1, loader.loads);
+    assertEquals(0, cache.getCoalescedCount());
+    loader.complete("one");
+    assertEquals("one", second.value);
+  }
+
+  public void testTimeToLive() {
+    cache.get("order:1", place1, null, callback -> callback.onSuccess("one"), new Result());
+    now += 999;
+    Result fresh = new Result();
+    cache.get("order:1", place1, null, loader, fresh);
+    assertEquals("one", fresh.value);
+
+    now += 1;
+    cache.get("order:1", place1, null, loader, new Result());
+    assertEquals(1, loader.loads);
+  }
+
+  public void testLeastRecentlyUsedEviction() {
+    cache.get("a", place1, null, callback -> callback.onSuccess("a"), new Result());
+    cache.get("b", place1, null, callback -> callback.onSuccess("b"), new Result());
+    cache.get("a", place1, null, loader, new Result());
+    cache.get("c", place1, null, callback -> callback.onSuccess("c"), new Result());
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    cache.get("b", place1, null, loader, new Result());
+    assertEquals(1, loader.loads);
+  }
+
+  public void testInvalidatePlace() {
+    cache.get("a", place1, null, callback -> callback.onSuccess("a"), new Result());
+    cache.get("b", place2, null, callback -> callback.onSuccess("b"), new Result());
+    Result inFlight = new Result();
+    cache.get("c", place1, null, loader, inFlight);
+
+    cache.invalidate(place1);
+    assertEquals(1, cache.size());
+    loader.complete("c");
+    assertEquals("c", inFlight.value);
+    assertEquals(1, cache.size());
+  }
+
+  public void testPinnedWhileOwnerRuns() {
+    final Activity lister = new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+        cache.get("a", place1, this, callback -> callback.onSuccess("a"), new Result());
+        cache.get("b", place1, this, callback -> callback.onSuccess("b"), new Result());
+        panel.setWidget(() -> null);
+      }
+    };
+    EventBus eventBus = new SimpleEventBus();
+    ActivityManager manager = new ActivityManager(place -> place == place1 ? lister : null,
+        eventBus);
+    manager.addLifecycleListener(cache);
+    manager.setDisplay(w -> { });
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    assertTrue(cache.isPinned("a"));
+    assertTrue(cache.isPinned("b"));
+
+    // No room next to the pinned entries
+    cache.get("c", place2, null, callback -> callback.onSuccess("c"), new Result());
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    assertTrue(cache.isPinned("a"));
+
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertFalse(cache.isPinned("a"));
+    cache.get("c", place2, null, callback -> callback.onSuccess("c"), new Result());
+    assertEquals(2, cache.size());
+    assertEquals(2, cache.getEvictionCount());
+    cache.get("a", place1, null, loader, new Result());
+    assertEquals(0, loader.loads);
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.Event;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class ActivityEventStatsTest extends TestCase {
+
+  private static class PingEvent extends Event<Runnable> {
+    static final Type<Runnable> TYPE = new Type<Runnable>();
+
+    @Override
+    public Type<Runnable> getAssociatedType() {
+      return TYPE;
+    }
+
+    @Override
+    protected void dispatch(Runnable handler) {
+      handler.run();
+    }
+  }
+
+  private static class ChattyActivity extends AbstractActivity {
+    EventBus eventBus;
+    HandlerRegistration second;
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      this.eventBus = eventBus;
+      eventBus.addHandler(PingEvent.TYPE, () -> { });
+      second = eventBus.addHandler(PingEvent.TYPE, () -> { });
+      eventBus.addHandlerToSource(PingEvent.TYPE, this, () -> { });
+      eventBus.fireEvent(new PingEvent());
+      panel.setWidget(null);
+    }
+  }
+
+  private final Place place1 = new Place() { };
+  private final Place place2 = new Place() { };
+  private final ChattyActivity chatty = new ChattyActivity();
+  private final Activity quiet = new AbstractActivity() {
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+    }
+  };
+
+  private final List<Activity> reported = new ArrayList<Activity>();
+  private final List<ActivityEventStats> stats = new ArrayList<ActivityEventStats>();
+  private final ActivityLifecycleListener listener = new ActivityLifecycleListener() {
+    @Override
+    public void onActivityEventStats(Activity activity, ActivityEventStats s) {
+      reported.add(activity);
+      stats.add(s);
+    }
+  };
+
+  public void testCounts() {
+    DispatchCountingEventBus eventBus = new DispatchCountingEventBus(new SimpleEventBus());
+    newManager(eventBus);
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    // Two events from elsewhere, one after a handler was removed
+    eventBus.fireEvent(new PingEvent());
+    chatty.second.removeHandler();
+    eventBus.fireEvent(new PingEvent());
+    assertTrue(stats.isEmpty());
+
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertEquals(1, stats.size());
+    assertSame(chatty, reported.get(0));
+    ActivityEventStats s = stats.get(0);
+    assertEquals(1, s.getEventTypes().size());
+    assertEquals(3, s.getHandlersAdded(PingEvent.TYPE));
+    assertEquals(1, s.getEventsFired(PingEvent.TYPE));
+    // 2 for its own event, 2 then 1 for the others
+    assertEquals(5, s.getEventsReceived(PingEvent.TYPE));
+    assertEquals(3, s.getTotalHandlersAdded());
+    assertEquals(1, s.getTotalEventsFired());
+    assertEquals(5, s.getTotalEventsReceived());
+    assertEquals(0, s.getEventsFired(PlaceChangeEvent.TYPE));
+
+    // Handlers are gone, nothing more is counted
+    eventBus.fireEvent(new PingEvent());
+    assertEquals(5, s.getTotalEventsReceived());
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    assertEquals(2, stats.size());
+    assertSame(quiet, reported.get(1));
+    assertTrue(stats.get(1).getEventTypes().isEmpty());
+  }
+
+  public void testReceivedNeedsCountingRoot() {
+    SimpleEventBus eventBus = new SimpleEventBus();
+    newManager(eventBus);
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    eventBus.fireEvent(new PingEvent());
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    ActivityEventStats s = stats.get(0);
+    assertEquals(3, s.getHandlersAdded(PingEvent.TYPE));
+    assertEquals(1, s.getEventsFired(PingEvent.TYPE));
+    assertEquals(0, s.getEventsReceived(PingEvent.TYPE));
+  }
+
+  public void testNoListenerNoStats() {
+    SimpleEventBus eventBus = new SimpleEventBus();
+    ActivityManager manager =
+        new ActivityManager(place -> place == place1 ? chatty : quiet, eventBus);
+    manager.setDisplay(w -> { });
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+
+    // A listener added mid-run only sees later runs
+    manager.addLifecycleListener(listener);
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertTrue(stats.isEmpty());
+  }
+
+  private ActivityManager newManager(EventBus eventBus) {
+    ActivityManager manager =
+        new ActivityManager(place -> place == place1 ? chatty : quiet, eventBus);
+    manager.addLifecycleListener(listener);
+    manager.setDisplay(w -> { });
+    return manager;
+  }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.Event;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.UmbrellaException;
+import org.gwtproject.event.shared.testing.CountingEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.place.shared.PlaceChangeRequestEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import com.google.gwt.user.client.ui.Widget;
+
+import junit.framework.TestCase;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Randomized soak test of {@link ActivityManager}: pushes many interleaved
+ * place changes, late replies from stale displays, exceptions thrown from
+ * activity callbacks and display churn through a manager, checking its life
+ * cycle invariants after every step.
+ * <p>
+ * The run is seeded, so failures reproduce. Use the
+ * {@code gwt.activity.stress.ops} and {@code gwt.activity.stress.seed} system
+ * properties to run longer soaks or other seeds; throughput and the heap in
+ * use after teardown are printed at the end.
+ */
+public class ActivityManagerStressTest extends TestCase {
+
+  private static final int OPS = Integer.getInteger("gwt.activity.stress.ops", 200000);
+  private static final long SEED = Long.getLong("gwt.activity.stress.seed", 20101027L);
+
+  private static final int PLACES = 12;
+
+  private static class MyPlace extends Place {
+  }
+
+  private static class MyView implements IsWidget {
+    @Override
+    public Widget asWidget() {
+      return null;
+    }
+  }
+
+  private static class Handler {
+  }
+
+  private static class MyEvent extends Event<Handler> {
+    private static final Event.Type<Handler> TYPE = new Event.Type<Handler>();
+
+    @Override
+    public Event.Type<Handler> getAssociatedType() {
+      return TYPE;
+    }
+
+    @Override
+    protected void dispatch(Handler handler) {
+    }
+  }
+
+  private static class MyDisplay implements AcceptsOneWidget {
+    IsWidget view;
+
+    @Override
+    public void setWidget(IsWidget view) {
+      this.view = view;
+    }
+  }
+
+  private class StressActivity implements Activity {
+    boolean running;
+    boolean presented;
+    MyView view;
+    int starts;
+
+    @Override
+    public String mayStop() {
+      return null;
+    }
+
+    @Override
+    public void onCancel() {
+      check(running, "onCancel of an activity that is not running");
+      check(!presented, "onCancel of an activity that presented its widget");
+      finish();
+      if (random.nextInt(50) == 0) {
+        throw new IllegalStateException("onCancel");
+      }
+    }
+
+    @Override
+    public void onStop() {
+      check(running, "onStop of an activity that is not running");
+      check(presented, "onStop of an activity that never presented its widget");
+      finish();
+      if (random.nextInt(50) == 0) {
+        throw new IllegalStateException("onStop");
+      }
+    }
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      check(!running, "start of an activity that is already running");
+      check(runningCount == 0, "start while another activity is running");
+      running = true;
+      presented = false;
+      runningCount++;
+      starts++;
+      view = new MyView();
+      eventBus.addHandler(MyEvent.TYPE, new Handler());
+
+      int behavior = random.nextInt(20);
+      if (behavior == 0) {
+        throw new IllegalStateException("start");
+      } else if (behavior < 10) {
+        present(panel, view);
+      } else {
+        outstanding.add(new Outstanding(this, panel, view));
+      }
+    }
+
+    void present(AcceptsOneWidget panel, MyView presentedView) {
+      panel.setWidget(presentedView);
+      if (running && presentedView == view) {
+        presented = true;
+      }
+    }
+
+    private void finish() {
+      running = false;
+      runningCount--;
+    }
+  }
+
+  /**
+   * A display an activity was given but has not yet replied to.
+   */
+  private static class Outstanding {
+    final StressActivity activity;
+    final AcceptsOneWidget panel;
+    final MyView view;
+
+    Outstanding(StressActivity activity, AcceptsOneWidget panel, MyView view) {
+      this.activity = activity;
+      this.panel = panel;
+      this.view = view;
+    }
+  }
+
+  private final Random random = new Random(SEED);
+  private final CountingEventBus eventBus = new CountingEventBus();
+  private final MyDisplay display = new MyDisplay();
+  private final List<Outstanding> outstanding = new ArrayList<Outstanding>();
+  private final Place[] places = new Place[PLACES];
+  private final StressActivity[] retained = new StressActivity[PLACES];
+  private final List<WeakReference<StressActivity>> sample =
+      new ArrayList<WeakReference<StressActivity>>();
+  private StressActivity current;
+  private int runningCount;
+  private int created;
+  private boolean attached;
+
+  /*
+   * A third of the places map to a long lived activity instance, which gets
+   * restarted and so exercises stale replies from its own earlier starts; a
+   * few map to no activity; the rest get a fresh activity each time.
+   */
+  private final ActivityMapper mapper = new ActivityMapper() {
+    @Override
+    public Activity getActivity(Place place) {
+      for (int i = 0; i < PLACES; i++) {
+        if (places[i] == place) {
+          if (i % 6 == 5) {
+            return null;
+          }
+          if (i % 3 == 0) {
+            return retained[i];
+          }
+          StressActivity activity = new StressActivity();
+          if (created++ % 1000 == 0) {
+            sample.add(new WeakReference<StressActivity>(activity));
+          }
+          return activity;
+        }
+      }
+      throw new IllegalArgumentException();
+    }
+  };
+
+  private final ActivityManager manager = new ActivityManager(mapper, eventBus);
+
+  @Override
+  protected void setUp() {
+    for (int i = 0; i < PLACES; i++) {
+      places[i] = new MyPlace();
+      retained[i] = new StressActivity();
+    }
+    manager.addLifecycleListener(new ActivityLifecycleListener() {
+      @Override
+      public void onActivityStart(Activity activity) {
+        current = (StressActivity) activity;
+      }
+
+      @Override
+      public void onActivityStop(Activity activity) {
+        current = null;
+      }
+
+      @Override
+      public void onActivityCancel(Activity activity) {
+        current = null;
+      }
+    });
+  }
+
+  public void testSoak() {
+    attach();
+    int umbrellas = 0;
+
+    long start = System.nanoTime();
+    for (int op = 0; op < OPS; op++) {
+      int choice = random.nextInt(100);
+      try {
+        if (choice < 50) {
+          Place place = places[random.nextInt(PLACES)];
+          PlaceChangeRequestEvent request = new PlaceChangeRequestEvent(place);
+          eventBus.fireEvent(request);
+          assertNull(request.getWarning());
+          eventBus.fireEvent(new PlaceChangeEvent(place));
+        } else if (choice < 90) {
+          if (!outstanding.isEmpty()) {
+            Outstanding reply = outstanding.remove(random.nextInt(outstanding.size()));
+            reply.activity.present(reply.panel, reply.view);
+          }
+        } else if (choice < 96) {
+          MyEvent event = new MyEvent();
+          eventBus.fireEvent(event);
+        } else if (attached) {
+          detach();
+        } else {
+          attach();
+        }
+      } catch (UmbrellaException e) {
+        umbrellas++;
+        assertThrownByActivity(e);
+      }
+      checkInvariants();
+      if (outstanding.size() > 64) {
+        outstanding.subList(0, 32).clear();
+      }
+    }
+    long nanos = System.nanoTime() - start;
+
+    if (!attached) {
+      attach();
+    }
+    eventBus.fireEvent(new PlaceChangeEvent(places[5]));
+    checkInvariants();
+    assertEquals(0, runningCount);
+    assertEquals(0, eventBus.getHandlerCount(MyEvent.TYPE));
+    detach();
+    assertEquals(0, eventBus.getHandlerCount(PlaceChangeEvent.TYPE));
+    assertEquals(0, eventBus.getHandlerCount(PlaceChangeRequestEvent.TYPE));
+    assertTrue("no exceptions were exercised", umbrellas > 0);
+
+    outstanding.clear();
+    current = null;
+    long usedBytes = usedHeapAfterGc();
+    int leaked = leakedSampleCount();
+    System.out.println(String.format(
+        "ActivityManagerStressTest: %d ops in %d ms (%.0f ops/s), %d activities, "
+            + "%d umbrella exceptions, %d KiB used heap, seed %d",
+        OPS, nanos / 1000000, OPS * 1e9 / nanos, created, umbrellas, usedBytes / 1024,
+        SEED));
+    assertEquals("sampled activities still reachable after teardown", 0, leaked);
+  }
+
+  private void attach() {
+    manager.setDisplay(display);
+    attached = true;
+  }
+
+  /*
+   * Like an app dropping a region from its layout: the display is cleared,
+   * since the manager can no longer reach it.
+   */
+  private void detach() {
+    manager.setDisplay(null);
+    display.view = null;
+    attached = false;
+  }
+
+  private void checkInvariants() {
+    assertTrue("more than one running activity", runningCount <= 1);
+    assertEquals("activity handlers outlived their activity", runningCount,
+        eventBus.getHandlerCount(MyEvent.TYPE));
+    if (display.view != null) {
+      assertNotNull("display shows a widget while no activity runs", current);
+      assertSame("display shows a widget other than the current activity's", current.view,
+          display.view);
+    }
+  }
+
+  private void assertThrownByActivity(UmbrellaException e) {
+    for (Throwable cause : e.getCauses()) {
+      if (cause instanceof UmbrellaException) {
+        assertThrownByActivity((UmbrellaException) cause);
+      } else if (cause instanceof AssertionError) {
+        throw (AssertionError) cause;
+      } else {
+        assertTrue(cause.toString(), cause instanceof IllegalStateException);
+      }
+    }
+  }
+
+  private void check(boolean condition, String message) {
+    if (!condition) {
+      throw new AssertionError(message);
+    }
+  }
+
+  private int leakedSampleCount() {
+    WeakReference<Object> canary = new WeakReference<Object>(new Object());
+    for (int i = 0; i < 10 && canary.get() != null; i++) {
+      System.gc();
+    }
+    if (canary.get() != null) {
+      // Explicit GC is disabled, nothing to conclude
+      return 0;
+    }
+    int leaked = 0;
+    for (WeakReference<StressActivity> ref : sample) {
+      if (ref.get() != null) {
+        leaked++;
+      }
+    }
+    return leaked;
+  }
+
+  private static long usedHeapAfterGc() {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
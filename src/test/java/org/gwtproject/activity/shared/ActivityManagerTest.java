@@ -27,6 +27,8 @@ import org.gwtproject.user.client.ui.IsWidget;
 
 import com.google.gwt.user.client.ui.Widget;
 
+import java.util.function.Supplier;
+
 import junit.framework.TestCase;
 
 /**
@@ -297,6 +299,105 @@ public class ActivityManagerTest extends TestCase {
     assertEquals(ayncActivity2.view, realDisplay.view);
   }
 
+  public void testBootstrap() {
+    final int[] lookups = {0};
+    ActivityMapper map = new ActivityMapper() {
+      @Override
+      public Activity getActivity(Place place) {
+        lookups[0]++;
+        return myMap.getActivity(place);
+      }
+    };
+    manager = new ActivityManager(map, eventBus);
+
+    try {
+      manager.bootstrap(place1);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+
+    manager.setDisplay(realDisplay);
+    manager.bootstrap(place1);
+    assertEquals(activity1.view, realDisplay.view);
+
+    // History catches up with the same place: nothing is restarted
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    assertEquals(1, lookups[0]);
+    assertFalse(activity1.stopped);
+
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertEquals(activity2.view, realDisplay.view);
+    assertTrue(activity1.stopped);
+  }
+
+  public void testBootstrapThenOtherPlace() {
+    manager.setDisplay(realDisplay);
+    manager.bootstrap(place1);
+
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertEquals(activity2.view, realDisplay.view);
+    assertTrue(activity1.stopped);
+
+    // Only the first place change is checked against the bootstrap place
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    assertTrue(activity2.stopped);
+  }
+
+  public void testLazyMapper() {
+    final int[] built = {0};
+    manager = ActivityManager.withLazyMapper(new Supplier<ActivityMapper>() {
+      @Override
+      public ActivityMapper get() {
+        built[0]++;
+        return myMap;
+      }
+    }, eventBus);
+
+    manager.setDisplay(realDisplay);
+    assertEquals(0, built[0]);
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    assertEquals(1, built[0]);
+    assertEquals(activity1.view, realDisplay.view);
+
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertEquals(1, built[0]);
+    assertEquals(activity2.view, realDisplay.view);
+  }
+
+  public void testCanceledStartCannotUpstageRestart() {
+    final AsyncActivity asyncActivity1 = new AsyncActivity(new MyView());
+
+    ActivityMapper map = new ActivityMapper() {
+      @Override
+      public Activity getActivity(Place place) {
+        if (place.equals(place1)) {
+          return asyncActivity1;
+        }
+        return activity2;
+      }
+    };
+
+    manager = new ActivityManager(map, eventBus);
+    manager.setDisplay(realDisplay);
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    AcceptsOneWidget canceledDisplay = asyncActivity1.display;
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertTrue(asyncActivity1.canceled);
+
+    // Same instance started again, the first start replies late
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    assertNotSame(canceledDisplay, asyncActivity1.display);
+    MyView staleView = new MyView();
+    canceledDisplay.setWidget(staleView);
+    assertNull(realDisplay.view);
+
+    asyncActivity1.finish();
+    assertEquals(asyncActivity1.view, realDisplay.view);
+  }
+
   public void testDropHandlersOnStop() {
     manager.setDisplay(realDisplay);
 
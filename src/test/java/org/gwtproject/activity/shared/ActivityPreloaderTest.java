@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Eponymous unit test.
+ */
+public class ActivityPreloaderTest extends TestCase {
+
+  private static class HomePlace extends Place {
+  }
+
+  private static class OrdersPlace extends Place {
+  }
+
+  private static class ReportsPlace extends Place {
+  }
+
+  private static class AdminPlace extends Place {
+  }
+
+  private static class ProfilePlace extends Place {
+  }
+
+  private static class FakeScheduler implements TaskScheduler {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    @Override
+    public Task scheduleIdle(final Runnable task) {
+      tasks.add(task);
+      return () -> tasks.remove(task);
+    }
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        tasks.remove(0).run();
+      }
+    }
+  }
+
+  private class FakeLoader implements ActivityPreloader.FragmentLoader {
+    final List<String> started = new ArrayList<String>();
+    final List<ActivityPreloader.Callback> callbacks = new ArrayList<ActivityPreloader.Callback>();
+    final List<String> canceled = new ArrayList<String>();
+
+    @Override
+    public ActivityPreloader.Load load(final String fragment,
+        ActivityPreloader.Callback callback) {
+      started.add(fragment);
+      callbacks.add(callback);
+      return () -> canceled.add(fragment);
+    }
+
+    void complete(int index) {
+      now += 10;
+      callbacks.get(index).onSuccess();
+    }
+  }
+
+  private double now;
+  private final FakeScheduler scheduler = new FakeScheduler();
+  private final FakeLoader loader = new FakeLoader();
+  private final ActivityPreloader preloader =
+      new ActivityPreloader(loader, scheduler, () -> now, 2);
+  private final EventBus eventBus = new SimpleEventBus();
+  private final ActivityManager manager = new ActivityManager(place -> new AbstractActivity() {
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus bus) {
+      panel.setWidget(() -> null);
+    }
+  }, eventBus);
+
+  @Override
+  protected void setUp() {
+    manager.setDisplay(w -> { });
+    manager.addLifecycleListener(preloader);
+    preloader.declare(OrdersPlace.class, 0, "orders", "grid");
+    preloader.declare(ReportsPlace.class, 5, "reports", "grid");
+    preloader.declare(HomePlace.class, 0, "home");
+  }
+
+  public void testWaitsForInitialPresentation() {
+    assertTrue(scheduler.tasks.isEmpty());
+    eventBus.fireEvent(new PlaceChangeEvent(new HomePlace()));
+    assertEquals(1, scheduler.tasks.size());
+    assertTrue(loader.started.isEmpty());
+  }
+
+  public void testPriorityAndConcurrencyCap() {
+    eventBus.fireEvent(new PlaceChangeEvent(new HomePlace()));
+    scheduler.runAll();
+    assertEquals(2, loader.started.size());
+    assertEquals("grid", loader.started.get(0));
+    assertEquals("reports", loader.started.get(1));
+
+    loader.complete(1);
+    assertTrue(preloader.isLoaded("reports"));
+    assertEquals(10, preloader.getLoadTime("reports"), 0);
+    assertEquals(1, preloader.getLoadingCount());
+    scheduler.runAll();
+    // Home presented, so its own fragment is not preloaded
+    assertTrue(preloader.isLoaded("home"));
+    assertEquals("orders", loader.started.get(2));
+  }
+
+  public void testLearnedTransitions() {
+    preloader.declare(AdminPlace.class, 0, "admin");
+    preloader.declare(ProfilePlace.class, 0, "profile");
+    preloader.markLoaded("reports");
+    preloader.markLoaded("grid");
+    preloader.addTransitions(HomePlace.class, ProfilePlace.class, 1);
+    preloader.addTransitions(HomePlace.class, AdminPlace.class, 2);
+    preloader.addTransitions(OrdersPlace.class, ProfilePlace.class, 5);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new OrdersPlace()));
+    eventBus.fireEvent(new PlaceChangeEvent(new HomePlace()));
+    assertEquals(1, preloader.getTransitionCount(OrdersPlace.class, HomePlace.class));
+    scheduler.runAll();
+
+    // Ranked by where users go next from home
+    assertEquals("admin", loader.started.get(0));
+    assertEquals("profile", loader.started.get(1));
+  }
+
+  public void testFailedLoadsAreRetried() {
+    preloader.markLoaded("reports");
+    preloader.markLoaded("grid");
+    preloader.markLoaded("orders");
+    eventBus.fireEvent(new PlaceChangeEvent(new ReportsPlace()));
+    for (int attempt = 1; attempt <= ActivityPreloader.MAX_ATTEMPTS; attempt++) {
+      scheduler.runAll();
+      assertEquals(attempt, loader.started.size());
+      loader.callbacks.get(attempt - 1).onFailure(new RuntimeException());
+      // Not again until the next presentation
+      scheduler.runAll();
+      assertEquals(attempt, loader.started.size());
+      eventBus.fireEvent(new PlaceChangeEvent(new OrdersPlace()));
+    }
+    scheduler.runAll();
+    assertEquals(ActivityPreloader.MAX_ATTEMPTS, loader.started.size());
+  }
+
+  public void testThrowingLoader() {
+    ActivityPreloader throwing = new ActivityPreloader((fragment, callback) -> {
+      if (fragment.equals("grid")) {
+        throw new IllegalStateException();
+      }
+      return loader.load(fragment, callback);
+    }, scheduler, () -> now, 2);
+    throwing.declare(OrdersPlace.class, 0, "orders", "grid");
+    throwing.declare(ReportsPlace.class, 5, "reports", "grid");
+    throwing.onPlaceChange(new HomePlace());
+    throwing.onActivityPresented(null);
+    scheduler.runAll();
+
+    // The failure does not hold a slot, and the others still load
+    assertEquals(2, throwing.getLoadingCount());
+    assertEquals("reports", loader.started.get(0));
+    assertEquals("orders", loader.started.get(1));
+    assertFalse(throwing.isLoaded("grid"));
+  }
+
+  public void testNavigationCancels() {
+    eventBus.fireEvent(new PlaceChangeEvent(new HomePlace()));
+    scheduler.runAll();
+    assertEquals(2, preloader.getLoadingCount());
+
+    manager.onPlaceChange(new PlaceChangeEvent(new OrdersPlace()));
+    assertEquals(0, preloader.getLoadingCount());
+    assertEquals(2, loader.canceled.size());
+
+    // A late reply from a canceled load is ignored
+    loader.complete(1);
+    assertFalse(preloader.isLoaded("reports"));
+
+    scheduler.runAll();
+    // Orders presented, which loaded its fragments, grid included
+    assertEquals(3, loader.started.size());
+    assertEquals("reports", loader.started.get(2));
+  }
+
+  public void testCancelsScheduledTask() {
+    final boolean[] presenting = {false};
+    ActivityManager slow = new ActivityManager(place -> new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus bus) {
+        if (presenting[0]) {
+          panel.setWidget(() -> null);
+        }
+      }
+    }, eventBus);
+    ActivityPreloader other = new ActivityPreloader(loader, scheduler, () -> now, 1);
+    other.declare(HomePlace.class, 0, "home");
+    slow.addLifecycleListener(other);
+    slow.onPlaceChange(new PlaceChangeEvent(new HomePlace()));
+    slow.setDisplay(w -> { });
+    presenting[0] = true;
+    slow.onPlaceChange(new PlaceChangeEvent(new OrdersPlace()));
+    assertEquals(1, scheduler.tasks.size());
+    presenting[0] = false;
+    slow.onPlaceChange(new PlaceChangeEvent(new HomePlace()));
+    assertTrue(scheduler.tasks.isEmpty());
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class ActivityStateStoreTest extends TestCase {
+
+  private static class MyPlace extends Place {
+  }
+
+  private static class ScrollingActivity extends AbstractActivity
+      implements StatefulActivity<Integer> {
+    int scrollTop;
+    Integer restored;
+    boolean stopped;
+
+    @Override
+    public void restoreState(Integer state) {
+      restored = state;
+    }
+
+    @Override
+    public Integer saveState() {
+      return scrollTop;
+    }
+
+    @Override
+    public void onStop() {
+      stopped = true;
+    }
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      panel.setWidget(() -> null);
+    }
+  }
+
+  private static class SidebarActivity extends AbstractActivity
+      implements StatefulActivity<String> {
+    String filter;
+    String restored;
+
+    @Override
+    public void restoreState(String state) {
+      restored = state;
+    }
+
+    @Override
+    public String saveState() {
+      return filter;
+    }
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      panel.setWidget(() -> null);
+    }
+  }
+
+  private final MyPlace place1 = new MyPlace();
+  private final MyPlace place2 = new MyPlace();
+  private final MyPlace place3 = new MyPlace();
+
+  public void testLeastRecentlyUsedEviction() {
+    ActivityStateStore store = new ActivityStateStore(2);
+    store.put(place1, "one");
+    store.put(place2, "two");
+    assertEquals("one", store.take(place1));
+    store.put(place1, "one again");
+    store.put(place3, "three");
+
+    assertEquals(2, store.size());
+    assertNull(store.take(place2));
+    assertEquals("one again", store.take(place1));
+    assertNull(store.take(place1));
+    assertEquals(1, store.getWeight());
+  }
+
+  public void testWeightBound() {
+    ActivityStateStore store =
+        new ActivityStateStore(10, (place, state) -> state.toString().length());
+    store.put(place1, "12345");
+    store.put(place2, "1234");
+    assertEquals(9, store.getWeight());
+
+    store.put(place3, "123");
+    assertEquals(2, store.size());
+    assertNull(store.take(place1));
+
+    store.put(place1, "this one is far too heavy");
+    assertNull(store.take(place1));
+
+    assertEquals(1, store.trim(3));
+    assertEquals(3, store.getWeight());
+    store.setMaxWeight(0);
+    assertEquals(0, store.size());
+  }
+
+  public void testNullStateRemoves() {
+    ActivityStateStore store = new ActivityStateStore(2);
+    store.put(place1, "one");
+    store.put(place1, null);
+    assertEquals(0, store.size());
+    assertEquals(0, store.getWeight());
+  }
+
+  public void testManagerSavesAndRestores() {
+    final ScrollingActivity[] next = new ScrollingActivity[1];
+    EventBus eventBus = new SimpleEventBus();
+    ActivityManager manager = new ActivityManager(place -> {
+      next[0] = place == place3 ? null : new ScrollingActivity();
+      return next[0];
+    }, eventBus);
+    ActivityStateStore store = new ActivityStateStore(4);
+    manager.setStateStore(store);
+    manager.setDisplay(w -> { });
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    ScrollingActivity first = next[0];
+    assertNull(first.restored);
+    first.scrollTop = 42;
+
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertTrue(first.stopped);
+    assertEquals(1, store.size());
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    assertEquals(Integer.valueOf(42), next[0].restored);
+    assertNull(store.take(place1, ScrollingActivity.class));
+    assertEquals(Integer.valueOf(0), store.take(place2, ScrollingActivity.class));
+    assertNotSame(first, next[0]);
+  }
+
+  public void testStateIsSavedWhileTheViewIsShown() {
+    final IsWidget[] shown = new IsWidget[1];
+    final Activity[] started = new Activity[1];
+    EventBus eventBus = new SimpleEventBus();
+    ActivityManager manager = new ActivityManager(place -> new ScrollingActivity() {
+      final IsWidget view = () -> null;
+
+      @Override
+      public Integer saveState() {
+        // A real view loses its scroll position once detached
+        return shown[0] == view ? 42 : null;
+      }
+
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus bus) {
+        started[0] = this;
+        panel.setWidget(view);
+      }
+    }, eventBus);
+    ActivityStateStore store = new ActivityStateStore(4);
+    manager.setStateStore(store);
+    manager.setDisplay(w -> shown[0] = w);
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertEquals(Integer.valueOf(42), store.take(place1, started[0].getClass()));
+  }
+
+  public void testCanceledActivitySavesNothing() {
+    EventBus eventBus = new SimpleEventBus();
+    ActivityManager manager = new ActivityManager(place -> new ScrollingActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus bus) {
+      }
+    }, eventBus);
+    ActivityStateStore store = new ActivityStateStore(4);
+    manager.setStateStore(store);
+    manager.setDisplay(w -> { });
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertEquals(0, store.size());
+  }
+
+  public void testSharedStoreKeepsActivityTypesApart() {
+    EventBus eventBus = new SimpleEventBus();
+    ActivityStateStore store = new ActivityStateStore(4);
+    final ScrollingActivity[] main = new ScrollingActivity[1];
+    final SidebarActivity[] sidebar = new SidebarActivity[1];
+    ActivityManager mainManager = new ActivityManager(place -> {
+      main[0] = place == place3 ? null : new ScrollingActivity();
+      return main[0];
+    }, eventBus);
+    ActivityManager sidebarManager = new ActivityManager(place -> {
+      sidebar[0] = place == place3 ? null : new SidebarActivity();
+      return sidebar[0];
+    }, eventBus);
+    mainManager.setStateStore(store);
+    sidebarManager.setStateStore(store);
+    mainManager.setDisplay(w -> { });
+    sidebarManager.setDisplay(w -> { });
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    main[0].scrollTop = 7;
+    sidebar[0].filter = "open";
+    eventBus.fireEvent(new PlaceChangeEvent(place3));
+    assertEquals(2, store.size());
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    assertEquals(Integer.valueOf(7), main[0].restored);
+    assertEquals("open", sidebar[0].restored);
+  }
+
+  public void testStateIsSavedForTheLatestPlace() {
+    EventBus eventBus = new SimpleEventBus();
+    final ScrollingActivity shared = new ScrollingActivity();
+    ActivityManager manager =
+        new ActivityManager(place -> place == place3 ? null : shared, eventBus);
+    ActivityStateStore store = new ActivityStateStore(4);
+    manager.setStateStore(store);
+    manager.setDisplay(w -> { });
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    // The same activity carries on for another place
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    shared.scrollTop = 3;
+    eventBus.fireEvent(new PlaceChangeEvent(place3));
+    assertNull(store.take(place1, ScrollingActivity.class));
+    assertEquals(Integer.valueOf(3), store.take(place2, ScrollingActivity.class));
+  }
+}
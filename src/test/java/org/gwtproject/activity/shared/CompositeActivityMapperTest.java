@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class CompositeActivityMapperTest extends TestCase {
+
+  private static class OrdersPlace extends Place {
+  }
+
+  private static class ReportsPlace extends Place {
+  }
+
+  private static class HelpPlace extends Place {
+  }
+
+  private static class FeatureMapper implements ActivityMapper {
+    final Class<? extends Place> type;
+    final Activity activity = new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      }
+    };
+    int asked;
+
+    FeatureMapper(Class<? extends Place> type) {
+      this.type = type;
+    }
+
+    @Override
+    public Activity getActivity(Place place) {
+      asked++;
+      return place.getClass() == type ? activity : null;
+    }
+  }
+
+  private final FeatureMapper orders = new FeatureMapper(OrdersPlace.class);
+  private final FeatureMapper reports = new FeatureMapper(ReportsPlace.class);
+  private final FeatureMapper help = new FeatureMapper(HelpPlace.class);
+
+  public void testAdaptiveOrder() {
+    CompositeActivityMapper mapper = new CompositeActivityMapper(orders, reports, help);
+    assertEquals(Arrays.asList(orders, reports, help), mapper.getOrder());
+
+    assertSame(help.activity, mapper.getActivity(new HelpPlace()));
+    assertEquals(Arrays.asList(help, orders, reports), mapper.getOrder());
+
+    assertSame(reports.activity, mapper.getActivity(new ReportsPlace()));
+    // Ties keep the current order
+    assertEquals(Arrays.asList(help, reports, orders), mapper.getOrder());
+    assertSame(reports.activity, mapper.getActivity(new ReportsPlace()));
+    assertEquals(Arrays.asList(reports, help, orders), mapper.getOrder());
+
+    help.asked = 0;
+    assertSame(reports.activity, mapper.getActivity(new ReportsPlace()));
+    assertEquals(0, help.asked);
+
+    assertNull(mapper.getActivity(new Place() { }));
+    assertEquals(3, mapper.getHitCount(reports));
+    assertEquals(1, mapper.getHitCount(help));
+    assertEquals(0, mapper.getHitCount(orders));
+    assertEquals(1, mapper.getMissCount());
+  }
+
+  public void testOwnership() {
+    CompositeActivityMapper mapper = new CompositeActivityMapper(help)
+        .add(orders, OrdersPlace.class)
+        .add(reports, ReportsPlace.class);
+    assertEquals(Arrays.asList(help), mapper.getOrder());
+
+    assertSame(reports.activity, mapper.getActivity(new ReportsPlace()));
+    assertEquals(0, orders.asked);
+    assertEquals(0, help.asked);
+    assertEquals(1, reports.asked);
+    assertEquals(1, mapper.getHitCount(reports));
+
+    // Unowned places still go through the chain
+    assertSame(help.activity, mapper.getActivity(new HelpPlace()));
+    assertEquals(0, orders.asked);
+
+    try {
+      mapper.add(help, OrdersPlace.class);
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  public void testOwnerFallsBackToChain() {
+    FeatureMapper fallback = new FeatureMapper(OrdersPlace.class);
+    CompositeActivityMapper mapper = new CompositeActivityMapper(fallback)
+        .add(reports, OrdersPlace.class);
+
+    assertSame(fallback.activity, mapper.getActivity(new OrdersPlace()));
+    assertEquals(1, reports.asked);
+    assertEquals(0, mapper.getHitCount(reports));
+    assertEquals(1, mapper.getHitCount(fallback));
+  }
+
+  public void testOwnedHitsDoNotRank() {
+    CompositeActivityMapper mapper = new CompositeActivityMapper(help, reports)
+        .add(reports, ReportsPlace.class);
+    for (int i = 0; i < 5; i++) {
+      mapper.getActivity(new ReportsPlace());
+    }
+    assertEquals(5, mapper.getHitCount(reports));
+    assertSame(help.activity, mapper.getActivity(new HelpPlace()));
+    assertEquals(Arrays.asList(help, reports), mapper.getOrder());
+  }
+
+  public void testOldHitsDecay() {
+    CompositeActivityMapper mapper = new CompositeActivityMapper(orders, reports);
+    for (int i = 0; i < 600; i++) {
+      mapper.getActivity(new OrdersPlace());
+    }
+    // Without decay reports would need 601 hits to overtake orders
+    int needed = 0;
+    while (mapper.getOrder().get(0) != reports) {
+      mapper.getActivity(new ReportsPlace());
+      needed++;
+    }
+    assertTrue("took " + needed, needed < 600);
+  }
+
+  public void testDuplicateDelegate() {
+    CompositeActivityMapper mapper = new CompositeActivityMapper(help);
+    try {
+      mapper.add(help);
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+    assertEquals(Arrays.asList(help), mapper.getOrder());
+  }
+}
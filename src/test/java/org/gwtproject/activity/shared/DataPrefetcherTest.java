@@ -0,0 +1,267 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class DataPrefetcherTest extends TestCase {
+
+  private static class ItemPlace extends Place {
+    final int id;
+
+    ItemPlace(int id) {
+      this.id = id;
+    }
+  }
+
+  private static class OtherPlace extends Place {
+  }
+
+  private static class Result implements ActivityDataCache.Callback<String> {
+    String value;
+    Throwable caught;
+
+    public void onFailure(Throwable caught) {
+      this.caught = caught;
+    }
+
+    public void onSuccess(String value) {
+      this.value = value;
+    }
+  }
+
+  private class ItemActivity extends AbstractActivity implements DataRequiringActivity {
+    final Result item = new Result();
+    PrefetchedData data;
+
+    public void acceptData(PrefetchedData data) {
+      this.data = data;
+    }
+
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      log.add("start");
+      data.get("item", item);
+    }
+  }
+
+  /**
+   * Stands in for an {@link ItemActivity} whose code is loaded on demand.
+   */
+  private class SplitActivity extends AbstractActivity
+      implements DelegatingActivity, DataRequiringActivity {
+    ItemActivity delegate;
+    PrefetchedData data;
+    Runnable onCodeLoaded;
+
+    public Activity getDelegate() {
+      return delegate;
+    }
+
+    public void acceptData(PrefetchedData data) {
+      this.data = data;
+    }
+
+    public void start(final AcceptsOneWidget panel, final EventBus eventBus) {
+      onCodeLoaded = () -> {
+        delegate = new ItemActivity();
+        delegate.acceptData(data);
+        delegate.start(panel, eventBus);
+      };
+    }
+  }
+
+  private static class RecordingPrefetcher extends DataPrefetcher {
+    final List<PrefetchedData> prefetched = new ArrayList<PrefetchedData>();
+
+    RecordingPrefetcher() {
+      super(null);
+    }
+
+    @Override
+    public PrefetchedData prefetch(Place place) {
+      PrefetchedData data = super.prefetch(place);
+      prefetched.add(data);
+      return data;
+    }
+  }
+
+  private final List<String> log = new ArrayList<String>();
+  private final List<ActivityDataCache.Callback<Object>> pending =
+      new ArrayList<ActivityDataCache.Callback<Object>>();
+  private final EventBus eventBus = new SimpleEventBus();
+  private final List<ItemActivity> activities = new ArrayList<ItemActivity>();
+  private ActivityManager manager;
+
+  private DataPrefetcher prefetcher(ActivityDataCache cache) {
+    return declare(new DataPrefetcher(cache));
+  }
+
+  private DataPrefetcher declare(DataPrefetcher prefetcher) {
+    return prefetcher.register(ItemPlace.class, (place, data) -> {
+      data.require("item", callback -> {
+        log.add("load " + ((ItemPlace) place).id);
+        pending.add(callback);
+      });
+      data.require("item", callback -> fail("declared twice"));
+    });
+  }
+
+  private void setUpManager(DataPrefetcher prefetcher) {
+    manager = new ActivityManager(place -> {
+      log.add("resolve");
+      if (place instanceof OtherPlace) {
+        return null;
+      }
+      ItemActivity activity = new ItemActivity();
+      activities.add(activity);
+      return activity;
+    }, eventBus);
+    manager.setDataPrefetcher(prefetcher);
+    manager.setDisplay(w -> { });
+  }
+
+  public void testLoadsBeforeResolving() {
+    DataPrefetcher prefetcher = prefetcher(null);
+    setUpManager(prefetcher);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new ItemPlace(1)));
+    assertEquals("load 1", log.get(0));
+    assertEquals("resolve", log.get(1));
+    assertEquals("start", log.get(2));
+    assertEquals(1, prefetcher.getPrefetchCount());
+
+    ItemActivity activity = activities.get(0);
+    assertNull(activity.item.value);
+    pending.get(0).onSuccess("one");
+    assertEquals("one", activity.item.value);
+
+    // A value that has arrived is handed over at once
+    Result again = new Result();
+    activity.data.get("item", again);
+    assertEquals("one", again.value);
+    try {
+      activity.data.get("other", again);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testUnchangedActivityKeepsItsData() {
+    final ItemActivity activity = new ItemActivity();
+    RecordingPrefetcher prefetcher = new RecordingPrefetcher();
+    manager = new ActivityManager(place -> activity, eventBus);
+    manager.setDataPrefetcher(declare(prefetcher));
+    manager.setDisplay(w -> { });
+
+    eventBus.fireEvent(new PlaceChangeEvent(new ItemPlace(1)));
+    eventBus.fireEvent(new PlaceChangeEvent(new ItemPlace(2)));
+    assertEquals(2, prefetcher.prefetched.size());
+    assertSame(prefetcher.prefetched.get(0), activity.data);
+    assertFalse(activity.data.isCanceled());
+    assertTrue(prefetcher.prefetched.get(1).isCanceled());
+  }
+
+  public void testThrowingMapperCancelsLoads() {
+    RecordingPrefetcher prefetcher = new RecordingPrefetcher();
+    manager = new ActivityManager(place -> {
+      throw new IllegalStateException();
+    }, eventBus);
+    manager.setDataPrefetcher(declare(prefetcher));
+    manager.setDisplay(w -> { });
+
+    try {
+      eventBus.fireEvent(new PlaceChangeEvent(new ItemPlace(1)));
+      fail();
+    } catch (RuntimeException expected) {
+    }
+    assertEquals(1, prefetcher.prefetched.size());
+    assertTrue(prefetcher.prefetched.get(0).isCanceled());
+  }
+
+  public void testSplitActivityPassesLoadsOn() {
+    final SplitActivity split = new SplitActivity();
+    manager = new ActivityManager(place -> {
+      log.add("resolve");
+      return place instanceof OtherPlace ? null : split;
+    }, eventBus);
+    manager.setDataPrefetcher(prefetcher(null));
+    manager.setDisplay(w -> { });
+
+    eventBus.fireEvent(new PlaceChangeEvent(new ItemPlace(1)));
+    assertEquals("load 1", log.get(0));
+    assertEquals("resolve", log.get(1));
+    assertNotNull(split.data);
+
+    // The data arrives before the code
+    pending.get(0).onSuccess("one");
+    split.onCodeLoaded.run();
+    assertSame(split.data, split.delegate.data);
+    assertEquals("one", split.delegate.item.value);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new OtherPlace()));
+    assertTrue(split.data.isCanceled());
+  }
+
+  public void testCanceledActivityGetsNothing() {
+    setUpManager(prefetcher(null));
+    eventBus.fireEvent(new PlaceChangeEvent(new ItemPlace(1)));
+    eventBus.fireEvent(new PlaceChangeEvent(new OtherPlace()));
+
+    PrefetchedData data = activities.get(0).data;
+    assertTrue(data.isCanceled());
+    pending.get(0).onSuccess("late");
+    assertNull(activities.get(0).item.value);
+    assertFalse(data.isDone("item"));
+  }
+
+  public void testLoadsGoThroughTheCache() {
+    ActivityDataCache cache = new ActivityDataCache(10);
+    setUpManager(prefetcher(cache));
+    eventBus.fireEvent(new PlaceChangeEvent(new ItemPlace(1)));
+    pending.get(0).onFailure(new IllegalStateException());
+    assertTrue(activities.get(0).item.caught instanceof IllegalStateException);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new ItemPlace(2)));
+    pending.get(1).onSuccess("two");
+    eventBus.fireEvent(new PlaceChangeEvent(new OtherPlace()));
+    eventBus.fireEvent(new PlaceChangeEvent(new ItemPlace(2)));
+    assertEquals(2, pending.size());
+    assertEquals("two", activities.get(2).item.value);
+    assertEquals(1, cache.getHitCount());
+  }
+
+  public void testUndeclaredPlaces() {
+    DataPrefetcher prefetcher = prefetcher(null);
+    assertNull(prefetcher.prefetch(new OtherPlace()));
+    try {
+      prefetcher.register(ItemPlace.class, (place, data) -> { });
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
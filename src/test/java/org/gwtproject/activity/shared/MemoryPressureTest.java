@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import com.google.gwt.user.client.ui.Widget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class MemoryPressureTest extends TestCase {
+
+  private static class MyPlace extends Place {
+  }
+
+  private static class MyView implements IsWidget {
+    public Widget asWidget() {
+      return null;
+    }
+  }
+
+  private final MemoryPressure pressure = new MemoryPressure();
+  private final List<String> shrunk = new ArrayList<String>();
+
+  @Override
+  protected void setUp() {
+    pressure.addListener(new ActivityLifecycleListener() {
+      @Override
+      public void onCacheShrunk(Shrinkable cache, MemoryPressure.Level level, int dropped) {
+        shrunk.add(cache.getClass().getSimpleName() + " " + level + " " + dropped);
+      }
+    });
+  }
+
+  public void testPriorityOrder() {
+    final int[] views = {0};
+    Shrinkable empty = level -> 0;
+    Shrinkable some = level -> 3;
+    Shrinkable last = level -> {
+      views[0]++;
+      return 1;
+    };
+    pressure.register(last, 10);
+    pressure.register(some, 5);
+    HandlerRegistration registration = pressure.register(empty, 0);
+
+    // Moderate pressure stops at the first cache that gave something up
+    assertEquals(3, pressure.signal(MemoryPressure.Level.MODERATE));
+    assertEquals(0, views[0]);
+    assertEquals(2, shrunk.size());
+
+    assertEquals(4, pressure.signal(MemoryPressure.Level.CRITICAL));
+    assertEquals(1, views[0]);
+    assertEquals(5, shrunk.size());
+
+    registration.removeHandler();
+    shrunk.clear();
+    pressure.signal(MemoryPressure.Level.CRITICAL);
+    assertEquals(2, shrunk.size());
+  }
+
+  public void testCaches() {
+    ActivityStateStore states = new ActivityStateStore(10);
+    for (int i = 0; i < 4; i++) {
+      states.put(new MyPlace(), i);
+    }
+    ViewPool views = new ViewPool(4);
+    List<MyView> lent = new ArrayList<MyView>();
+    for (int i = 0; i < 4; i++) {
+      lent.add(views.get(MyView.class, MyView::new));
+    }
+    for (MyView view : lent) {
+      views.release(view);
+    }
+    PlaceInterner places = new PlaceInterner(10);
+    for (int i = 0; i < 3; i++) {
+      places.intern(new MyPlace());
+    }
+
+    assertEquals(2, states.shrink(MemoryPressure.Level.MODERATE));
+    assertEquals(2, states.size());
+    assertEquals(2, views.shrink(MemoryPressure.Level.MODERATE));
+    assertEquals(2, views.getIdleCount(MyView.class));
+    assertEquals(2, places.shrink(MemoryPressure.Level.MODERATE));
+    assertEquals(1, places.size());
+
+    pressure.register(states, 0);
+    pressure.register(views, 1);
+    pressure.register(places, 2);
+    assertEquals(5, pressure.signal(MemoryPressure.Level.CRITICAL));
+    assertEquals(0, states.size());
+    assertEquals(0, views.getIdleCount(MyView.class));
+    assertEquals(0, places.size());
+    assertEquals("[ActivityStateStore CRITICAL 2, ViewPool CRITICAL 2, PlaceInterner CRITICAL 1]",
+        shrunk.toString());
+  }
+}
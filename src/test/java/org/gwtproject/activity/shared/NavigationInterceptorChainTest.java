@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.event.shared.UmbrellaException;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class NavigationInterceptorChainTest extends TestCase {
+
+  private static class NamedPlace extends Place {
+    final String name;
+
+    NamedPlace(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof NamedPlace && name.equals(((NamedPlace) obj).name);
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode();
+    }
+  }
+
+  private static class NamedActivity extends AbstractActivity {
+    final String name;
+    boolean stopped;
+
+    NamedActivity(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void onStop() {
+      stopped = true;
+    }
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      panel.setWidget(null);
+    }
+  }
+
+  private final NamedPlace home = new NamedPlace("home");
+  private final NamedPlace account = new NamedPlace("account");
+  private final NamedPlace login = new NamedPlace("login");
+  private final NamedPlace legacy = new NamedPlace("legacy");
+  private final NamedPlace locked = new NamedPlace("locked");
+
+  private boolean loggedIn;
+  private int authChecks;
+
+  private final NavigationInterceptor auth = place -> {
+    authChecks++;
+    return place.equals(account) && !loggedIn
+        ? NavigationInterceptor.Decision.redirect(login)
+        : NavigationInterceptor.Decision.pass();
+  };
+  private final NavigationInterceptor legacyRoutes = place -> place.equals(legacy)
+      ? NavigationInterceptor.Decision.redirect(account)
+      : NavigationInterceptor.Decision.pass();
+  private final NavigationInterceptor lock = place -> place.equals(locked)
+      ? NavigationInterceptor.Decision.veto()
+      : NavigationInterceptor.Decision.pass();
+
+  private final NavigationInterceptorChain chain =
+      new NavigationInterceptorChain(16).add(auth).add(legacyRoutes).add(lock);
+
+  public void testResolve() {
+    assertEquals(home, chain.resolve(home));
+    assertEquals(login, chain.resolve(account));
+    // Redirected, then redirected again by the first interceptor
+    assertEquals(login, chain.resolve(legacy));
+    assertNull(chain.resolve(locked));
+  }
+
+  public void testOutcomesAreRemembered() {
+    chain.resolve(account);
+    int checks = authChecks;
+    assertEquals(login, chain.resolve(account));
+    assertEquals(checks, authChecks);
+    assertEquals(1, chain.getHitCount());
+
+    loggedIn = true;
+    assertEquals(login, chain.resolve(account));
+    chain.invalidate();
+    assertEquals(account, chain.resolve(account));
+    assertEquals(account, chain.resolve(new NamedPlace("legacy")));
+  }
+
+  public void testUncachedDecisions() {
+    NavigationInterceptorChain uncached = new NavigationInterceptorChain(16)
+        .add(place -> auth.intercept(place).uncached());
+    uncached.resolve(account);
+    uncached.resolve(account);
+    assertEquals(0, uncached.getHitCount());
+    assertEquals(2, uncached.getMissCount());
+    loggedIn = true;
+    assertEquals(account, uncached.resolve(account));
+  }
+
+  public void testRedirectLoop() {
+    NavigationInterceptorChain loop = new NavigationInterceptorChain(16)
+        .add(place -> NavigationInterceptor.Decision.redirect(
+            place.equals(home) ? account : home));
+    try {
+      loop.resolve(home);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+  }
+
+  public void testManager() {
+    SimpleEventBus eventBus = new SimpleEventBus();
+    ActivityManager manager = new ActivityManager(
+        place -> new NamedActivity(((NamedPlace) place).name), eventBus);
+    final NamedActivity[] current = new NamedActivity[1];
+    manager.addLifecycleListener(new ActivityLifecycleListener() {
+      @Override
+      public void onActivityStart(Activity activity) {
+        current[0] = (NamedActivity) activity;
+      }
+    });
+    manager.setInterceptorChain(chain);
+    manager.setDisplay(w -> { });
+
+    eventBus.fireEvent(new PlaceChangeEvent(home));
+    NamedActivity homeActivity = current[0];
+    assertEquals("home", homeActivity.name);
+
+    eventBus.fireEvent(new PlaceChangeEvent(locked));
+    assertSame(homeActivity, current[0]);
+    assertFalse(homeActivity.stopped);
+
+    eventBus.fireEvent(new PlaceChangeEvent(account));
+    assertEquals("login", current[0].name);
+    assertTrue(homeActivity.stopped);
+  }
+
+  public void testManagerReportsRedirectLoop() {
+    final NamedActivity homeActivity = new NamedActivity("home");
+    ActivityManager manager = new ActivityManager(place -> homeActivity, new SimpleEventBus());
+    manager.setInterceptorChain(new NavigationInterceptorChain(16)
+        .add(place -> place.equals(home) ? NavigationInterceptor.Decision.pass()
+            : NavigationInterceptor.Decision.redirect(
+                place.equals(login) ? account : login)));
+    manager.setDisplay(w -> { });
+    manager.onPlaceChange(new PlaceChangeEvent(home));
+    try {
+      manager.onPlaceChange(new PlaceChangeEvent(account));
+      fail("expected UmbrellaException");
+    } catch (UmbrellaException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+    assertFalse(homeActivity.stopped);
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class NavigationTraceRecorderTest extends TestCase {
+
+  private static class NamedPlace extends Place {
+    final String name;
+
+    NamedPlace(String name) {
+      this.name = name;
+    }
+  }
+
+  private static class FakeClock implements Clock {
+    double now = 1000;
+
+    @Override
+    public double now() {
+      return now;
+    }
+  }
+
+  private static class SlowActivity extends AbstractActivity {
+    AcceptsOneWidget panel;
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      this.panel = panel;
+    }
+  }
+
+  private static class FastActivity extends AbstractActivity {
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      panel.setWidget(VIEW);
+    }
+  }
+
+  private class RedirectingActivity extends AbstractActivity {
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus bus) {
+      eventBus.fireEvent(new PlaceChangeEvent(home));
+    }
+  }
+
+  private static final IsWidget VIEW = () -> null;
+
+  private final NamedPlace home = new NamedPlace("home");
+  private final NamedPlace about = new NamedPlace("about me");
+  private final NamedPlace nowhere = new NamedPlace("nowhere");
+  private final NamedPlace login = new NamedPlace("login");
+
+  private final FastActivity fast = new FastActivity();
+  private final SlowActivity slow = new SlowActivity();
+
+  private final FakeClock clock = new FakeClock();
+  private final EventBus eventBus = new SimpleEventBus();
+  private final ActivityManager manager = new ActivityManager(place -> {
+    if (place == home) {
+      return fast;
+    }
+    if (place == about) {
+      return slow;
+    }
+    if (place == login) {
+      return new RedirectingActivity();
+    }
+    return null;
+  }, eventBus);
+
+  private final NavigationTraceRecorder recorder =
+      new NavigationTraceRecorder(place -> ((NamedPlace) place).name, clock);
+
+  @Override
+  protected void setUp() {
+    manager.setDisplay(w -> { });
+    manager.addLifecycleListener(recorder);
+  }
+
+  public void testRecord() {
+    eventBus.fireEvent(new PlaceChangeEvent(home));
+    clock.now += 5;
+    eventBus.fireEvent(new PlaceChangeEvent(about));
+    clock.now += 20;
+    slow.panel.setWidget(VIEW);
+    clock.now += 3;
+    eventBus.fireEvent(new PlaceChangeEvent(nowhere));
+
+    assertEquals(""
+        + "0 P home\n"
+        + "0 R 1 NavigationTraceRecorderTest$FastActivity\n"
+        + "0 S 1\n"
+        + "0 W 1\n"
+        + "0 E 1\n"
+        + "5 P about me\n"
+        + "5 R 2 NavigationTraceRecorderTest$SlowActivity\n"
+        + "5 X 1\n"
+        + "5 S 2\n"
+        + "5 E 2\n"
+        + "25 W 2\n"
+        + "28 P nowhere\n"
+        + "28 R -\n"
+        + "28 X 2\n", recorder.getTrace().toString());
+  }
+
+  public void testRecordCancel() {
+    eventBus.fireEvent(new PlaceChangeEvent(about));
+    eventBus.fireEvent(new PlaceChangeEvent(home));
+
+    NavigationTrace trace = recorder.getTrace();
+    NavigationTrace.Entry cancel = trace.getEntries().get(6);
+    assertEquals(NavigationTrace.Kind.CANCEL, cancel.getKind());
+    assertEquals(1, cancel.getActivityId());
+  }
+
+  public void testSameActivityKeepsItsId() {
+    eventBus.fireEvent(new PlaceChangeEvent(home));
+    eventBus.fireEvent(new PlaceChangeEvent(about));
+    eventBus.fireEvent(new PlaceChangeEvent(home));
+
+    NavigationTrace.Entry resolved = recorder.getTrace().getEntries().get(11);
+    assertEquals(NavigationTrace.Kind.RESOLVED, resolved.getKind());
+    assertEquals(1, resolved.getActivityId());
+
+    recorder.reset();
+    assertTrue(recorder.getTrace().getEntries().isEmpty());
+  }
+
+  public void testRedirectWhileStarting() {
+    eventBus.fireEvent(new PlaceChangeEvent(login));
+
+    assertEquals(""
+        + "0 P login\n"
+        + "0 R 1 NavigationTraceRecorderTest$RedirectingActivity\n"
+        + "0 S 1\n"
+        + "0 P home\n"
+        + "0 R 2 NavigationTraceRecorderTest$FastActivity\n"
+        + "0 C 1\n"
+        + "0 S 2\n"
+        + "0 W 2\n"
+        + "0 E 2\n"
+        + "0 E 1\n", recorder.getTrace().toString());
+  }
+
+  public void testParseRoundTrip() {
+    NamedPlace odd = new NamedPlace("line\nbreak\\slash");
+    eventBus.fireEvent(new PlaceChangeEvent(odd));
+    eventBus.fireEvent(new PlaceChangeEvent(home));
+    eventBus.fireEvent(new PlaceChangeEvent(about));
+
+    String text = recorder.getTrace().toString();
+    NavigationTrace parsed = NavigationTrace.parse(text);
+    assertEquals(text, parsed.toString());
+    assertEquals(odd.name, parsed.getEntries().get(0).getValue());
+    assertNull(parsed.getEntries().get(1).getValue());
+  }
+
+  public void testParseRejectsGarbage() {
+    try {
+      NavigationTrace.parse("0 Q 1\n");
+      fail();
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+}
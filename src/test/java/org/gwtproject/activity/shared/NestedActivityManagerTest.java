@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.place.shared.PlaceChangeRequestEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import com.google.gwt.user.client.ui.Widget;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Eponymous unit test.
+ */
+public class NestedActivityManagerTest extends TestCase {
+
+  private static class PathPlace extends Place implements HierarchicalPlace {
+    final String path;
+
+    PathPlace(String path) {
+      this.path = path;
+    }
+
+    @Override
+    public Place getParentPlace() {
+      int slash = path.lastIndexOf('/');
+      return slash < 0 ? null : new PathPlace(path.substring(0, slash));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof PathPlace && path.equals(((PathPlace) obj).path);
+    }
+
+    @Override
+    public int hashCode() {
+      return path.hashCode();
+    }
+  }
+
+  private static class MyDisplay implements AcceptsOneWidget {
+    IsWidget view;
+
+    @Override
+    public void setWidget(IsWidget view) {
+      this.view = view;
+    }
+  }
+
+  private static class MyView implements IsWidget {
+    @Override
+    public Widget asWidget() {
+      return null;
+    }
+  }
+
+  private class LevelActivity implements ParentActivity {
+    final String path;
+    final MyView view = new MyView();
+    final MyDisplay childDisplay = new MyDisplay();
+    AcceptsOneWidget panel;
+    boolean async;
+    String warning;
+
+    LevelActivity(String path) {
+      this.path = path;
+    }
+
+    @Override
+    public AcceptsOneWidget getChildDisplay(Place childPlace) {
+      return childDisplay;
+    }
+
+    @Override
+    public String mayStop() {
+      return warning;
+    }
+
+    @Override
+    public void onCancel() {
+      log.add("cancel " + path);
+    }
+
+    @Override
+    public void onStop() {
+      log.add("stop " + path);
+    }
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      log.add("start " + path);
+      this.panel = panel;
+      if (!async) {
+        panel.setWidget(view);
+      }
+    }
+  }
+
+  private final List<String> log = new ArrayList<String>();
+  private final List<LevelActivity> created = new ArrayList<LevelActivity>();
+  private final List<String> asyncPaths = new ArrayList<String>();
+  private final MyDisplay display = new MyDisplay();
+  private final EventBus eventBus = new SimpleEventBus();
+
+  private final NestedActivityManager manager = new NestedActivityManager(place -> {
+    LevelActivity activity = new LevelActivity(((PathPlace) place).path);
+    activity.async = asyncPaths.contains(activity.path);
+    created.add(activity);
+    return activity;
+  }, eventBus);
+
+  @Override
+  protected void setUp() {
+    manager.setDisplay(display);
+  }
+
+  public void testStartsWholePath() {
+    goTo("app/orders/42");
+
+    assertEquals(3, manager.getDepth());
+    assertLog("start app", "start app/orders", "start app/orders/42");
+    assertEquals(activity("app").view, display.view);
+    assertEquals(activity("app/orders").view, activity("app").childDisplay.view);
+    assertEquals(activity("app/orders/42").view, activity("app/orders").childDisplay.view);
+  }
+
+  public void testRestartsOnlyDeepestDifference() {
+    goTo("app/orders/42");
+    LevelActivity orders = activity("app/orders");
+    log.clear();
+
+    goTo("app/orders/43");
+    assertLog("stop app/orders/42", "start app/orders/43");
+    assertEquals(activity("app/orders/43").view, orders.childDisplay.view);
+
+    log.clear();
+    goTo("app/customers/7");
+    assertLog("stop app/orders/43", "stop app/orders", "start app/customers",
+        "start app/customers/7");
+  }
+
+  public void testNavigateUp() {
+    goTo("app/orders/42");
+    LevelActivity orders = activity("app/orders");
+    log.clear();
+
+    goTo("app/orders");
+    assertLog("stop app/orders/42");
+    assertEquals(2, manager.getDepth());
+    assertNull(orders.childDisplay.view);
+  }
+
+  public void testChildWaitsForParent() {
+    asyncPaths.add("app/orders");
+    goTo("app/orders/42");
+    assertLog("start app", "start app/orders");
+
+    LevelActivity orders = activity("app/orders");
+    orders.panel.setWidget(orders.view);
+    assertLog("start app", "start app/orders", "start app/orders/42");
+  }
+
+  public void testCancelWaitingParent() {
+    asyncPaths.add("app/orders");
+    goTo("app/orders/42");
+    LevelActivity orders = activity("app/orders");
+    log.clear();
+
+    goTo("app/customers/7");
+    assertLog("cancel app/orders", "start app/customers", "start app/customers/7");
+
+    // A late reply from the canceled level changes nothing
+    orders.panel.setWidget(orders.view);
+    assertNull(orders.childDisplay.view);
+    assertEquals(3, manager.getDepth());
+  }
+
+  public void testMayStopAsksOnlyStoppingLevels() {
+    goTo("app/orders/42");
+    activity("app").warning = "app warning";
+    activity("app/orders").warning = "orders warning";
+
+    PlaceChangeRequestEvent request = new PlaceChangeRequestEvent(new PathPlace("app/orders/43"));
+    eventBus.fireEvent(request);
+    assertNull(request.getWarning());
+
+    request = new PlaceChangeRequestEvent(new PathPlace("app/customers"));
+    eventBus.fireEvent(request);
+    assertEquals("orders warning", request.getWarning());
+  }
+
+  public void testNullDisplayStopsEverything() {
+    goTo("app/orders/42");
+    log.clear();
+
+    manager.setDisplay(null);
+    manager.onPlaceChange(new PlaceChangeEvent(new PathPlace("app/orders/42")));
+    assertLog("stop app/orders/42", "stop app/orders", "stop app");
+    assertEquals(0, manager.getDepth());
+  }
+
+  private LevelActivity activity(String path) {
+    for (int i = created.size() - 1; i >= 0; i--) {
+      if (created.get(i).path.equals(path)) {
+        return created.get(i);
+      }
+    }
+    throw new AssertionError("no activity for " + path);
+  }
+
+  private void assertLog(String... expected) {
+    assertEquals(Arrays.asList(expected), log);
+  }
+
+  private void goTo(String path) {
+    eventBus.fireEvent(new PlaceChangeEvent(new PathPlace(path)));
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class PlaceInternerTest extends TestCase {
+
+  private static class OrderPlace extends CachedHashPlace {
+    static int hashed;
+    static int compared;
+
+    final String id;
+
+    OrderPlace(String id) {
+      this.id = id;
+    }
+
+    @Override
+    protected int computeHashCode() {
+      hashed++;
+      return id.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      compared++;
+      return hashEquals(obj) && id.equals(((OrderPlace) obj).id);
+    }
+  }
+
+  @Override
+  protected void setUp() {
+    OrderPlace.hashed = 0;
+    OrderPlace.compared = 0;
+  }
+
+  public void testIntern() {
+    PlaceInterner interner = new PlaceInterner(2);
+    OrderPlace first = new OrderPlace("1");
+    assertSame(first, interner.intern(first));
+    assertSame(first, interner.intern(new OrderPlace("1")));
+    assertNotSame(first, interner.intern(new OrderPlace("2")));
+    assertNull(interner.intern(null));
+    assertEquals(1, interner.getHitCount());
+    assertEquals(2, interner.getMissCount());
+
+    // Touch "1" so that "2" is the one dropped
+    interner.intern(new OrderPlace("1"));
+    interner.intern(new OrderPlace("3"));
+    assertEquals(2, interner.size());
+    assertSame(first, interner.filter(new OrderPlace("1")));
+
+    interner.clear();
+    assertEquals(0, interner.size());
+  }
+
+  public void testCachedHash() {
+    OrderPlace place = new OrderPlace("42");
+    assertEquals("42".hashCode(), place.hashCode());
+    assertEquals(place.hashCode(), place.hashCode());
+    assertEquals(1, OrderPlace.hashed);
+
+    assertFalse(place.equals(new OrderPlace("43")));
+    assertFalse(place.equals(null));
+    assertFalse(place.equals(new Place() { }));
+    assertTrue(place.equals(new OrderPlace("42")));
+  }
+
+  public void testCachingMapperUsesIdentity() {
+    final Activity activity = new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      }
+    };
+    final int[] lookups = {0};
+    PlaceInterner interner = new PlaceInterner(16);
+    ActivityMapper mapper = new FilteredActivityMapper(interner,
+        new CachingActivityMapper(place -> {
+          lookups[0]++;
+          return activity;
+        }));
+
+    mapper.getActivity(new OrderPlace("7"));
+    OrderPlace.compared = 0;
+    mapper.getActivity(new OrderPlace("7"));
+    mapper.getActivity(new OrderPlace("7"));
+    assertEquals(1, lookups[0]);
+    // Only the interner's map compares places; the cache check does not
+    assertEquals(2, OrderPlace.compared);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import com.google.gwt.user.client.ui.Widget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class ProgressiveDisplayTest extends TestCase {
+
+  private static class MyView implements IsWidget {
+    public Widget asWidget() {
+      return null;
+    }
+  }
+
+  private static class SkeletonActivity extends AbstractActivity {
+    final MyView skeleton = new MyView();
+    final MyView view = new MyView();
+    AcceptsOneWidget panel;
+    boolean canceled;
+
+    @Override
+    public void onCancel() {
+      canceled = true;
+    }
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      this.panel = panel;
+      ((ProgressiveDisplay) panel).setInterimWidget(skeleton);
+    }
+
+    void finish() {
+      panel.setWidget(view);
+    }
+  }
+
+  private final Place place1 = new Place() { };
+  private final Place place2 = new Place() { };
+  private final SkeletonActivity activity1 = new SkeletonActivity();
+  private final SkeletonActivity activity2 = new SkeletonActivity();
+  private final SimpleEventBus eventBus = new SimpleEventBus();
+  private final List<String> events = new ArrayList<String>();
+  private final List<IsWidget> shown = new ArrayList<IsWidget>();
+
+  @Override
+  protected void setUp() {
+    ActivityManager manager =
+        new ActivityManager(place -> place == place1 ? activity1 : activity2, eventBus);
+    manager.addLifecycleListener(new ActivityLifecycleListener() {
+      @Override
+      public void onActivityInterimPresented(Activity activity) {
+        events.add("interim " + (activity == activity1 ? 1 : 2));
+      }
+
+      @Override
+      public void onActivityPresented(Activity activity) {
+        events.add("presented " + (activity == activity1 ? 1 : 2));
+      }
+
+      @Override
+      public void onActivityCancel(Activity activity) {
+        events.add("cancel " + (activity == activity1 ? 1 : 2));
+      }
+    });
+    manager.setDisplay(shown::add);
+  }
+
+  public void testInterimThenFinal() {
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    assertSame(activity1.skeleton, last());
+    activity1.finish();
+    assertSame(activity1.view, last());
+    assertEquals("[interim 1, presented 1]", events.toString());
+  }
+
+  public void testInterimCanStillBeCanceled() {
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertTrue(activity1.canceled);
+    // The skeleton was taken down before the next activity started
+    assertEquals(3, shown.size());
+    assertNull(shown.get(1));
+    assertSame(activity2.skeleton, last());
+
+    // A late final widget of the canceled activity is ignored
+    activity1.finish();
+    assertSame(activity2.skeleton, last());
+    activity2.finish();
+    assertEquals("[interim 1, cancel 1, interim 2, presented 2]", events.toString());
+  }
+
+  private IsWidget last() {
+    return shown.get(shown.size() - 1);
+  }
+}
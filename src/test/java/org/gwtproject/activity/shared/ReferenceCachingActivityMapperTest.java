@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class ReferenceCachingActivityMapperTest extends TestCase {
+
+  private static class MyPlace extends Place {
+  }
+
+  private static class MyActivity extends AbstractActivity {
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+    }
+  }
+
+  private final MyPlace place1 = new MyPlace();
+  private final MyPlace place2 = new MyPlace();
+  private int calls;
+
+  private final ActivityMapper counting = new ActivityMapper() {
+    public Activity getActivity(Place place) {
+      calls++;
+      return place == place2 ? null : new MyActivity();
+    }
+  };
+
+  public void testHitsAndMisses() {
+    ReferenceCachingActivityMapper mapper = new ReferenceCachingActivityMapper(
+        counting, ReferenceCachingActivityMapper.Strength.SOFT);
+    Activity first = mapper.getActivity(place1);
+    assertSame(first, mapper.getActivity(place1));
+    assertNull(mapper.getActivity(place2));
+    assertNull(mapper.getActivity(place2));
+
+    assertEquals(3, calls);
+    assertEquals(1, mapper.getHitCount());
+    assertEquals(3, mapper.getMissCount());
+    assertEquals(1, mapper.size());
+
+    mapper.clear();
+    assertNotSame(first, mapper.getActivity(place1));
+  }
+
+  public void testShrink() {
+    ReferenceCachingActivityMapper mapper = new ReferenceCachingActivityMapper(
+        counting, ReferenceCachingActivityMapper.Strength.SOFT);
+    Activity held = mapper.getActivity(place1);
+    assertEquals(0, mapper.shrink(MemoryPressure.Level.MODERATE));
+    assertSame(held, mapper.getActivity(place1));
+    assertEquals(1, mapper.shrink(MemoryPressure.Level.CRITICAL));
+    assertEquals(0, mapper.size());
+  }
+
+  public void testWeakEntriesAreCollected() throws InterruptedException {
+    ReferenceCachingActivityMapper mapper = new ReferenceCachingActivityMapper(
+        counting, ReferenceCachingActivityMapper.Strength.WEAK);
+    List<Place> places = new ArrayList<Place>();
+    for (int i = 0; i < 10; i++) {
+      places.add(new MyPlace());
+      mapper.getActivity(places.get(i));
+    }
+    Activity held = mapper.getActivity(place1);
+
+    WeakReference<Object> canary = new WeakReference<Object>(new Object());
+    for (int i = 0; i < 50 && (canary.get() != null || mapper.size() > 1); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    if (canary.get() != null) {
+      // This VM does not collect on request; nothing to check
+      return;
+    }
+    assertEquals(1, mapper.size());
+    assertSame(held, mapper.getActivity(place1));
+  }
+}
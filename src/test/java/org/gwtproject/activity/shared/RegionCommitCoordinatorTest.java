@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import com.google.gwt.user.client.ui.Widget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class RegionCommitCoordinatorTest extends TestCase {
+
+  private static class MyPlace extends Place {
+  }
+
+  private static class MyView implements IsWidget {
+    public Widget asWidget() {
+      return null;
+    }
+  }
+
+  private static class FakeScheduler implements TaskScheduler {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    final List<Integer> delays = new ArrayList<Integer>();
+
+    @Override
+    public Task scheduleIdle(Runnable task) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Task scheduleDelayed(final Runnable task, int delayMillis) {
+      tasks.add(task);
+      delays.add(delayMillis);
+      return () -> {
+        int index = tasks.indexOf(task);
+        if (index >= 0) {
+          tasks.remove(index);
+          delays.remove(index);
+        }
+      };
+    }
+
+    void run(int delayMillis) {
+      int index = delays.indexOf(delayMillis);
+      delays.remove(index);
+      tasks.remove(index).run();
+    }
+  }
+
+  /**
+   * Shows a new view per place, at once or when asked to.
+   */
+  private static class Region implements ActivityMapper {
+    final boolean async;
+    final List<IsWidget> shown = new ArrayList<IsWidget>();
+    AcceptsOneWidget panel;
+    IsWidget view;
+
+    Region(boolean async) {
+      this.async = async;
+    }
+
+    public Activity getActivity(Place place) {
+      return new AbstractActivity() {
+        @Override
+        public void start(AcceptsOneWidget p, EventBus eventBus) {
+          panel = p;
+          view = new MyView();
+          if (!async) {
+            present();
+          }
+        }
+      };
+    }
+
+    void present() {
+      panel.setWidget(view);
+    }
+
+    IsWidget last() {
+      return shown.isEmpty() ? null : shown.get(shown.size() - 1);
+    }
+  }
+
+  private final EventBus eventBus = new SimpleEventBus();
+  private final FakeScheduler scheduler = new FakeScheduler();
+  private final RegionCommitCoordinator coordinator =
+      new RegionCommitCoordinator(scheduler, 300);
+
+  private HandlerRegistration addRegion(final Region region) {
+    return coordinator.addRegion(new ActivityManager(region, eventBus), region.shown::add);
+  }
+
+  public void testWidgetsAreShownTogether() {
+    Region main = new Region(true);
+    Region sidebar = new Region(false);
+    addRegion(main);
+    addRegion(sidebar);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    assertTrue(coordinator.isBatching());
+    scheduler.run(0);
+    assertTrue(sidebar.shown.isEmpty());
+
+    main.present();
+    assertFalse(coordinator.isBatching());
+    assertEquals(1, coordinator.getCommitCount());
+    assertSame(main.view, main.last());
+    assertSame(sidebar.view, sidebar.last());
+    assertTrue(scheduler.tasks.isEmpty());
+
+    // The old widgets stay up until the new ones are ready
+    IsWidget oldSidebar = sidebar.view;
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    scheduler.run(0);
+    assertSame(oldSidebar, sidebar.last());
+    main.present();
+    assertEquals(2, coordinator.getCommitCount());
+    assertNotSame(oldSidebar, sidebar.last());
+    // Clearing the old widget was folded into showing the new one
+    assertEquals(2, sidebar.shown.size());
+  }
+
+  public void testSynchronousRegionsWaitForDispatch() {
+    Region main = new Region(false);
+    Region sidebar = new Region(false);
+    addRegion(main);
+    addRegion(sidebar);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    assertTrue(main.shown.isEmpty());
+    scheduler.run(0);
+    assertSame(main.view, main.last());
+    assertSame(sidebar.view, sidebar.last());
+    assertEquals(1, coordinator.getCommitCount());
+  }
+
+  public void testDeadline() {
+    Region main = new Region(false);
+    Region slow = new Region(true);
+    addRegion(main);
+    addRegion(slow);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    scheduler.run(0);
+    assertTrue(main.shown.isEmpty());
+    scheduler.run(300);
+    assertSame(main.view, main.last());
+    assertTrue(slow.shown.isEmpty());
+
+    slow.present();
+    assertSame(slow.view, slow.last());
+  }
+
+  public void testRemovingARegionShowsItsWidget() {
+    Region main = new Region(false);
+    Region slow = new Region(true);
+    HandlerRegistration mainReg = addRegion(main);
+    HandlerRegistration slowReg = addRegion(slow);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    mainReg.removeHandler();
+    assertSame(main.view, main.last());
+
+    scheduler.run(0);
+    assertTrue(coordinator.isBatching());
+    slowReg.removeHandler();
+    assertFalse(coordinator.isBatching());
+    assertTrue(scheduler.tasks.isEmpty());
+  }
+}
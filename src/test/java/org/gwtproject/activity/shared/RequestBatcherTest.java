@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class RequestBatcherTest extends TestCase {
+
+  private static class MyPlace extends Place {
+  }
+
+  private static class FakeScheduler implements TaskScheduler {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    @Override
+    public Task scheduleIdle(Runnable task) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Task scheduleDelayed(final Runnable task, int delayMillis) {
+      assertEquals(0, delayMillis);
+      tasks.add(task);
+      return () -> tasks.remove(task);
+    }
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        tasks.remove(0).run();
+      }
+    }
+  }
+
+  private static class Result implements ActivityDataCache.Callback<Object> {
+    Object value;
+    Throwable caught;
+
+    public void onFailure(Throwable caught) {
+      this.caught = caught;
+    }
+
+    public void onSuccess(Object value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * Sends one request per region for each start.
+   */
+  private static class RegionActivity extends AbstractActivity implements RequestingActivity {
+    final String region;
+    final Result result = new Result();
+    RequestBatcher.Requests requests;
+
+    RegionActivity(String region) {
+      this.region = region;
+    }
+
+    public void acceptRequests(RequestBatcher.Requests requests) {
+      this.requests = requests;
+    }
+
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      requests.send(region, result);
+    }
+  }
+
+  private final EventBus eventBus = new SimpleEventBus();
+  private final FakeScheduler scheduler = new FakeScheduler();
+  private final List<RequestBatcher.Batch> sent = new ArrayList<RequestBatcher.Batch>();
+  private final RequestBatcher batcher = new RequestBatcher(sent::add, scheduler);
+
+  private List<RegionActivity> addManager(final String region) {
+    final List<RegionActivity> started = new ArrayList<RegionActivity>();
+    ActivityManager manager = new ActivityManager(place -> {
+      RegionActivity activity = new RegionActivity(region);
+      started.add(activity);
+      return activity;
+    }, eventBus);
+    manager.setRequestBatcher(batcher);
+    manager.setDisplay(w -> { });
+    return started;
+  }
+
+  public void testOneBatchPerNavigation() {
+    List<RegionActivity> main = addManager("main");
+    List<RegionActivity> sidebar = addManager("sidebar");
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    assertTrue(sent.isEmpty());
+    scheduler.runAll();
+    assertEquals(1, sent.size());
+    RequestBatcher.Batch batch = sent.get(0);
+    assertEquals(2, batch.size());
+    assertEquals("main", batch.getRequest(0));
+    assertEquals("sidebar", batch.getRequest(1));
+
+    // Answers may come in any order, and only the first one counts
+    batch.succeed(1, "for sidebar");
+    batch.failAll(new IllegalStateException());
+    batch.succeed(0, "too late");
+    assertEquals("for sidebar", sidebar.get(0).result.value);
+    assertTrue(main.get(0).result.caught instanceof IllegalStateException);
+    assertEquals(0, main.get(0).requests.getPendingCount());
+    assertEquals(1, batcher.getBatchCount());
+  }
+
+  public void testCancellationPerActivity() {
+    List<RegionActivity> main = addManager("main");
+    List<RegionActivity> sidebar = addManager("sidebar");
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    scheduler.runAll();
+    RequestBatcher.Batch first = sent.get(0);
+
+    // The next navigation cancels both activities before their answers come
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    assertTrue(first.isCanceled(0));
+    assertTrue(first.isCanceled(1));
+    first.succeed(0, "stale");
+    assertNull(main.get(0).result.value);
+
+    // A request canceled before the flush is never sent
+    main.get(1).requests.cancel();
+    main.get(1).requests.send("ignored", new Result());
+    scheduler.runAll();
+    assertEquals(2, sent.size());
+    assertEquals(1, sent.get(1).size());
+    assertEquals("sidebar", sent.get(1).getRequest(0));
+    assertEquals(4, batcher.getRequestCount());
+
+    sidebar.get(1).requests.cancel();
+    assertTrue(scheduler.tasks.isEmpty());
+  }
+
+  public void testMaxBatchSize() {
+    RequestBatcher small = new RequestBatcher(sent::add, scheduler, 2);
+    RequestBatcher.Requests requests = small.open();
+    requests.send("a", new Result());
+    requests.send("b", new Result());
+    assertEquals(1, sent.size());
+    assertTrue(scheduler.tasks.isEmpty());
+    requests.send("c", new Result());
+    small.flush();
+    assertEquals(2, sent.size());
+    assertEquals("c", sent.get(1).getRequest(0));
+    small.flush();
+    assertEquals(2, small.getBatchCount());
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class RouteActivityMapperTest extends TestCase {
+
+  private static class TokenPlace extends Place {
+    final String token;
+
+    TokenPlace(String token) {
+      this.token = token;
+    }
+  }
+
+  private static class RouteActivity extends AbstractActivity {
+    final String route;
+    final RouteActivityMapper.Parameters params;
+
+    RouteActivity(String route, RouteActivityMapper.Parameters params) {
+      this.route = route;
+      this.params = params;
+    }
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+    }
+  }
+
+  private final RouteActivityMapper mapper =
+      new RouteActivityMapper(place -> ((TokenPlace) place).token)
+          .route("orders/", (place, params) -> new RouteActivity("list", params))
+          .route("orders/:id/", (place, params) -> new RouteActivity("order", params))
+          .route("orders/new", (place, params) -> new RouteActivity("new", params))
+          .route("orders/:id/items/:item", (place, params) -> new RouteActivity("item", params))
+          .route(":section/help", (place, params) -> new RouteActivity("help", params));
+
+  private RouteActivity map(String token) {
+    return (RouteActivity) mapper.getActivity(new TokenPlace(token));
+  }
+
+  public void testLiteralRoutes() {
+    assertEquals("list", map("orders").route);
+    assertEquals("list", map("orders/").route);
+    assertEquals("new", map("orders/new").route);
+    assertNull(map("ordersx"));
+    assertNull(map("order"));
+    assertNull(map(""));
+    assertNull(mapper.getActivity(new TokenPlace(null)));
+  }
+
+  public void testParameters() {
+    RouteActivity order = map("orders/42");
+    assertEquals("order", order.route);
+    assertEquals("42", order.params.get("id"));
+    assertNull(order.params.get("item"));
+    assertEquals("orders/42", order.params.getToken());
+
+    // Longest prefix wins, trailing segments are ignored
+    assertEquals("order", map("orders/42/edit").route);
+    RouteActivity item = map("orders/42/items/7/details");
+    assertEquals("item", item.route);
+    assertEquals(Arrays.asList("id", "item"), item.params.getNames());
+    assertEquals("42", item.params.get("id"));
+    assertEquals("7", item.params.get("item"));
+
+    // A literal segment is preferred, but a parameter takes over when the
+    // literal branch fails
+    assertEquals("42", map("orders/42").params.get("id"));
+    RouteActivity newer = map("orders/newer");
+    assertEquals("order", newer.route);
+    assertEquals("newer", newer.params.get("id"));
+
+    RouteActivity help = map("orders/help");
+    assertEquals("order", help.route);
+    help = map("reports/help");
+    assertEquals("help", help.route);
+    assertEquals("reports", help.params.get("section"));
+  }
+
+  public void testLongestMatchWins() {
+    RouteActivityMapper items = new RouteActivityMapper(place -> ((TokenPlace) place).token)
+        .route("orders/new", (place, params) -> new RouteActivity("new", params))
+        .route("orders/:id/items", (place, params) -> new RouteActivity("items", params));
+    RouteActivity activity = (RouteActivity) items.getActivity(new TokenPlace("orders/new/items"));
+    assertEquals("items", activity.route);
+    assertEquals("new", activity.params.get("id"));
+    activity = (RouteActivity) items.getActivity(new TokenPlace("orders/new/other"));
+    assertEquals("new", activity.route);
+  }
+
+  public void testLongTokens() {
+    StringBuilder token = new StringBuilder("orders/42");
+    for (int i = 0; i < 10000; i++) {
+      token.append("/x");
+    }
+    assertEquals("order", map(token.toString()).route);
+  }
+
+  public void testManySiblingRoutes() {
+    RouteActivityMapper sections = new RouteActivityMapper(place -> ((TokenPlace) place).token);
+    for (int i = 0; i < 5000; i++) {
+      final String name = "section" + i;
+      sections.route(name + "/:id", (place, params) -> new RouteActivity(name, params));
+    }
+    for (int i = 0; i < 5000; i += 7) {
+      RouteActivity activity =
+          (RouteActivity) sections.getActivity(new TokenPlace("section" + i + "/" + i));
+      assertEquals("section" + i, activity.route);
+      assertEquals(String.valueOf(i), activity.params.get("id"));
+    }
+    assertNull(sections.getActivity(new TokenPlace("section5000/1")));
+    assertNull(sections.getActivity(new TokenPlace("section1")));
+  }
+
+  public void testBadRoutes() {
+    try {
+      mapper.route("orders/:item", (place, params) -> null);
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+    try {
+      mapper.route("orders/:/x", (place, params) -> null);
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+}
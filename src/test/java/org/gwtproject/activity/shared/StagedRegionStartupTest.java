@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.place.shared.PlaceChangeRequestEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class StagedRegionStartupTest extends TestCase {
+
+  private static class MyPlace extends Place {
+  }
+
+  private static class FakeScheduler implements TaskScheduler {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    final List<Integer> delays = new ArrayList<Integer>();
+
+    @Override
+    public Task scheduleIdle(Runnable task) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Task scheduleDelayed(final Runnable task, int delayMillis) {
+      tasks.add(task);
+      delays.add(delayMillis);
+      return () -> {
+        int index = tasks.indexOf(task);
+        if (index >= 0) {
+          tasks.remove(index);
+          delays.remove(index);
+        }
+      };
+    }
+
+    int delay() {
+      return delays.get(0);
+    }
+
+    void runNext() {
+      delays.remove(0);
+      tasks.remove(0).run();
+    }
+  }
+
+  private static class Region implements ActivityMapper {
+    final String name;
+    final List<String> log;
+    final boolean async;
+    AcceptsOneWidget panel;
+    IsWidget shown;
+    boolean canceled;
+    String warning;
+
+    Region(String name, List<String> log, boolean async) {
+      this.name = name;
+      this.log = log;
+      this.async = async;
+    }
+
+    public Activity getActivity(Place place) {
+      return new AbstractActivity() {
+        @Override
+        public String mayStop() {
+          return warning;
+        }
+
+        @Override
+        public void onCancel() {
+          canceled = true;
+        }
+
+        @Override
+        public void start(AcceptsOneWidget p, EventBus eventBus) {
+          log.add(name);
+          panel = p;
+          if (!async) {
+            present();
+          }
+        }
+      };
+    }
+
+    void present() {
+      panel.setWidget(() -> null);
+    }
+  }
+
+  private final EventBus eventBus = new SimpleEventBus();
+  private final FakeScheduler scheduler = new FakeScheduler();
+  private final List<String> log = new ArrayList<String>();
+  private final StagedRegionStartup startup = new StagedRegionStartup(eventBus, scheduler, 500);
+
+  private Region addRegion(String name, boolean async, int stage) {
+    final Region region = new Region(name, log, async);
+    startup.addRegion(region, w -> region.shown = w, stage);
+    return region;
+  }
+
+  @Override
+  protected void setUp() {
+    startup.setActive(true);
+  }
+
+  public void testSecondaryWaitsForPrimary() {
+    Region footer = addRegion("footer", false, 2);
+    Region main = addRegion("main", true, 0);
+    Region sidebar = addRegion("sidebar", false, 1);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    assertEquals(1, log.size());
+    assertEquals("main", log.get(0));
+    assertEquals(2, startup.getPendingCount());
+    assertEquals(500, scheduler.delay());
+
+    // Presenting replaces the deadline with a prompt start
+    main.present();
+    assertEquals(1, scheduler.tasks.size());
+    assertEquals(0, scheduler.delay());
+    scheduler.runNext();
+    assertEquals("sidebar", log.get(1));
+    assertNotNull(sidebar.shown);
+
+    scheduler.runNext();
+    assertEquals("footer", log.get(2));
+    assertEquals(0, startup.getPendingCount());
+    assertTrue(scheduler.tasks.isEmpty());
+    assertNotNull(footer.shown);
+  }
+
+  public void testDeadline() {
+    addRegion("main", true, 0);
+    Region sidebar = addRegion("sidebar", true, 1);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    assertEquals(500, scheduler.delay());
+    scheduler.runNext();
+    assertEquals(2, log.size());
+    assertEquals("sidebar", log.get(1));
+    assertTrue(scheduler.tasks.isEmpty());
+    sidebar.present();
+    assertNotNull(sidebar.shown);
+  }
+
+  public void testNextNavigationCancelsAllStages() {
+    Region main = addRegion("main", true, 0);
+    Region sidebar = addRegion("sidebar", false, 1);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    main.present();
+    scheduler.runNext();
+    assertNotNull(sidebar.shown);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    // The sidebar is cleared at once, and waits for the main region again
+    assertNull(sidebar.shown);
+    assertEquals(3, log.size());
+    assertEquals(1, startup.getPendingCount());
+
+    AcceptsOneWidget stale = main.panel;
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    assertTrue(main.canceled);
+    assertEquals(1, scheduler.tasks.size());
+    stale.setWidget(() -> null);
+    assertNull(main.shown);
+    assertEquals(1, scheduler.tasks.size());
+    assertEquals(500, scheduler.delay());
+  }
+
+  public void testUnchangedSecondaryActivityCarriesOn() {
+    Region main = addRegion("main", true, 0);
+    final List<String> sidebarLog = new ArrayList<String>();
+    final List<Place> places = new ArrayList<Place>();
+    final Region sidebar = new Region("sidebar", sidebarLog, false);
+    final Activity sidebarActivity = new AbstractActivity() {
+      @Override
+      public void onStop() {
+        sidebarLog.add("stop");
+      }
+
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+        sidebarLog.add("start");
+        eventBus.addHandler(PlaceChangeEvent.TYPE, event -> places.add(event.getNewPlace()));
+        panel.setWidget(() -> null);
+      }
+    };
+    final int[] resolved = {0};
+    startup.addRegion(place -> {
+      resolved[0]++;
+      return sidebarActivity;
+    }, w -> sidebar.shown = w, 1);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    main.present();
+    scheduler.runNext();
+    assertEquals(1, sidebarLog.size());
+    IsWidget shown = sidebar.shown;
+    assertNotNull(shown);
+
+    MyPlace next = new MyPlace();
+    eventBus.fireEvent(new PlaceChangeEvent(next));
+    // Neither stopped nor cleared while the main region loads, and told
+    assertEquals(1, sidebarLog.size());
+    assertEquals(1, places.size());
+    assertSame(next, places.get(0));
+    assertSame(shown, sidebar.shown);
+    main.present();
+    scheduler.runNext();
+    assertEquals(1, sidebarLog.size());
+    assertEquals(0, startup.getPendingCount());
+    // Resolved once per place change
+    assertEquals(2, resolved[0]);
+  }
+
+  public void testMayStopAsksEveryRegion() {
+    Region main = addRegion("main", false, 0);
+    Region sidebar = addRegion("sidebar", false, 1);
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    scheduler.runNext();
+
+    sidebar.warning = "unsaved";
+    PlaceChangeRequestEvent request = new PlaceChangeRequestEvent(new MyPlace());
+    eventBus.fireEvent(request);
+    assertEquals("unsaved", request.getWarning());
+
+    main.warning = "busy";
+    request = new PlaceChangeRequestEvent(new MyPlace());
+    eventBus.fireEvent(request);
+    assertEquals("busy", request.getWarning());
+  }
+
+  public void testInactive() {
+    addRegion("main", false, 0);
+    startup.setActive(false);
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace()));
+    assertTrue(log.isEmpty());
+  }
+}
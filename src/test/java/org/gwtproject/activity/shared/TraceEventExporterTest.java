@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.place.shared.PlaceChangeRequestEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class TraceEventExporterTest extends TestCase {
+
+  private static class MyPlace extends Place {
+    final String token;
+
+    MyPlace(String token) {
+      this.token = token;
+    }
+  }
+
+  private static class SlowActivity extends AbstractActivity {
+    AcceptsOneWidget panel;
+
+    @Override
+    public String mayStop() {
+      return "say \"when\"";
+    }
+
+    @Override
+    public void start(AcceptsOneWidget p, EventBus eventBus) {
+      panel = p;
+    }
+  }
+
+  private static final Pattern EVENT =
+      Pattern.compile("\"ph\":\"(.)\",\"pid\":1,\"tid\":(\\d+)(?:,\"ts\":(\\d+))?");
+
+  private final EventBus eventBus = new SimpleEventBus();
+  private final double[] now = {0};
+  private final TraceEventExporter exporter =
+      new TraceEventExporter(place -> ((MyPlace) place).token, () -> now[0], 100);
+
+  public void testTwoManagers() {
+    final List<SlowActivity> slow = new ArrayList<SlowActivity>();
+    ActivityManager main = new ActivityManager(place -> {
+      now[0] += 2;
+      SlowActivity activity = new SlowActivity();
+      slow.add(activity);
+      return activity;
+    }, eventBus);
+    ActivityManager sidebar = new ActivityManager(place -> new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+        now[0] += 1;
+        panel.setWidget(() -> null);
+      }
+    }, eventBus);
+    main.addLifecycleListener(exporter.track("main"));
+    sidebar.addLifecycleListener(exporter.track("sidebar"));
+    main.setDisplay(w -> { });
+    sidebar.setDisplay(w -> { });
+
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace("one")));
+    eventBus.fireEvent(new PlaceChangeRequestEvent(new MyPlace("two")));
+    now[0] += 5;
+    // Canceled before it presented
+    eventBus.fireEvent(new PlaceChangeEvent(new MyPlace("two")));
+    slow.get(1).panel.setWidget(() -> null);
+
+    String json = exporter.toJson();
+    assertTrue(json.startsWith("{\"traceEvents\":["));
+    assertTrue(json.contains("\"args\":{\"name\":\"sidebar\"}"));
+    assertTrue(json.contains("\"args\":{\"place\":\"one\"}"));
+    assertTrue(json.contains("\"name\":\"resolve\",\"cat\":\"activity\",\"ph\":\"X\","
+        + "\"pid\":1,\"tid\":1,\"ts\":0,\"dur\":2000"));
+    assertTrue(json.contains("\"args\":{\"warning\":\"say \\\"when\\\"\"}"));
+    assertEquals(1, json.split("\"canceled\":true", -1).length - 1);
+    assertTrue(json.contains("\"name\":\"onCancel TraceEventExporterTest$SlowActivity\""));
+
+    // Spans are balanced per track, asynchronous ones overall
+    Map<String, Integer> depth = new HashMap<String, Integer>();
+    int async = 0;
+    long lastTs = 0;
+    Matcher matcher = EVENT.matcher(json);
+    while (matcher.find()) {
+      String phase = matcher.group(1);
+      String tid = matcher.group(2);
+      int d = depth.containsKey(tid) ? depth.get(tid) : 0;
+      if (phase.equals("B")) {
+        depth.put(tid, d + 1);
+      } else if (phase.equals("E")) {
+        assertTrue(d > 0);
+        depth.put(tid, d - 1);
+      } else if (phase.equals("b")) {
+        async++;
+      } else if (phase.equals("e")) {
+        async--;
+      }
+      if (matcher.group(3) != null && !phase.equals("X")) {
+        long ts = Long.parseLong(matcher.group(3));
+        assertTrue(ts >= lastTs);
+        lastTs = ts;
+      }
+    }
+    assertEquals(Integer.valueOf(0), depth.get("1"));
+    assertEquals(Integer.valueOf(0), depth.get("2"));
+    assertEquals(0, async);
+  }
+
+  public void testLimit() {
+    ActivityLifecycleListener track = exporter.track("main");
+    for (int i = 0; i < 100; i++) {
+      track.onPlaceChange(new MyPlace("line\nbreak"));
+    }
+    assertEquals(100, exporter.getEventCount());
+    assertEquals(1, exporter.getDroppedCount());
+    assertTrue(exporter.toJson().contains("line\\u000abreak"));
+
+    exporter.clear();
+    assertEquals(0, exporter.getEventCount());
+    assertEquals("{\"traceEvents\":[],\"displayTimeUnit\":\"ms\"}", exporter.toJson());
+  }
+}
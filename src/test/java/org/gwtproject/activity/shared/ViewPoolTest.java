@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.shared;
+
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import com.google.gwt.user.client.ui.Widget;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Eponymous unit test.
+ */
+public class ViewPoolTest extends TestCase {
+
+  private static class ListView implements IsWidget, ViewPool.Poolable {
+    static int built;
+    int resets;
+
+    ListView() {
+      built++;
+    }
+
+    public Widget asWidget() {
+      return null;
+    }
+
+    public void reset() {
+      resets++;
+    }
+  }
+
+  private static class PlainView implements IsWidget {
+    public Widget asWidget() {
+      return null;
+    }
+  }
+
+  private class ListActivity extends AbstractActivity {
+    ListView view;
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      // The previous activity's view has been detached
+      assertNull(display.widget);
+      view = pool.get(this, ListView.class, ListView::new);
+      panel.setWidget(view);
+    }
+  }
+
+  private static class MyDisplay implements AcceptsOneWidget {
+    IsWidget widget;
+
+    public void setWidget(IsWidget w) {
+      widget = w;
+    }
+  }
+
+  private final ViewPool pool = new ViewPool(2);
+  private final MyDisplay display = new MyDisplay();
+
+  @Override
+  protected void setUp() {
+    ListView.built = 0;
+  }
+
+  public void testGetAndRelease() {
+    ListView first = pool.get(ListView.class, ListView::new);
+    ListView second = pool.get(ListView.class, ListView::new);
+    ListView third = pool.get(ListView.class, ListView::new);
+    assertEquals(0.0, pool.getHitRate());
+
+    assertTrue(pool.release(first));
+    assertFalse(pool.release(first));
+    assertTrue(pool.release(second));
+    // Over the cap
+    assertFalse(pool.release(third));
+    assertFalse(pool.release(new ListView()));
+    assertEquals(2, pool.getIdleCount(ListView.class));
+    assertEquals(1, first.resets);
+    assertEquals(0, third.resets);
+
+    assertSame(second, pool.get(ListView.class, ListView::new));
+    assertSame(first, pool.get(ListView.class, ListView::new));
+    assertEquals(2, pool.getHitCount(ListView.class));
+    assertEquals(3, pool.getMissCount(ListView.class));
+    assertEquals(0.4, pool.getHitRate(), 0.001);
+
+    PlainView plain = pool.get(PlainView.class, PlainView::new);
+    assertTrue(pool.release(plain));
+    assertSame(plain, pool.get(PlainView.class, PlainView::new));
+  }
+
+  public void testCaps() {
+    pool.setCap(PlainView.class, 0);
+    PlainView plain = pool.get(PlainView.class, PlainView::new);
+    assertFalse(pool.release(plain));
+
+    pool.release(pool.get(ListView.class, ListView::new));
+    pool.setCap(ListView.class, 0);
+    assertEquals(0, pool.getIdleCount(ListView.class));
+
+    pool.setCap(ListView.class, 5);
+    pool.release(pool.get(ListView.class, ListView::new));
+    pool.clear();
+    assertEquals(0, pool.getIdleCount(ListView.class));
+  }
+
+  public void testManagerReleasesViews() {
+    final Place place1 = new Place() { };
+    final Place place2 = new Place() { };
+    SimpleEventBus eventBus = new SimpleEventBus();
+    ActivityManager manager = new ActivityManager(place -> new ListActivity(), eventBus);
+    manager.setViewPool(pool);
+    manager.setDisplay(display);
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    ListView view = (ListView) display.widget;
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    // The first activity's view was detached, reset and reused
+    assertSame(view, display.widget);
+    assertEquals(1, view.resets);
+    assertEquals(1, ListView.built);
+
+    eventBus.fireEvent(new PlaceChangeEvent(place1));
+    eventBus.fireEvent(new PlaceChangeEvent(place2));
+    assertEquals(1, ListView.built);
+    assertEquals(3, pool.getHitCount(ListView.class));
+    assertEquals(1, pool.getLentCount());
+  }
+
+  public void testUnshownViewsAreDiscarded() {
+    final List<ListView> taken = new ArrayList<ListView>();
+    final Place empty = new Place() { };
+    SimpleEventBus eventBus = new SimpleEventBus();
+    ActivityManager manager = new ActivityManager(place -> place == empty ? null
+        : new AbstractActivity() {
+          @Override
+          public void start(AcceptsOneWidget panel, EventBus eventBus) {
+            // Still loading when canceled
+            taken.add(pool.get(this, ListView.class, ListView::new));
+          }
+        }, eventBus);
+    manager.setViewPool(pool);
+    manager.setDisplay(display);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new Place() { }));
+    assertEquals(1, pool.getLentCount());
+    eventBus.fireEvent(new PlaceChangeEvent(new Place() { }));
+    assertEquals(1, pool.getLentCount());
+    eventBus.fireEvent(new PlaceChangeEvent(empty));
+
+    // Neither kept for reuse, nor tracked any longer
+    assertEquals(0, pool.getLentCount());
+    assertEquals(0, pool.getIdleCount(ListView.class));
+    assertFalse(pool.release(taken.get(0)));
+  }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import org.gwtproject.activity.shared.AbstractActivity;
+import org.gwtproject.activity.shared.Activity;
+import org.gwtproject.activity.shared.ActivityLifecycleListener;
+import org.gwtproject.activity.shared.ActivityMapper;
+import org.gwtproject.activity.shared.ActivityStateStore;
+import org.gwtproject.activity.shared.StatefulActivity;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.event.shared.UmbrellaException;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.place.shared.PlaceChangeRequestEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import com.google.gwt.user.client.ui.Widget;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test, including a multi-threaded stress test.
+ */
+public class ConcurrentActivityManagerTest extends TestCase {
+
+  private static class NumberedPlace extends Place {
+    final int number;
+
+    NumberedPlace(int number) {
+      this.number = number;
+    }
+  }
+
+  private static class MyView implements IsWidget {
+    public Widget asWidget() {
+      return null;
+    }
+  }
+
+  /**
+   * Checks that it is never called by two threads at once.
+   */
+  private static class ExclusiveDisplay implements AcceptsOneWidget {
+    final AtomicInteger inside = new AtomicInteger();
+    final AtomicInteger overlaps = new AtomicInteger();
+    volatile IsWidget widget;
+
+    public void setWidget(IsWidget w) {
+      if (inside.incrementAndGet() != 1) {
+        overlaps.incrementAndGet();
+      }
+      widget = w;
+      inside.decrementAndGet();
+    }
+  }
+
+  private static class QueueExecutor implements java.util.concurrent.Executor {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    public void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        tasks.remove(0).run();
+      }
+    }
+  }
+
+  private static class ScrollingActivity extends AbstractActivity
+      implements StatefulActivity<Integer> {
+    Integer restored;
+
+    public void restoreState(Integer state) {
+      restored = state;
+    }
+
+    public Integer saveState() {
+      return 42;
+    }
+
+    @Override
+    public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      panel.setWidget(new MyView());
+    }
+  }
+
+  private final EventBus eventBus = new SimpleEventBus();
+  private final ExclusiveDisplay display = new ExclusiveDisplay();
+  private final QueueExecutor executor = new QueueExecutor();
+
+  public void testDrainIsScheduledOnce() {
+    final MyView view = new MyView();
+    final AtomicReference<AcceptsOneWidget> panelRef = new AtomicReference<AcceptsOneWidget>();
+    final Activity activity = new AbstractActivity() {
+      @Override
+      public String mayStop() {
+        return "dirty";
+      }
+
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+        panelRef.set(panel);
+      }
+    };
+    ConcurrentActivityManager manager =
+        new ConcurrentActivityManager(place -> activity, eventBus, executor);
+
+    manager.setDisplay(display);
+    eventBus.fireEvent(new PlaceChangeEvent(new NumberedPlace(1)));
+    assertEquals(1, executor.tasks.size());
+    assertNull(panelRef.get());
+
+    executor.runAll();
+    assertNotNull(panelRef.get());
+    assertFalse(manager.isDraining());
+
+    PlaceChangeRequestEvent request = new PlaceChangeRequestEvent(new NumberedPlace(2));
+    eventBus.fireEvent(request);
+    assertEquals("dirty", request.getWarning());
+
+    // A widget presented off the drain is queued for it
+    panelRef.get().setWidget(view);
+    assertNull(display.widget);
+    executor.runAll();
+    assertSame(view, display.widget);
+
+    manager.setDisplay(null);
+    executor.runAll();
+    eventBus.fireEvent(new PlaceChangeEvent(new NumberedPlace(2)));
+    assertTrue(executor.tasks.isEmpty());
+  }
+
+  public void testListenersAndStateSeeTheMappedActivity() {
+    final List<ScrollingActivity> activities = new ArrayList<ScrollingActivity>();
+    ConcurrentActivityManager manager = new ConcurrentActivityManager(place -> {
+      ScrollingActivity activity = new ScrollingActivity();
+      activities.add(activity);
+      return activity;
+    }, eventBus, executor);
+    final List<Activity> started = new ArrayList<Activity>();
+    final List<Activity> stopped = new ArrayList<Activity>();
+    manager.addLifecycleListener(new ActivityLifecycleListener() {
+      @Override
+      public void onActivityStart(Activity activity) {
+        started.add(activity);
+      }
+
+      @Override
+      public void onActivityStop(Activity activity) {
+        stopped.add(activity);
+      }
+    });
+    manager.setStateStore(new ActivityStateStore(10));
+    manager.setDisplay(display);
+
+    NumberedPlace place = new NumberedPlace(1);
+    eventBus.fireEvent(new PlaceChangeEvent(place));
+    eventBus.fireEvent(new PlaceChangeEvent(new NumberedPlace(2)));
+    eventBus.fireEvent(new PlaceChangeEvent(place));
+    executor.runAll();
+
+    assertEquals(3, activities.size());
+    assertEquals(activities, started);
+    assertSame(activities.get(0), stopped.get(0));
+    assertNull(activities.get(0).restored);
+    assertEquals(Integer.valueOf(42), activities.get(2).restored);
+  }
+
+  public void testExceptionsAreHandledOnTheDrain() {
+    final List<Throwable> caught = new ArrayList<Throwable>();
+    ConcurrentActivityManager manager = new ConcurrentActivityManager(place -> {
+      throw new IllegalStateException();
+    }, eventBus, executor);
+    manager.setExceptionHandler(caught::add);
+    manager.setDisplay(display);
+
+    eventBus.fireEvent(new PlaceChangeEvent(new NumberedPlace(1)));
+    final boolean[] ran = {false};
+    manager.enqueue(() -> ran[0] = true);
+    executor.runAll();
+    assertEquals(1, caught.size());
+    assertTrue(caught.get(0) instanceof IllegalStateException
+        || caught.get(0) instanceof UmbrellaException);
+    assertTrue(ran[0]);
+  }
+
+  public void testStress() throws Exception {
+    final int places = 10;
+    final int threads = 8;
+    final int changesPerThread = 2000;
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    final ExecutorService presenters = Executors.newFixedThreadPool(4);
+    final AtomicInteger insideStart = new AtomicInteger();
+    final AtomicInteger startOverlaps = new AtomicInteger();
+    final AtomicInteger started = new AtomicInteger();
+    final AtomicInteger finished = new AtomicInteger();
+    final MyView[] views = new MyView[places];
+    for (int i = 0; i < places; i++) {
+      views[i] = new MyView();
+    }
+
+    ActivityMapper mapper = new ActivityMapper() {
+      public Activity getActivity(final Place place) {
+        final int number = ((NumberedPlace) place).number;
+        return new AbstractActivity() {
+          @Override
+          public void onCancel() {
+            finished.incrementAndGet();
+          }
+
+          @Override
+          public void onStop() {
+            finished.incrementAndGet();
+          }
+
+          @Override
+          public void start(final AcceptsOneWidget panel, EventBus eventBus) {
+            if (insideStart.incrementAndGet() != 1) {
+              startOverlaps.incrementAndGet();
+            }
+            started.incrementAndGet();
+            try {
+              if (number % 2 == 0) {
+                panel.setWidget(views[number]);
+              } else {
+                presenters.execute(() -> panel.setWidget(views[number]));
+              }
+            } finally {
+              insideStart.decrementAndGet();
+            }
+          }
+        };
+      }
+    };
+    final ConcurrentActivityManager manager =
+        new ConcurrentActivityManager(mapper, eventBus, pool);
+    manager.setDisplay(display);
+
+    List<Thread> firing = new ArrayList<Thread>();
+    for (int t = 0; t < threads; t++) {
+      final Random random = new Random(t);
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < changesPerThread; i++) {
+          manager.onPlaceChange(new PlaceChangeEvent(new NumberedPlace(random.nextInt(places))));
+        }
+      });
+      firing.add(thread);
+      thread.start();
+    }
+    for (Thread thread : firing) {
+      thread.join();
+    }
+    long deadline = System.currentTimeMillis() + 10000;
+    awaitDrain(manager, deadline);
+    presenters.shutdown();
+    assertTrue(presenters.awaitTermination(10, TimeUnit.SECONDS));
+
+    // Settle on a place that presents synchronously
+    manager.onPlaceChange(new PlaceChangeEvent(new NumberedPlace(0)));
+    awaitDrain(manager, deadline);
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertSame(views[0], display.widget);
+    assertEquals(0, display.overlaps.get());
+    assertEquals(0, startOverlaps.get());
+    // Every activity but the last one was stopped or canceled
+    assertEquals(started.get() - 1, finished.get());
+  }
+
+  private static void awaitDrain(ConcurrentActivityManager manager, long deadline)
+      throws InterruptedException {
+    final AtomicInteger drained = new AtomicInteger();
+    manager.enqueue(drained::incrementAndGet);
+    while (drained.get() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals("drain timed out", 1, drained.get());
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import org.gwtproject.activity.shared.MemoryPressure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class MemoryPoolPressureSourceTest extends TestCase {
+
+  private final MemoryPressure pressure = new MemoryPressure();
+  private final List<MemoryPressure.Level> signals = new ArrayList<MemoryPressure.Level>();
+
+  @Override
+  protected void setUp() {
+    pressure.register(level -> {
+      signals.add(level);
+      return 1;
+    }, 0);
+  }
+
+  public void testLevels() {
+    assertEquals(MemoryPressure.Level.CRITICAL,
+        new MemoryPoolPressureSource(pressure, Runnable::run, 0, 0).check());
+    assertEquals(MemoryPressure.Level.MODERATE,
+        new MemoryPoolPressureSource(pressure, Runnable::run, 0, 2).check());
+    assertNull(new MemoryPoolPressureSource(pressure, Runnable::run, 2, 2).check());
+    assertEquals("[CRITICAL, MODERATE]", signals.toString());
+  }
+
+  public void testStartAndStop() {
+    MemoryPoolPressureSource source = new MemoryPoolPressureSource(pressure, Runnable::run, 2, 2);
+    source.start();
+    source.start();
+    System.gc();
+    source.stop();
+    source.stop();
+    assertTrue(signals.isEmpty());
+
+    try {
+      new MemoryPoolPressureSource(pressure, Runnable::run, 0.9, 0.5);
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import org.gwtproject.activity.shared.NavigationTrace;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class NavigationTraceReplayerTest extends TestCase {
+
+  private static final String TRACE = ""
+      + "0 P home\n"
+      + "0 R 1 HomeActivity\n"
+      + "0 S 1\n"
+      + "0 W 1\n"
+      + "0 E 1\n"
+      + "5 P about\n"
+      + "5 R 2 AboutActivity\n"
+      + "5 X 1\n"
+      + "5 S 2\n"
+      + "5 E 2\n"
+      + "25 W 2\n"
+      + "28 P about\n"
+      + "28 R 2 AboutActivity\n"
+      + "30 P nowhere\n"
+      + "30 R -\n"
+      + "30 X 2\n";
+
+  private final NavigationTraceReplayer replayer =
+      new NavigationTraceReplayer(NavigationTrace.parse(TRACE));
+
+  public void testUncached() {
+    assertEquals(4, replayer.getNavigationCount());
+
+    NavigationTraceReplayer.Report report =
+        replayer.replay(NavigationTraceReplayer.uncached(), 10);
+    assertEquals("uncached", report.getName());
+    assertEquals(40, report.getNavigations());
+    assertEquals(40, report.getLookups());
+    assertEquals(30, report.getActivitiesCreated());
+    assertEquals(0.25, report.getCacheHitRate(), 0.001);
+    assertTrue(report.getThroughput() > 0);
+  }
+
+  public void testCaching() {
+    NavigationTraceReplayer.Report report =
+        replayer.replay(NavigationTraceReplayer.caching(), 10);
+    assertEquals(40, report.getLookups());
+    assertEquals(20, report.getActivitiesCreated());
+    assertEquals(0.5, report.getCacheHitRate(), 0.001);
+    assertNotNull(report.toString());
+  }
+
+  public void testEmptyTrace() {
+    NavigationTraceReplayer.Report report = new NavigationTraceReplayer(
+        NavigationTrace.parse("")).replay(NavigationTraceReplayer.uncached(), 10);
+    assertEquals(0, report.getNavigations());
+    assertTrue(report.toString().contains("allocation n/a"));
+  }
+
+  public void testLazy() {
+    NavigationTraceReplayer.Report report = replayer.replay(
+        NavigationTraceReplayer.lazy(NavigationTraceReplayer.caching()), 10);
+    assertEquals("lazy CachingActivityMapper", report.getName());
+    assertEquals(40, report.getLookups());
+    assertEquals(20, report.getActivitiesCreated());
+    assertTrue(report.getConstructionNanos() >= 0);
+    assertTrue(report.getFirstNavigationNanos() >= 0);
+  }
+}
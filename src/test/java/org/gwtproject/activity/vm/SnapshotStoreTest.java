@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class SnapshotStoreTest extends TestCase {
+
+  private Path dir;
+  private Path file;
+
+  @Override
+  protected void setUp() throws IOException {
+    dir = Files.createTempDirectory("snapshots");
+    file = dir.resolve("snapshots.bin");
+  }
+
+  @Override
+  protected void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+    Files.deleteIfExists(dir);
+  }
+
+  public void testPutGetAndReopen() throws IOException {
+    SnapshotStore store = SnapshotStore.open(file, 1, null);
+    assertNull(store.get("home"));
+    store.put("home", bytes("<h1>Home</h1>"));
+    store.put("about", bytes("<h1>About</h1>"));
+    store.put("home", bytes("<h1>Welcome</h1>"));
+    assertEquals("<h1>Welcome</h1>", string(store.get("home")));
+    assertTrue(store.get("home").isReadOnly());
+    assertEquals(2, store.size());
+    store.close();
+
+    store = SnapshotStore.open(file, 1, null);
+    assertEquals("<h1>Welcome</h1>", string(store.get("home")));
+    assertEquals("<h1>About</h1>", string(store.get("about")));
+    assertTrue(store.getGarbageBytes() > 0);
+
+    store.invalidate("about");
+    assertNull(store.get("about"));
+    store.close();
+
+    store = SnapshotStore.open(file, 1, null);
+    assertNull(store.get("about"));
+    assertEquals(1, store.size());
+    store.close();
+  }
+
+  public void testVersions() throws IOException {
+    SnapshotStore store = SnapshotStore.open(file, 1, null);
+    store.put("home", bytes("v1"));
+    store.close();
+
+    store = SnapshotStore.open(file, 2, null);
+    assertNull(store.get("home"));
+    store.put("home", bytes("v2"));
+    assertEquals("v2", string(store.get("home")));
+
+    store.setVersion(3);
+    assertEquals(0, store.size());
+    assertNull(store.get("home"));
+    store.close();
+  }
+
+  public void testTornRecordIsDropped() throws IOException {
+    SnapshotStore store = SnapshotStore.open(file, 1, null);
+    store.put("home", bytes("home"));
+    store.close();
+    long end = readEnd();
+    // A record cut short by a crash, after its end was written
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 4, 0, 0, 1}), end);
+      ByteBuffer torn = ByteBuffer.allocate(8).putLong(end + 7);
+      ((Buffer) torn).flip();
+      channel.write(torn, 8);
+    }
+
+    store = SnapshotStore.open(file, 1, null);
+    assertEquals("home", string(store.get("home")));
+    assertEquals(end, readEnd());
+    store.put("about", bytes("about"));
+    store.close();
+
+    store = SnapshotStore.open(file, 1, null);
+    assertEquals("home", string(store.get("home")));
+    assertEquals("about", string(store.get("about")));
+    store.close();
+  }
+
+  public void testManyAppends() throws IOException {
+    SnapshotStore store = SnapshotStore.open(file, 1, null);
+    for (int i = 0; i < 5000; i++) {
+      store.put("page/" + i, bytes("<p>" + i + "</p>"));
+    }
+    assertEquals("<p>0</p>", string(store.get("page/0")));
+    assertEquals("<p>4999</p>", string(store.get("page/4999")));
+    store.close();
+
+    store = SnapshotStore.open(file, 1, null);
+    assertEquals(5000, store.size());
+    assertEquals("<p>2500</p>", string(store.get("page/2500")));
+    store.close();
+  }
+
+  public void testFailedCompactionKeepsTheStore() throws IOException {
+    SnapshotStore store = SnapshotStore.open(file, 1, null);
+    store.put("home", bytes("old"));
+    store.put("home", bytes("home"));
+    // The open file moves with the store, and a directory blocks the rename
+    Path moved = dir.resolve("moved.bin");
+    Files.move(file, moved);
+    Files.createDirectory(file);
+    try {
+      store.compact();
+      fail("expected IOException");
+    } catch (IOException expected) {
+      // expected
+    }
+    assertEquals(0, store.getCompactionCount());
+    assertFalse(Files.exists(dir.resolve("snapshots.bin.compact")));
+    assertEquals("home", string(store.get("home")));
+    store.put("about", bytes("about"));
+    store.close();
+
+    store = SnapshotStore.open(moved, 1, null);
+    assertEquals("home", string(store.get("home")));
+    assertEquals("about", string(store.get("about")));
+    store.close();
+    Files.delete(file);
+    Files.delete(moved);
+  }
+
+  public void testNotAStore() throws IOException {
+    Files.write(file, "not a store at all".getBytes(StandardCharsets.UTF_8));
+    try {
+      SnapshotStore.open(file, 1, null);
+      fail("expected IOException");
+    } catch (IOException expected) {
+      // expected
+    }
+  }
+
+  public void testCompaction() throws IOException {
+    SnapshotStore store = SnapshotStore.open(file, 1, Runnable::run);
+    store.put("about", bytes("about"));
+    ByteBuffer before = store.get("about");
+
+    byte[] page = new byte[8 * 1024];
+    for (int i = 0; i < 20; i++) {
+      page[0] = (byte) i;
+      store.put("home", ByteBuffer.wrap(page));
+    }
+    assertTrue(store.getCompactionCount() > 0);
+    assertTrue(Files.size(file) < 20 * page.length);
+    assertEquals(19, store.get("home").get(0));
+    assertEquals("about", string(store.get("about")));
+    // Buffers from before the compaction stay readable
+    assertEquals("about", string(before));
+
+    store.compact();
+    assertEquals(0, store.getGarbageBytes());
+    store.close();
+
+    store = SnapshotStore.open(file, 1, null);
+    assertEquals(2, store.size());
+    assertEquals(19, store.get("home").get(0));
+    store.close();
+  }
+
+  public void testCompactWaitsForBackgroundCompaction() throws Exception {
+    final List<Runnable> queued = new ArrayList<Runnable>();
+    final SnapshotStore store = SnapshotStore.open(file, 1, new Executor() {
+      public void execute(Runnable command) {
+        queued.add(command);
+      }
+    });
+    byte[] page = new byte[8 * 1024];
+    for (int i = 0; i < 20; i++) {
+      store.put("home", ByteBuffer.wrap(page));
+    }
+    assertEquals(1, queued.size());
+
+    final Throwable[] caught = new Throwable[1];
+    Thread caller = new Thread() {
+      @Override
+      public void run() {
+        try {
+          store.compact();
+        } catch (Throwable t) {
+          caught[0] = t;
+        }
+      }
+    };
+    caller.start();
+    caller.join(100);
+    assertTrue(caller.isAlive());
+    assertEquals(0, store.getCompactionCount());
+
+    queued.get(0).run();
+    caller.join(10000);
+    assertFalse(caller.isAlive());
+    assertNull(caught[0]);
+    assertEquals(2, store.getCompactionCount());
+    assertEquals(0, store.getGarbageBytes());
+    store.close();
+  }
+
+  private long readEnd() throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer end = ByteBuffer.allocate(8);
+      channel.read(end, 8);
+      return end.getLong(0);
+    }
+  }
+
+  private static ByteBuffer bytes(String s) {
+    return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String string(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
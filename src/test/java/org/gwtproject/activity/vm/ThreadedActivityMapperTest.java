@@ -0,0 +1,277 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import org.gwtproject.activity.shared.AbstractActivity;
+import org.gwtproject.activity.shared.Activity;
+import org.gwtproject.activity.shared.ActivityManager;
+import org.gwtproject.activity.shared.ActivityMapper;
+import org.gwtproject.event.shared.Event;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.event.shared.HandlerRegistration;
+import org.gwtproject.event.shared.SimpleEventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.place.shared.PlaceChangeEvent;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+import org.gwtproject.user.client.ui.IsWidget;
+
+import com.google.gwt.user.client.ui.Widget;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class ThreadedActivityMapperTest extends TestCase {
+
+  private static class MyPlace extends Place {
+  }
+
+  private static class PingEvent extends Event<Runnable> {
+    static final Type<Runnable> TYPE = new Type<Runnable>();
+
+    @Override
+    public Type<Runnable> getAssociatedType() {
+      return TYPE;
+    }
+
+    @Override
+    protected void dispatch(Runnable handler) {
+      handler.run();
+    }
+  }
+
+  private static class MyView implements IsWidget {
+    public Widget asWidget() {
+      return null;
+    }
+  }
+
+  private static class RecordingDisplay implements AcceptsOneWidget {
+    final CountDownLatch shown = new CountDownLatch(1);
+    volatile IsWidget widget;
+    volatile Thread thread;
+
+    public void setWidget(IsWidget w) {
+      widget = w;
+      thread = Thread.currentThread();
+      if (w != null) {
+        shown.countDown();
+      }
+    }
+  }
+
+  private final ExecutorService owner = Executors.newSingleThreadExecutor();
+  private final MyPlace place1 = new MyPlace();
+  private final MyPlace place2 = new MyPlace();
+
+  @Override
+  protected void tearDown() throws Exception {
+    owner.shutdownNow();
+  }
+
+  public void testBlockingStartPresentsOnOwner() throws Exception {
+    final MyView view = new MyView();
+    final AtomicReference<Thread> startThread = new AtomicReference<Thread>();
+    final CountDownLatch loaded = new CountDownLatch(1);
+    ThreadedActivityMapper mapper = new ThreadedActivityMapper(place -> new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+        startThread.set(Thread.currentThread());
+        try {
+          loaded.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        panel.setWidget(view);
+      }
+    }, owner);
+
+    RecordingDisplay display = new RecordingDisplay();
+    final ActivityManager manager = new ActivityManager(mapper, new SimpleEventBus());
+    Thread ownerThread = owner.submit(() -> {
+      manager.setDisplay(display);
+      manager.onPlaceChange(new PlaceChangeEvent(place1));
+      return Thread.currentThread();
+    }).get();
+
+    loaded.countDown();
+    assertTrue(display.shown.await(10, TimeUnit.SECONDS));
+    assertSame(view, display.widget);
+    assertSame(ownerThread, display.thread);
+    assertNotSame(ownerThread, startThread.get());
+    mapper.shutdown();
+  }
+
+  public void testCancelInterruptsStart() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    final Activity blocking = new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+        started.countDown();
+        try {
+          Thread.sleep(60000);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+        }
+      }
+    };
+    final Activity other = new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      }
+    };
+    ThreadedActivityMapper mapper =
+        new ThreadedActivityMapper(place -> place == place1 ? blocking : other, owner);
+    final ActivityManager manager = new ActivityManager(mapper, new SimpleEventBus());
+    owner.submit(() -> {
+      manager.setDisplay(new RecordingDisplay());
+      manager.onPlaceChange(new PlaceChangeEvent(place1));
+    }).get();
+
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    owner.submit(() -> manager.onPlaceChange(new PlaceChangeEvent(place2))).get();
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    mapper.shutdown();
+  }
+
+  public void testRethrownInterruptAfterCancelIsDropped() throws Exception {
+    final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+    Executor reporting = task -> owner.execute(() -> {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        errors.add(e);
+      }
+    });
+    final CountDownLatch started = new CountDownLatch(1);
+    final AtomicInteger pings = new AtomicInteger();
+    final Activity blocking = new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+        started.countDown();
+        try {
+          Thread.sleep(60000);
+        } catch (InterruptedException e) {
+          eventBus.addHandler(PingEvent.TYPE, pings::incrementAndGet);
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    ExecutorService starts = Executors.newCachedThreadPool();
+    ThreadedActivityMapper mapper = new ThreadedActivityMapper(
+        place -> place == place1 ? blocking : null, reporting, starts);
+    final EventBus eventBus = new SimpleEventBus();
+    final ActivityManager manager = new ActivityManager(mapper, eventBus);
+    owner.submit(() -> {
+      manager.setDisplay(new RecordingDisplay());
+      manager.onPlaceChange(new PlaceChangeEvent(place1));
+    }).get();
+
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    owner.submit(() -> manager.onPlaceChange(new PlaceChangeEvent(place2))).get();
+    starts.shutdown();
+    assertTrue(starts.awaitTermination(10, TimeUnit.SECONDS));
+    owner.submit(() -> eventBus.fireEvent(new PingEvent())).get();
+
+    assertEquals(Collections.emptyList(), errors);
+    assertEquals(0, pings.get());
+  }
+
+  public void testEventBusIsUsedOnOwner() throws Exception {
+    final AtomicReference<Thread> addThread = new AtomicReference<Thread>();
+    final AtomicReference<Thread> handlerThread = new AtomicReference<Thread>();
+    final CountDownLatch pinged = new CountDownLatch(1);
+    ThreadedActivityMapper mapper = new ThreadedActivityMapper(place -> new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+        eventBus.addHandler(PingEvent.TYPE, () -> {
+          handlerThread.set(Thread.currentThread());
+          pinged.countDown();
+        });
+        eventBus.fireEvent(new PingEvent());
+      }
+    }, owner);
+    EventBus eventBus = new SimpleEventBus() {
+      @Override
+      public <H> HandlerRegistration addHandler(Event.Type<H> type, H handler) {
+        if (type == PingEvent.TYPE) {
+          addThread.set(Thread.currentThread());
+        }
+        return super.addHandler(type, handler);
+      }
+    };
+    final ActivityManager manager = new ActivityManager(mapper, eventBus);
+    Thread ownerThread = owner.submit(() -> {
+      manager.setDisplay(new RecordingDisplay());
+      manager.onPlaceChange(new PlaceChangeEvent(place1));
+      return Thread.currentThread();
+    }).get();
+
+    assertTrue(pinged.await(10, TimeUnit.SECONDS));
+    assertSame(ownerThread, addThread.get());
+    assertSame(ownerThread, handlerThread.get());
+    mapper.shutdown();
+  }
+
+  public void testManySessions() throws Exception {
+    final int sessions = 200;
+    final long loadMillis = 50;
+    ActivityMapper blocking = place -> new AbstractActivity() {
+      @Override
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+        try {
+          Thread.sleep(loadMillis);
+        } catch (InterruptedException e) {
+          return;
+        }
+        panel.setWidget(new MyView());
+      }
+    };
+    ThreadedActivityMapper mapper = new ThreadedActivityMapper(blocking, owner);
+
+    final RecordingDisplay[] displays = new RecordingDisplay[sessions];
+    long start = System.nanoTime();
+    for (int i = 0; i < sessions; i++) {
+      final RecordingDisplay display = new RecordingDisplay();
+      displays[i] = display;
+      owner.execute(() -> {
+        ActivityManager manager = new ActivityManager(mapper, new SimpleEventBus());
+        manager.setDisplay(display);
+        manager.onPlaceChange(new PlaceChangeEvent(place1));
+      });
+    }
+    for (RecordingDisplay display : displays) {
+      assertTrue(display.shown.await(10, TimeUnit.SECONDS));
+    }
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    // The loads overlap rather than queue up
+    assertTrue(millis + " ms", millis < sessions * loadMillis / 4);
+    mapper.shutdown();
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.gwtproject.activity.vm;
+
+import org.gwtproject.activity.shared.AbstractActivity;
+import org.gwtproject.activity.shared.ActivityLifecycleListener;
+import org.gwtproject.activity.shared.TraceEventExporter;
+import org.gwtproject.event.shared.EventBus;
+import org.gwtproject.place.shared.Place;
+import org.gwtproject.user.client.ui.AcceptsOneWidget;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import junit.framework.TestCase;
+
+/**
+ * Eponymous unit test.
+ */
+public class TraceEventFilesTest extends TestCase {
+
+  public void testFlush() throws Exception {
+    TraceEventExporter exporter = new TraceEventExporter(place -> "home");
+    ActivityLifecycleListener track = exporter.track("main");
+    track.onPlaceChange(new Place() { });
+    track.onActivityStart(new AbstractActivity() {
+      public void start(AcceptsOneWidget panel, EventBus eventBus) {
+      }
+    });
+
+    Path dir = Files.createTempDirectory("trace");
+    Path file = dir.resolve("trace.json");
+    try {
+      Files.write(file, "stale".getBytes(StandardCharsets.UTF_8));
+      String json = exporter.toJson();
+      TraceEventFiles.flush(exporter, file);
+      assertEquals(json, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+      assertEquals(0, exporter.getEventCount());
+      assertFalse(Files.exists(dir.resolve("trace.json.tmp")));
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(dir);
+    }
+  }
+}